@@ -0,0 +1,102 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:21:40 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.service.RequestAuditService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes a batch the database refused with a data error around the rows that
+ * caused it.
+ *
+ * A data error (SQLSTATE class 22, e.g. a value too long, or 23, a constraint
+ * violation) fails the whole multi-row statement and fails again on every
+ * retry, so such a batch must not be spooled and replayed as is: it would
+ * block everything behind it. The batch is split in halves until the refused
+ * rows are isolated; those are logged and dropped, the rest is written.
+ *
+ * Exposed metrics:
+ * - gateway.audit.rejected (counter)
+ */
+@Slf4j
+@Component
+public class AuditBatchSplitter {
+
+    private final RequestAuditService auditService;
+    private final Duration writeTimeout;
+    private final Counter rejectedCounter;
+
+    public AuditBatchSplitter(RequestAuditService auditService, AuditProperties auditProperties,
+            MeterRegistry meterRegistry) {
+        this.auditService = auditService;
+        this.writeTimeout = auditProperties.getBatch().getWriteTimeout();
+        this.rejectedCounter = Counter.builder("gateway.audit.rejected")
+            .description("Audit rows dropped because the database refused them with a data error")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether the error is a data error that retrying the same rows cannot fix.
+     */
+    public static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcException r2dbc && r2dbc.getSqlState() != null
+                    && (r2dbc.getSqlState().startsWith("22") || r2dbc.getSqlState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write the rows of a batch that failed with the data error, dropping
+     * the rows the database refuses.
+     *
+     * @return the rows that could not be written for another reason (database
+     *         down, timeout), to be retried
+     */
+    public Mono<List<RequestAuditLog>> writeAround(List<RequestAuditLog> batch, Throwable error) {
+        if (batch.size() == 1) {
+            reject(batch.get(0), error);
+            return Mono.just(List.of());
+        }
+        int half = batch.size() / 2;
+        return Flux.just(batch.subList(0, half), batch.subList(half, batch.size()))
+            .concatMap(this::write)
+            .reduce(new ArrayList<>(), (failed, rows) -> {
+                failed.addAll(rows);
+                return failed;
+            });
+    }
+
+    private Mono<List<RequestAuditLog>> write(List<RequestAuditLog> rows) {
+        return auditService.writeBatch(rows)
+            .timeout(writeTimeout)
+            .thenReturn(List.<RequestAuditLog>of())
+            .onErrorResume(error -> isPermanent(error) ? writeAround(rows, error) : Mono.just(rows));
+    }
+
+    private void reject(RequestAuditLog row, Throwable error) {
+        rejectedCounter.increment();
+        log.error("Audit log for request {} on route {} refused by the database, dropped: {}",
+            row.getRequestId(), row.getRouteId(), error.getMessage());
+    }
+}
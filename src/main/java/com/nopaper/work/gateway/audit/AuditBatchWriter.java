@@ -0,0 +1,143 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 16-Oct-2026 11:58:21 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.List;
+
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.service.RequestAuditService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Pulls audit rows from the {@link AuditIngestionQueue} in size- and
+ * time-bounded batches and hands every batch to the active {@link AuditSink}.
+ *
+ * One round trip per batch instead of one per proxied request keeps the audit
+ * trail from competing with the route loader for the R2DBC pool.
+ *
+ * The writer is stopped right after the web server's graceful shutdown phase,
+ * so rows produced by in-flight requests are still flushed before the
+ * connection pool is closed.
+ *
+ * Batches that fail, or are not written within the write timeout, are handed
+ * to the local {@link AuditSpool} and replayed from there once the database
+ * recovers. A batch refused with a data error is written around the refused
+ * rows instead, see {@link AuditBatchSplitter}, since retrying it cannot help.
+ */
+@Slf4j
+@Component
+public class AuditBatchWriter implements SmartLifecycle {
+
+    private final AuditIngestionQueue ingestionQueue;
+    private final RequestAuditService auditService;
+    private final AuditSpool spool;
+    private final AuditBatchSplitter splitter;
+    private final AuditProperties.Batch settings;
+    private final int batchSize;
+
+    private final Sinks.Empty<Void> drained = Sinks.empty();
+
+    private volatile Disposable subscription;
+    private volatile boolean running;
+
+    public AuditBatchWriter(AuditIngestionQueue ingestionQueue, RequestAuditService auditService,
+            AuditSpool spool, AuditBatchSplitter splitter, AuditProperties auditProperties) {
+        this.ingestionQueue = ingestionQueue;
+        this.auditService = auditService;
+        this.spool = spool;
+        this.splitter = splitter;
+        this.settings = auditProperties.getBatch();
+        this.batchSize = Math.max(1, settings.getSize());
+    }
+
+    /**
+     * Write one batch through the active audit sink, spooling it locally if
+     * the sink fails or is too slow.
+     */
+    private Mono<Long> writeBatch(List<RequestAuditLog> batch) {
+        return auditService.writeBatch(batch)
+            .timeout(settings.getWriteTimeout())
+            .doOnSuccess(rows -> log.debug("Flushed batch of {} audit logs", rows))
+            .onErrorResume(error -> AuditBatchSplitter.isPermanent(error)
+                ? splitter.writeAround(batch, error)
+                    .flatMap(failed -> failed.isEmpty() ? Mono.just(0L) : spoolBatch(failed, error))
+                : spoolBatch(batch, error));
+    }
+
+    private Mono<Long> spoolBatch(List<RequestAuditLog> batch, Throwable error) {
+        if (!spool.isAvailable()) {
+            log.error("Failed to flush batch of {} audit logs", batch.size(), error);
+            return Mono.just(0L);
+        }
+        log.warn("Failed to flush batch of {} audit logs, spooling locally: {}", batch.size(), error.toString());
+        // Mapped writes and fsync block, keep them off the event loop
+        return Mono.fromCallable(() -> spool.append(batch))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public void start() {
+        // Fair backpressure: rows are only pulled from the ingestion queue when a
+        // flush slot is free, so a slow database turns into queue backlog
+        subscription = ingestionQueue.records()
+            .bufferTimeout(batchSize, settings.getMaxLinger(), true)
+            .flatMap(this::writeBatch, Math.max(1, settings.getFlushConcurrency()))
+            .doFinally(signal -> drained.tryEmitEmpty())
+            .subscribe();
+        running = true;
+        log.info("Audit batch writer started (batch size: {}, max linger: {}, flush concurrency: {})",
+            batchSize, settings.getMaxLinger(), settings.getFlushConcurrency());
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> { });
+    }
+
+    /**
+     * Complete the ingestion queue and let the remaining batches finish.
+     */
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        ingestionQueue.complete();
+
+        drained.asMono()
+            .timeout(settings.getShutdownTimeout())
+            .doOnError(error -> {
+                log.warn("Audit batch writer did not drain within {}", settings.getShutdownTimeout());
+                subscription.dispose();
+            })
+            .onErrorResume(error -> Mono.empty())
+            .doFinally(signal -> {
+                log.info("Audit batch writer stopped");
+                callback.run();
+            })
+            .subscribe();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop right after the web server has finished its graceful shutdown
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 12:58:32 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Copies at most a fixed number of bytes from the data buffers of a body as
+ * they stream past.
+ *
+ * The buffers themselves are neither retained nor consumed: their read
+ * position is left untouched, so they continue downstream unchanged. The copy
+ * lives in a buffer taken from the exchange's (pooled) buffer factory and
+ * must be handed back with {@link #release()}.
+ */
+public class AuditBodyCapture {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final DataBufferFactory bufferFactory;
+    private final int limit;
+
+    private DataBuffer captured;
+    private int length;
+    private boolean released;
+
+    public AuditBodyCapture(DataBufferFactory bufferFactory, int limit) {
+        this.bufferFactory = bufferFactory;
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * Copy the readable bytes of the buffer, up to the remaining capacity.
+     */
+    public synchronized void copy(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        int remaining = Math.min(readable, limit - length);
+        if (remaining <= 0 || released) {
+            return;
+        }
+
+        if (captured == null) {
+            captured = bufferFactory.allocateBuffer(Math.min(limit, Math.max(INITIAL_CAPACITY, remaining)));
+        }
+        captured.ensureWritable(remaining);
+
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (remaining > 0 && iterator.hasNext()) {
+                // Views over the readable bytes, the source positions do not move
+                ByteBuffer view = iterator.next();
+                int count = Math.min(view.remaining(), remaining);
+                view.limit(view.position() + count);
+                captured.write(view);
+                length += count;
+                remaining -= count;
+            }
+        }
+    }
+
+    /**
+     * Captured bytes decoded as UTF-8, or null if nothing was captured.
+     */
+    public synchronized String asString() {
+        if (captured == null || released || length == 0) {
+            return null;
+        }
+        return captured.toString(captured.readPosition(), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the capture buffer to its pool. Safe to call more than once.
+     */
+    public synchronized void release() {
+        if (!released) {
+            released = true;
+            if (captured != null) {
+                DataBufferUtils.release(captured);
+                captured = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:41:27 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+/**
+ * Column layout of way.request_audit_log shared by the bulk audit sinks.
+ * The order matches the order in which the sinks write row values.
+ */
+final class AuditColumns {
+
+    static final String COLUMN_LIST = "request_id, route_id, method, path, query_params, client_ip, user_agent, "
+        + "request_headers, request_body, response_status, response_headers, response_body, "
+        + "processing_time_ms, error_message, created_at";
+
+    static final int COLUMN_COUNT = 15;
+
+    // VARCHAR lengths in schema.sql
+    static final int REQUEST_ID_LENGTH = 100;
+    static final int ROUTE_ID_LENGTH = 100;
+    static final int METHOD_LENGTH = 10;
+    static final int PATH_LENGTH = 1000;
+    static final int CLIENT_IP_LENGTH = 45;
+    static final int USER_AGENT_LENGTH = 1000;
+
+    private AuditColumns() {
+    }
+
+    /**
+     * Truncate the row's VARCHAR columns to their length in the table. The
+     * values come from the client (headers, path), and one value too long
+     * would fail the whole multi-row statement it is written with.
+     *
+     * @return the row, changed in place
+     */
+    static RequestAuditLog fit(RequestAuditLog row) {
+        row.setRequestId(truncate(row.getRequestId(), REQUEST_ID_LENGTH));
+        row.setRouteId(truncate(row.getRouteId(), ROUTE_ID_LENGTH));
+        row.setMethod(truncate(row.getMethod(), METHOD_LENGTH));
+        row.setPath(truncate(row.getPath(), PATH_LENGTH));
+        row.setClientIp(truncate(row.getClientIp(), CLIENT_IP_LENGTH));
+        row.setUserAgent(truncate(row.getUserAgent(), USER_AGENT_LENGTH));
+        return row;
+    }
+
+    /**
+     * Cut the value to at most length characters, never between the halves of
+     * a surrogate pair (PostgreSQL counts code points, so this always fits).
+     */
+    static String truncate(String value, int length) {
+        if (value == null || value.length() <= length) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(length - 1)) ? length - 1 : length;
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 12:24:10 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounded, lock-free hand-off between the audit filter and the batch writer.
+ *
+ * Producers enqueue on the calling thread without touching an executor; rows
+ * are only emitted downstream as fast as the batch writer requests them, so a
+ * slow database shows up as backlog here and is resolved by the configured
+ * {@link AuditOverflowPolicy} instead of unbounded memory growth.
+ *
+ * Exposed metrics:
+ * - gateway.audit.queue.backlog (gauge)
+ * - gateway.audit.queue.accepted (counter)
+ * - gateway.audit.queue.dropped (counter, tagged by reason)
+ */
+@Slf4j
+@Component
+public class AuditIngestionQueue {
+
+    private final Queue<RequestAuditLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong overflowSequence = new AtomicLong();
+
+    private final int capacity;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final long blockTimeoutNanos;
+
+    private final Counter acceptedCounter;
+    private final Counter evictedCounter;
+    private final Counter rejectedCounter;
+    private final Counter shutdownCounter;
+
+    private final Flux<RequestAuditLog> records;
+
+    private volatile FluxSink<RequestAuditLog> sink;
+    private volatile boolean completing;
+
+    public AuditIngestionQueue(AuditProperties auditProperties, MeterRegistry meterRegistry) {
+        AuditProperties.Queue settings = auditProperties.getQueue();
+        this.capacity = Math.max(1, settings.getCapacity());
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.sampleRate = Math.max(1, settings.getSampleRate());
+        this.blockTimeoutNanos = settings.getBlockTimeout().toNanos();
+
+        Gauge.builder("gateway.audit.queue.backlog", size, AtomicInteger::get)
+            .description("Audit rows waiting to be written")
+            .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("gateway.audit.queue.accepted")
+            .description("Audit rows accepted by the ingestion queue")
+            .register(meterRegistry);
+        this.evictedCounter = droppedCounter(meterRegistry, "evicted");
+        this.rejectedCounter = droppedCounter(meterRegistry, "rejected");
+        this.shutdownCounter = droppedCounter(meterRegistry, "shutdown");
+
+        this.records = Flux.create(emitter -> {
+            emitter.onRequest(requested -> drain());
+            emitter.onDispose(() -> sink = null);
+            sink = emitter;
+            drain();
+        });
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("gateway.audit.queue.dropped")
+            .description("Audit rows dropped by the ingestion queue")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Offer an audit row. Only the BLOCK policy may park the caller, and only
+     * for the configured timeout; a caller on a non-blocking thread (a Netty
+     * event loop) is never parked, its row is dropped as with DROP_NEWEST.
+     *
+     * @return true if the row was queued
+     */
+    public boolean offer(RequestAuditLog auditLog) {
+        if (completing) {
+            shutdownCounter.increment();
+            return false;
+        }
+
+        boolean accepted = tryReserve() ? enqueue(auditLog) : overflow(auditLog);
+        if (accepted) {
+            acceptedCounter.increment();
+            drain();
+        }
+        return accepted;
+    }
+
+    /**
+     * Stream of queued rows, honouring downstream demand. Meant for a single subscriber.
+     */
+    public Flux<RequestAuditLog> records() {
+        return records;
+    }
+
+    /**
+     * Stop accepting rows and complete {@link #records()} once the backlog is emitted.
+     */
+    public void complete() {
+        completing = true;
+        drain();
+    }
+
+    public int backlog() {
+        return size.get();
+    }
+
+    private boolean overflow(RequestAuditLog auditLog) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                return replaceOldest(auditLog);
+            case SAMPLE:
+                if (overflowSequence.incrementAndGet() % sampleRate == 0) {
+                    return replaceOldest(auditLog);
+                }
+                rejectedCounter.increment();
+                return false;
+            case BLOCK:
+                // Parking an event loop would stall every connection on it
+                if (Schedulers.isInNonBlockingThread()) {
+                    return reject(auditLog);
+                }
+                return awaitCapacity() ? enqueue(auditLog) : reject(auditLog);
+            case DROP_NEWEST:
+            default:
+                return reject(auditLog);
+        }
+    }
+
+    private boolean reject(RequestAuditLog auditLog) {
+        rejectedCounter.increment();
+        log.debug("Audit queue full, dropped log for request: {}", auditLog.getRequestId());
+        return false;
+    }
+
+    /**
+     * Swap the head of the queue for the new row; the backlog size is unchanged.
+     */
+    private boolean replaceOldest(RequestAuditLog auditLog) {
+        RequestAuditLog evicted = queue.poll();
+        if (evicted == null) {
+            // The writer drained the queue in the meantime
+            return tryReserve() ? enqueue(auditLog) : reject(auditLog);
+        }
+        evictedCounter.increment();
+        queue.offer(auditLog);
+        return true;
+    }
+
+    private boolean awaitCapacity() {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (!tryReserve()) {
+            if (completing || System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        return true;
+    }
+
+    private boolean tryReserve() {
+        for (;;) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean enqueue(RequestAuditLog auditLog) {
+        queue.offer(auditLog);
+        return true;
+    }
+
+    /**
+     * Emit as many rows as requested. Whichever thread wins the work-in-progress
+     * counter drains on behalf of all others.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            FluxSink<RequestAuditLog> emitter = sink;
+            if (emitter != null) {
+                while (emitter.requestedFromDownstream() > 0) {
+                    RequestAuditLog next = queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    size.decrementAndGet();
+                    emitter.next(next);
+                }
+
+                if (completing && queue.isEmpty()) {
+                    emitter.complete();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 12:21:47 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+/**
+ * Behaviour of the audit ingestion queue once it is full.
+ */
+public enum AuditOverflowPolicy {
+
+    /** Evict the oldest queued row to make room for the new one. */
+    DROP_OLDEST,
+
+    /** Reject the new row and keep the backlog as it is. */
+    DROP_NEWEST,
+
+    /** Keep one of every N overflowing rows (evicting the oldest), drop the rest. */
+    SAMPLE,
+
+    /**
+     * Wait up to the configured timeout for free space, then drop the new row.
+     * Only threads that may block wait: rows offered from a non-blocking thread,
+     * such as the Netty event loop the audit filter runs on, are dropped right
+     * away as with DROP_NEWEST.
+     */
+    BLOCK
+}
@@ -0,0 +1,285 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 3:12:47 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the range partitions of request_audit_log in shape:
+ * - creates the current partition and the next N ahead of time
+ * - detaches and drops partitions older than the retention period, so
+ *   expired rows never go through DELETE and VACUUM
+ *
+ * Partitions are named request_audit_log_pYYYYMMDD (daily) or
+ * request_audit_log_pYYYYMMDDHH (hourly). Rows outside every range (clock
+ * skew, spool replays into dropped periods) land in the DEFAULT partition
+ * request_audit_log_default instead of failing; its expired rows are deleted,
+ * and rows it holds for a period whose partition is created later are moved
+ * into that partition.
+ *
+ * The first pass runs synchronously on startup, before the
+ * {@link AuditBatchWriter} starts. A request_audit_log created before
+ * partitioning was introduced fails the startup: migrate it with
+ * db/partition-request-audit-log.sql, or set gateway.audit.partition.enabled=false.
+ * If the database cannot be reached on startup, the first pass is retried
+ * after a check interval.
+ */
+@Slf4j
+@Component
+public class AuditPartitionManager implements SmartLifecycle {
+
+    private static final String SCHEMA = "way";
+    private static final String TABLE = "request_audit_log";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{8}|\\d{10})");
+    private static final DateTimeFormatter DAILY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOURLY = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final DatabaseClient databaseClient;
+    private final AuditProperties.Partition settings;
+
+    private volatile Disposable schedule;
+
+    public AuditPartitionManager(DatabaseClient databaseClient, AuditProperties auditProperties) {
+        this.databaseClient = databaseClient;
+        this.settings = auditProperties.getPartition();
+    }
+
+    /**
+     * Run the first pass, then schedule the others. The schema script has run
+     * by now: it runs when the connection factory initializer is created.
+     *
+     * @throws IllegalStateException if request_audit_log is not partitioned
+     */
+    @Override
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Boolean partitioned = isPartitioned()
+            .timeout(STARTUP_TIMEOUT)
+            .onErrorResume(error -> {
+                log.error("Audit partitions could not be checked on startup, retrying in {}: {}",
+                    settings.getCheckInterval(), error.getMessage());
+                return Mono.empty();
+            })
+            .block();
+        if (Boolean.FALSE.equals(partitioned)) {
+            throw new IllegalStateException(SCHEMA + "." + TABLE + " is not partitioned: migrate it with "
+                + "db/partition-request-audit-log.sql, or set gateway.audit.partition.enabled=false");
+        }
+        if (partitioned != null) {
+            maintain()
+                .timeout(STARTUP_TIMEOUT)
+                .onErrorResume(error -> {
+                    log.error("Audit partition maintenance failed on startup", error);
+                    return Mono.empty();
+                })
+                .block();
+        }
+        schedule = Flux.interval(settings.getCheckInterval(), settings.getCheckInterval())
+            .onBackpressureDrop()
+            .concatMap(tick -> maintain()
+                .onErrorResume(error -> {
+                    log.error("Audit partition maintenance failed", error);
+                    return Mono.empty();
+                }), 1)
+            .subscribe();
+        log.info("Audit partition manager started ({} partitions, {} ahead, retention {})",
+            settings.getGranularity(), settings.getPrecreate(), settings.getRetention());
+    }
+
+    @Override
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+            schedule = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return schedule != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before the AuditBatchWriter, so its first rows find their partition
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2;
+    }
+
+    /**
+     * Run one maintenance pass.
+     */
+    public Mono<Void> maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        return isPartitioned().flatMap(partitioned -> {
+            if (!partitioned) {
+                log.error("{}.{} is not partitioned, skipping partition maintenance", SCHEMA, TABLE);
+                return Mono.empty();
+            }
+            return createDefault().then(createUpcoming(now)).then(dropExpired(now));
+        });
+    }
+
+    private Mono<Boolean> isPartitioned() {
+        return databaseClient.sql("SELECT count(*) FROM pg_partitioned_table pt "
+                + "JOIN pg_class c ON c.oid = pt.partrelid "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "WHERE n.nspname = $1 AND c.relname = $2")
+            .bind(0, SCHEMA)
+            .bind(1, TABLE)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .map(count -> count > 0);
+    }
+
+    private Mono<Void> createDefault() {
+        return databaseClient.sql(String.format("CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s DEFAULT",
+                SCHEMA, DEFAULT_PARTITION, SCHEMA, TABLE))
+            .then();
+    }
+
+    /**
+     * Create the partitions as standalone tables, move the rows the DEFAULT
+     * partition holds for their range into them and attach them, in one
+     * statement: attaching a range the DEFAULT partition has rows for fails.
+     */
+    private Mono<Void> createUpcoming(LocalDateTime now) {
+        LocalDateTime current = periodStart(now);
+        return Flux.range(0, Math.max(0, settings.getPrecreate()) + 1)
+            .map(offset -> next(current, offset))
+            .concatMap(from -> {
+                String partition = partitionName(from);
+                String sql = String.format("""
+                    DO $$
+                    BEGIN
+                        IF to_regclass('%1$s.%2$s') IS NULL THEN
+                            CREATE TABLE %1$s.%2$s (LIKE %1$s.%3$s INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+                            WITH moved AS (
+                                DELETE FROM %1$s.%4$s WHERE created_at >= '%5$s' AND created_at < '%6$s'
+                                RETURNING *
+                            )
+                            INSERT INTO %1$s.%2$s SELECT * FROM moved;
+                            ALTER TABLE %1$s.%3$s ATTACH PARTITION %1$s.%2$s FOR VALUES FROM ('%5$s') TO ('%6$s');
+                        END IF;
+                    END
+                    $$""", SCHEMA, partition, TABLE, DEFAULT_PARTITION, BOUND.format(from),
+                    BOUND.format(next(from, 1)));
+                return databaseClient.sql(sql).then()
+                    .onErrorResume(error -> {
+                        // e.g. overlaps a partition created with another granularity
+                        log.warn("Could not create audit partition {}: {}", partition, error.getMessage());
+                        return Mono.empty();
+                    });
+            })
+            .then();
+    }
+
+    private Mono<Void> dropExpired(LocalDateTime now) {
+        LocalDateTime cutoff = now.minus(settings.getRetention());
+        return databaseClient.sql("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid "
+                + "JOIN pg_class p ON p.oid = i.inhparent "
+                + "JOIN pg_namespace n ON n.oid = p.relnamespace "
+                + "WHERE n.nspname = $1 AND p.relname = $2")
+            .bind(0, SCHEMA)
+            .bind(1, TABLE)
+            .map(row -> row.get("relname", String.class))
+            .all()
+            .filter(partition -> isExpired(partition, cutoff))
+            .concatMap(this::detachAndDrop)
+            .then(databaseClient.sql(String.format("DELETE FROM %s.%s WHERE created_at < $1", SCHEMA,
+                    DEFAULT_PARTITION))
+                .bind(0, cutoff)
+                .fetch()
+                .rowsUpdated()
+                .filter(rows -> rows > 0)
+                .doOnNext(rows -> log.info("Deleted {} expired audit rows from {}", rows, DEFAULT_PARTITION))
+                .then());
+    }
+
+    private Mono<Void> detachAndDrop(String partition) {
+        String detach = String.format("ALTER TABLE %s.%s DETACH PARTITION %s.%s%s",
+            SCHEMA, TABLE, SCHEMA, partition, settings.isDetachConcurrently() ? " CONCURRENTLY" : "");
+        String drop = String.format("DROP TABLE IF EXISTS %s.%s", SCHEMA, partition);
+
+        return databaseClient.sql(detach).then()
+            .onErrorResume(error -> finalizeDetach(partition, error))
+            .then(databaseClient.sql(drop).then())
+            .doOnSuccess(done -> log.info("Dropped expired audit partition {}", partition));
+    }
+
+    /**
+     * An interrupted concurrent detach leaves the partition in a pending state
+     * that has to be finalized before it can be dropped.
+     */
+    private Mono<Void> finalizeDetach(String partition, Throwable error) {
+        if (!settings.isDetachConcurrently()) {
+            return Mono.error(error);
+        }
+        return databaseClient.sql(String.format("ALTER TABLE %s.%s DETACH PARTITION %s.%s FINALIZE",
+                SCHEMA, TABLE, SCHEMA, partition))
+            .then()
+            .onErrorMap(finalizeError -> error);
+    }
+
+    /**
+     * A partition is expired when its whole range lies before the cutoff.
+     * Tables that do not follow the naming scheme are never touched.
+     */
+    private static boolean isExpired(String partition, LocalDateTime cutoff) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            return false;
+        }
+        String stamp = matcher.group(1);
+        LocalDateTime end = stamp.length() == 8
+            ? LocalDate.parse(stamp, DAILY).atStartOfDay().plusDays(1)
+            : LocalDateTime.parse(stamp, HOURLY).plusHours(1);
+        return !end.isAfter(cutoff);
+    }
+
+    private LocalDateTime periodStart(LocalDateTime time) {
+        return settings.getGranularity() == AuditProperties.PartitionGranularity.HOURLY
+            ? time.truncatedTo(ChronoUnit.HOURS)
+            : time.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private LocalDateTime next(LocalDateTime start, long periods) {
+        return settings.getGranularity() == AuditProperties.PartitionGranularity.HOURLY
+            ? start.plusHours(periods)
+            : start.plusDays(periods);
+    }
+
+    private String partitionName(LocalDateTime start) {
+        DateTimeFormatter format = settings.getGranularity() == AuditProperties.PartitionGranularity.HOURLY
+            ? HOURLY : DAILY;
+        return TABLE + "_p" + format.format(start);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 2:31:09 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+/**
+ * Compact binary encoding of an audit row for the local spool.
+ *
+ * Layout: a 16-bit presence mask (one bit per column, set when non-null)
+ * followed by the present columns in table order. Strings are a varint byte
+ * length plus UTF-8 bytes, numbers are fixed width and created_at is stored
+ * as microseconds since the epoch.
+ */
+final class AuditRecordCodec {
+
+    private AuditRecordCodec() {
+    }
+
+    /**
+     * Encode the row into the buffer.
+     *
+     * @throws BufferOverflowException if the buffer is too small, callers grow and retry
+     */
+    static void encode(RequestAuditLog row, ByteBuffer out) {
+        Object[] values = {
+            row.getRequestId(), row.getRouteId(), row.getMethod(), row.getPath(),
+            row.getQueryParams(), row.getClientIp(), row.getUserAgent(), row.getRequestHeaders(),
+            row.getRequestBody(), row.getResponseStatus(), row.getResponseHeaders(), row.getResponseBody(),
+            row.getProcessingTimeMs(), row.getErrorMessage(), row.getCreatedAt()
+        };
+
+        int presence = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                presence |= 1 << i;
+            }
+        }
+        out.putShort((short) presence);
+
+        for (Object value : values) {
+            if (value instanceof String string) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                putVarInt(out, bytes.length);
+                out.put(bytes);
+            } else if (value instanceof Integer number) {
+                out.putInt(number);
+            } else if (value instanceof Long number) {
+                out.putLong(number);
+            } else if (value instanceof LocalDateTime timestamp) {
+                out.putLong(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000);
+            }
+        }
+    }
+
+    static RequestAuditLog decode(ByteBuffer in) {
+        int presence = in.getShort() & 0xFFFF;
+
+        RequestAuditLog.RequestAuditLogBuilder row = RequestAuditLog.builder();
+        row.requestId(string(in, presence, 0));
+        row.routeId(string(in, presence, 1));
+        row.method(string(in, presence, 2));
+        row.path(string(in, presence, 3));
+        row.queryParams(string(in, presence, 4));
+        row.clientIp(string(in, presence, 5));
+        row.userAgent(string(in, presence, 6));
+        row.requestHeaders(string(in, presence, 7));
+        row.requestBody(string(in, presence, 8));
+        row.responseStatus(present(presence, 9) ? in.getInt() : null);
+        row.responseHeaders(string(in, presence, 10));
+        row.responseBody(string(in, presence, 11));
+        row.processingTimeMs(present(presence, 12) ? in.getLong() : null);
+        row.errorMessage(string(in, presence, 13));
+        if (present(presence, 14)) {
+            long micros = in.getLong();
+            row.createdAt(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC));
+        }
+        return row.build();
+    }
+
+    private static boolean present(int presence, int column) {
+        return (presence & (1 << column)) != 0;
+    }
+
+    private static String string(ByteBuffer in, int presence, int column) {
+        if (!present(presence, column)) {
+            return null;
+        }
+        int length = getVarInt(in);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
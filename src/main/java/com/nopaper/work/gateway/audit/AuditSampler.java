@@ -0,0 +1,150 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 3:41:26 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides per completed request whether its audit row is written.
+ *
+ * Policies are configured per route ID (gateway.audit.sampling.routes.*)
+ * with a fallback policy, compiled into an immutable snapshot and swapped
+ * atomically when the environment changes (e.g. /actuator/refresh), so the
+ * hot path is a map lookup and a few comparisons.
+ *
+ * Exposed metrics:
+ * - gateway.audit.sampling.kept (counter, tagged by route and reason)
+ * - gateway.audit.sampling.dropped (counter, tagged by route)
+ */
+@Slf4j
+@Component
+public class AuditSampler {
+
+    private static final String PREFIX = "gateway.audit.sampling";
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RouteCounters> counters = new ConcurrentHashMap<>();
+
+    private volatile Policies policies;
+
+    public AuditSampler(AuditProperties auditProperties, Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.policies = compile(auditProperties.getSampling());
+    }
+
+    /**
+     * Recompile the policies when any sampling property changed.
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PREFIX))) {
+            return;
+        }
+        AuditProperties.Sampling sampling = Binder.get(environment)
+            .bind(PREFIX, AuditProperties.Sampling.class)
+            .orElseGet(AuditProperties.Sampling::new);
+        policies = compile(sampling);
+        log.info("Reloaded audit sampling policies for routes: {}", policies.routes().keySet());
+    }
+
+    /**
+     * @param routeId route of the request, may be null
+     * @param status response status, errors are passed as 500
+     * @param processingTimeMs end-to-end time of the request
+     * @return true if the audit row should be written
+     */
+    public boolean sample(String routeId, Integer status, long processingTimeMs) {
+        Policies current = policies;
+        String route = routeId != null ? routeId : UNKNOWN_ROUTE;
+        RouteCounters routeCounters = counters.computeIfAbsent(route, this::routeCounters);
+
+        if (!current.enabled()) {
+            routeCounters.sampled().increment();
+            return true;
+        }
+
+        Policy policy = current.routes().getOrDefault(route, current.defaults());
+        if (status != null && status >= policy.keepStatusAtLeast()) {
+            routeCounters.status().increment();
+            return true;
+        }
+        if (processingTimeMs > policy.keepSlowerThanMs()) {
+            routeCounters.slow().increment();
+            return true;
+        }
+        if (policy.rate() >= 1.0 || ThreadLocalRandom.current().nextDouble() < policy.rate()) {
+            routeCounters.sampled().increment();
+            return true;
+        }
+        routeCounters.dropped().increment();
+        return false;
+    }
+
+    private static Policies compile(AuditProperties.Sampling sampling) {
+        Policy defaults = merge(sampling.getDefaults(), new Policy(Integer.MAX_VALUE, Long.MAX_VALUE, 1.0));
+        Map<String, Policy> routes = new HashMap<>();
+        sampling.getRoutes().forEach((routeId, policy) -> routes.put(routeId, merge(policy, defaults)));
+        return new Policies(sampling.isEnabled(), defaults, Map.copyOf(routes));
+    }
+
+    private static Policy merge(AuditProperties.SamplingPolicy policy, Policy fallback) {
+        if (policy == null) {
+            return fallback;
+        }
+        return new Policy(
+            policy.getKeepStatusAtLeast() != null ? policy.getKeepStatusAtLeast() : fallback.keepStatusAtLeast(),
+            policy.getKeepSlowerThan() != null ? policy.getKeepSlowerThan().toMillis() : fallback.keepSlowerThanMs(),
+            policy.getRate() != null ? Math.max(0.0, Math.min(1.0, policy.getRate())) : fallback.rate());
+    }
+
+    private RouteCounters routeCounters(String route) {
+        return new RouteCounters(
+            keptCounter(route, "status"),
+            keptCounter(route, "slow"),
+            keptCounter(route, "sampled"),
+            Counter.builder("gateway.audit.sampling.dropped")
+                .description("Audit rows discarded by sampling")
+                .tag("route", route)
+                .register(meterRegistry));
+    }
+
+    private Counter keptCounter(String route, String reason) {
+        return Counter.builder("gateway.audit.sampling.kept")
+            .description("Audit rows kept by sampling")
+            .tag("route", route)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private record Policy(int keepStatusAtLeast, long keepSlowerThanMs, double rate) {
+    }
+
+    private record Policies(boolean enabled, Policy defaults, Map<String, Policy> routes) {
+    }
+
+    private record RouteCounters(Counter status, Counter slow, Counter sampled, Counter dropped) {
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:34:18 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.List;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination for batches of audit rows.
+ *
+ * The active implementation is selected by the gateway.audit.sink property
+ * and matched against {@link #getName()}.
+ */
+public interface AuditSink {
+
+    /**
+     * Name used to select this sink in configuration.
+     */
+    String getName();
+
+    /**
+     * Persist a batch of audit rows.
+     *
+     * @return number of rows written
+     */
+    Mono<Long> write(List<RequestAuditLog> batch);
+}
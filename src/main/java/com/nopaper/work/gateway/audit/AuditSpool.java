@@ -0,0 +1,533 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 2:38:52 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.service.RequestAuditService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Append-only, memory-mapped write-ahead spool for audit batches the database
+ * could not take (write failed or timed out).
+ *
+ * Records are appended to fixed-size segment files (audit-&lt;sequence&gt;.seg)
+ * as [int length][int crc32c][payload], see {@link AuditRecordCodec}. A new
+ * segment is started when the current one is full, as long as all segments
+ * together stay below the configured maximum size; rows beyond that are dropped.
+ *
+ * A replayer drains the spool in append order at a bounded rate once the
+ * database accepts writes again. The replay position is persisted after every
+ * replayed batch (temp file + atomic move), so after a crash replay resumes at
+ * the last committed batch - delivery is at-least-once. A batch refused with a
+ * data error is written around the refused rows, which are dropped (see
+ * {@link AuditBatchSplitter}), so one bad row cannot hold up the spool. On
+ * startup the tail of the newest segment is validated record by record and a
+ * torn write is cut off.
+ *
+ * Exposed metrics:
+ * - gateway.audit.spool.pending (gauge)
+ * - gateway.audit.spool.size (gauge, bytes on disk)
+ * - gateway.audit.spool.spooled / replayed / dropped (counters)
+ */
+@Slf4j
+@Component
+public class AuditSpool {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String OFFSET_FILE = "replay.offset";
+
+    // int length + int crc32c
+    private static final int RECORD_HEADER = 8;
+
+    private static final Duration MAX_REPLAY_BACKOFF = Duration.ofSeconds(30);
+
+    private final AuditProperties.Spool settings;
+    private final Duration writeTimeout;
+    private final RequestAuditService auditService;
+    private final AuditBatchSplitter splitter;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final CRC32C checksum = new CRC32C();
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter spooledCounter;
+    private final Counter replayedCounter;
+    private final Counter droppedCounter;
+
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    private long writeSegment;
+    private int writePosition;
+    private long readSegment;
+    private int readPosition;
+
+    private volatile boolean available;
+    private volatile Disposable replayer;
+
+    // Written when a replay write completes, read by the next replay tick
+    private volatile long retryAtNanos;
+    private volatile Duration replayBackoff;
+
+    public AuditSpool(AuditProperties auditProperties, RequestAuditService auditService, AuditBatchSplitter splitter,
+            MeterRegistry meterRegistry) {
+        this.settings = auditProperties.getSpool();
+        this.writeTimeout = auditProperties.getBatch().getWriteTimeout();
+        this.auditService = auditService;
+        this.splitter = splitter;
+        this.directory = Paths.get(settings.getDirectory());
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, settings.getSegmentSize().toBytes());
+        this.maxSize = settings.getMaxSize().toBytes();
+        this.replayBackoff = Duration.ofSeconds(1);
+        this.retryAtNanos = System.nanoTime();
+
+        Gauge.builder("gateway.audit.spool.pending", pending, AtomicLong::get)
+            .description("Audit rows waiting in the local spool")
+            .register(meterRegistry);
+        Gauge.builder("gateway.audit.spool.size", this, AuditSpool::sizeOnDisk)
+            .description("Bytes allocated by audit spool segments")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.spooledCounter = Counter.builder("gateway.audit.spool.spooled")
+            .description("Audit rows written to the local spool")
+            .register(meterRegistry);
+        this.replayedCounter = Counter.builder("gateway.audit.spool.replayed")
+            .description("Audit rows replayed from the local spool")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("gateway.audit.spool.dropped")
+            .description("Audit rows dropped because the spool was full or unavailable")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!settings.isEnabled()) {
+            log.info("Audit spool disabled");
+            return;
+        }
+        try {
+            recover();
+            available = true;
+        } catch (IOException | UncheckedIOException e) {
+            // Auditing must never take the gateway down, run without a spool instead
+            log.error("Audit spool could not be opened in {}, failed batches will be dropped", directory, e);
+            return;
+        }
+
+        int batchSize = Math.max(1, settings.getReplayBatchSize());
+        Duration tick = Duration.ofMillis(Math.max(10, batchSize * 1000L / Math.max(1, settings.getReplayRate())));
+        replayer = Flux.interval(tick, Schedulers.boundedElastic())
+            .onBackpressureDrop()
+            .concatMap(ignored -> replay(batchSize), 1)
+            .subscribe();
+
+        log.info("Audit spool opened in {} ({} pending rows, replay: {} rows every {})",
+            directory, pending.get(), batchSize, tick);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (replayer != null) {
+            replayer.dispose();
+        }
+        synchronized (this) {
+            available = false;
+            segments.values().forEach(MappedByteBuffer::force);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Append the rows to the spool and force them to disk. Blocking, call it
+     * off the event loop.
+     *
+     * @return number of rows spooled
+     */
+    public synchronized long append(List<RequestAuditLog> batch) {
+        if (!available) {
+            droppedCounter.increment(batch.size());
+            return 0;
+        }
+
+        long spooled = 0;
+        for (RequestAuditLog row : batch) {
+            int length = encode(row);
+            if (length < 0 || !ensureCapacity(RECORD_HEADER + length)) {
+                droppedCounter.increment(batch.size() - spooled);
+                log.warn("Audit spool full ({} bytes), dropped {} audit logs", sizeOnDisk(), batch.size() - spooled);
+                break;
+            }
+
+            MappedByteBuffer segment = segments.get(writeSegment);
+            checksum.reset();
+            checksum.update(scratch.array(), 0, length);
+            segment.putInt(writePosition + 4, (int) checksum.getValue());
+            segment.put(writePosition + RECORD_HEADER, scratch.array(), 0, length);
+            // Length goes last: a record is only visible once it is complete
+            segment.putInt(writePosition, length);
+            writePosition += RECORD_HEADER + length;
+            spooled++;
+        }
+
+        if (spooled > 0) {
+            segments.get(writeSegment).force();
+            pending.addAndGet(spooled);
+            spooledCounter.increment(spooled);
+        }
+        return spooled;
+    }
+
+    private Mono<Void> replay(int batchSize) {
+        if (pending.get() <= 0 || System.nanoTime() - retryAtNanos < 0) {
+            return Mono.empty();
+        }
+
+        ReplayBatch batch = nextBatch(batchSize);
+        if (batch.rows().isEmpty()) {
+            commit(batch);
+            return Mono.empty();
+        }
+
+        return auditService.writeBatch(batch.rows())
+            .timeout(writeTimeout)
+            .then()
+            .onErrorResume(AuditBatchSplitter::isPermanent, error -> splitter.writeAround(batch.rows(), error)
+                .flatMap(failed -> failed.isEmpty() ? Mono.<Void>empty() : Mono.error(new IllegalStateException(
+                    failed.size() + " rows of a batch with refused rows could not be written"))))
+            .doOnSuccess(ignored -> {
+                commit(batch);
+                replayedCounter.increment(batch.rows().size());
+                replayBackoff = Duration.ofSeconds(1);
+            })
+            .onErrorResume(error -> {
+                log.warn("Audit spool replay failed, retrying in {}: {}", replayBackoff, error.getMessage());
+                retryAtNanos = System.nanoTime() + replayBackoff.toNanos();
+                replayBackoff = replayBackoff.multipliedBy(2).compareTo(MAX_REPLAY_BACKOFF) > 0
+                    ? MAX_REPLAY_BACKOFF : replayBackoff.multipliedBy(2);
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Read up to max rows from the replay position without moving it.
+     */
+    private synchronized ReplayBatch nextBatch(int max) {
+        List<RequestAuditLog> rows = new ArrayList<>(Math.min(max, (int) Math.min(Integer.MAX_VALUE, pending.get())));
+        long segment = readSegment;
+        int position = readPosition;
+
+        while (rows.size() < max) {
+            MappedByteBuffer buffer = segments.get(segment);
+            if (buffer == null) {
+                break;
+            }
+            int end = segment == writeSegment ? writePosition : buffer.capacity();
+            int length = position + RECORD_HEADER <= end ? buffer.getInt(position) : 0;
+            if (length == 0) {
+                Long next = segments.higherKey(segment);
+                if (segment == writeSegment || next == null) {
+                    break;
+                }
+                segment = next;
+                position = 0;
+                continue;
+            }
+
+            RequestAuditLog row = readRecord(buffer, position, end);
+            if (row == null) {
+                log.warn("Corrupt record in audit spool segment {} at offset {}, skipping rest of segment",
+                    segment, position);
+                position = end;
+                continue;
+            }
+            rows.add(row);
+            position += RECORD_HEADER + length;
+        }
+        return new ReplayBatch(rows, segment, position);
+    }
+
+    /**
+     * Move the replay position past the batch, persist it and delete fully
+     * replayed segments.
+     */
+    private synchronized void commit(ReplayBatch batch) {
+        if (!available || (batch.segment() == readSegment && batch.position() == readPosition)) {
+            return;
+        }
+        readSegment = batch.segment();
+        readPosition = batch.position();
+        if (readSegment == writeSegment && readPosition >= writePosition) {
+            pending.set(0);
+        } else {
+            pending.addAndGet(-batch.rows().size());
+        }
+
+        try {
+            writeOffset();
+            while (!segments.isEmpty() && segments.firstKey() < readSegment) {
+                Map.Entry<Long, MappedByteBuffer> consumed = segments.pollFirstEntry();
+                Files.deleteIfExists(segmentPath(consumed.getKey()));
+            }
+        } catch (IOException e) {
+            log.error("Failed to persist audit spool replay offset", e);
+        }
+    }
+
+    // --- recovery ---
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(AuditSpool::isSegment).sorted().toList()) {
+                segments.put(sequenceOf(file), map(file, false));
+            }
+        }
+
+        readOffset();
+        if (segments.isEmpty()) {
+            writeSegment = Math.max(1, readSegment);
+            segments.put(writeSegment, map(segmentPath(writeSegment), true));
+        } else {
+            writeSegment = segments.lastKey();
+        }
+        if (!segments.containsKey(readSegment)) {
+            // Offset points to a segment that has already been replayed and deleted
+            readSegment = segments.firstKey();
+            readPosition = 0;
+        }
+
+        // Count pending rows and find the end of valid data in the newest segment
+        long count = 0;
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.tailMap(readSegment, true).entrySet()) {
+            MappedByteBuffer buffer = entry.getValue();
+            int position = entry.getKey() == readSegment ? readPosition : 0;
+            while (position + RECORD_HEADER <= buffer.capacity() && buffer.getInt(position) != 0
+                    && readRecord(buffer, position, buffer.capacity()) != null) {
+                position += RECORD_HEADER + buffer.getInt(position);
+                count++;
+            }
+            if (entry.getKey() == writeSegment) {
+                writePosition = position;
+                truncate(buffer, position);
+            }
+        }
+        pending.set(count);
+    }
+
+    /**
+     * Cut the segment at the first frame that fails validation: zero everything
+     * from there to the end of the segment, so nothing written before the crash
+     * can be mistaken for a frame after later appends. Only non-zero words are
+     * written, so an intact tail costs one read pass.
+     */
+    private static void truncate(MappedByteBuffer buffer, int from) {
+        boolean dirty = false;
+        int i = from;
+        for (; i < buffer.capacity() && (i & 7) != 0; i++) {
+            dirty |= zero(buffer, i);
+        }
+        for (; i + 8 <= buffer.capacity(); i += 8) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+                dirty = true;
+            }
+        }
+        for (; i < buffer.capacity(); i++) {
+            dirty |= zero(buffer, i);
+        }
+        if (dirty) {
+            buffer.force();
+        }
+    }
+
+    private static boolean zero(MappedByteBuffer buffer, int index) {
+        if (buffer.get(index) == 0) {
+            return false;
+        }
+        buffer.put(index, (byte) 0);
+        return true;
+    }
+
+    private void readOffset() throws IOException {
+        Path file = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        ByteBuffer offset = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (offset.remaining() == 16) {
+            long segment = offset.getLong();
+            int position = offset.getInt();
+            checksum.reset();
+            checksum.update(offset.array(), 0, 12);
+            if (offset.getInt() == (int) checksum.getValue() && position >= 0) {
+                readSegment = segment;
+                readPosition = position;
+                return;
+            }
+        }
+        log.warn("Ignoring unreadable audit spool offset, replaying from the oldest segment");
+    }
+
+    private void writeOffset() throws IOException {
+        ByteBuffer offset = ByteBuffer.allocate(16).putLong(readSegment).putInt(readPosition);
+        checksum.reset();
+        checksum.update(offset.array(), 0, 12);
+        offset.putInt((int) checksum.getValue()).flip();
+
+        Path temp = directory.resolve(OFFSET_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(offset);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // --- segments and records ---
+
+    /**
+     * Make room for a record in the current segment, rotating to a new one
+     * if needed.
+     *
+     * @return false if the record does not fit under the size cap
+     */
+    private boolean ensureCapacity(int recordLength) {
+        if (writePosition + recordLength <= segments.get(writeSegment).capacity()) {
+            return true;
+        }
+        if (recordLength > segmentSize || (long) (segments.size() + 1) * segmentSize > maxSize) {
+            return false;
+        }
+        try {
+            segments.get(writeSegment).force();
+            long next = writeSegment + 1;
+            segments.put(next, map(segmentPath(next), true));
+            writeSegment = next;
+            writePosition = 0;
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to create audit spool segment", e);
+            return false;
+        }
+    }
+
+    /**
+     * Encode the row into the scratch buffer.
+     *
+     * @return encoded length, or -1 if the row cannot fit in a segment
+     */
+    private int encode(RequestAuditLog row) {
+        for (;;) {
+            scratch.clear();
+            try {
+                AuditRecordCodec.encode(row, scratch);
+                return scratch.position();
+            } catch (BufferOverflowException e) {
+                if (scratch.capacity() >= segmentSize - RECORD_HEADER) {
+                    return -1;
+                }
+                scratch = ByteBuffer.allocate((int) Math.min(segmentSize - RECORD_HEADER, scratch.capacity() * 2L));
+            }
+        }
+    }
+
+    /**
+     * Decode the record at the position, or null if it is incomplete or fails its checksum.
+     */
+    private RequestAuditLog readRecord(MappedByteBuffer buffer, int position, int end) {
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + RECORD_HEADER + length > end) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + RECORD_HEADER, payload);
+        checksum.reset();
+        checksum.update(payload);
+        if (buffer.getInt(position + 4) != (int) checksum.getValue()) {
+            return null;
+        }
+        return AuditRecordCodec.decode(ByteBuffer.wrap(payload));
+    }
+
+    private MappedByteBuffer map(Path file, boolean create) throws IOException {
+        StandardOpenOption[] options = create
+            ? new StandardOpenOption[] {StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long size = create ? segmentSize : channel.size();
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private synchronized long sizeOnDisk() {
+        return segments.values().stream().mapToLong(MappedByteBuffer::capacity).sum();
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record ReplayBatch(List<RequestAuditLog> rows, long segment, int position) {
+    }
+}
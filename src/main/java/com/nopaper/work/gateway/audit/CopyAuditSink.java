@@ -0,0 +1,209 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:44:53 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streams batches of audit rows into PostgreSQL with COPY ... FROM STDIN,
+ * in either text or binary format (gateway.audit.copy.format).
+ *
+ * COPY skips per-row statement parsing and parameter binding entirely, which
+ * makes it the fastest way to load many rows over a single connection.
+ */
+@Component
+public class CopyAuditSink implements AuditSink {
+
+    public static final String NAME = "copy";
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final DatabaseClient databaseClient;
+    private final boolean binary;
+    private final String copyStatement;
+
+    public CopyAuditSink(DatabaseClient databaseClient, AuditProperties auditProperties) {
+        this.databaseClient = databaseClient;
+        this.binary = auditProperties.getCopy().getFormat() == AuditProperties.CopyFormat.BINARY;
+        this.copyStatement = "COPY way.request_audit_log (" + AuditColumns.COLUMN_LIST + ") FROM STDIN WITH (FORMAT "
+            + (binary ? "binary" : "text") + ")";
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> write(List<RequestAuditLog> batch) {
+        return databaseClient.inConnection(connection -> {
+            PostgresqlConnection postgres = unwrap(connection);
+            // The driver releases the buffer once it has been sent
+            return postgres.copyIn(copyStatement, Mono.fromSupplier(() -> encode(batch)));
+        });
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object candidate = connection;
+        while (!(candidate instanceof PostgresqlConnection) && candidate instanceof Wrapped<?> wrapped) {
+            candidate = wrapped.unwrap();
+        }
+        if (candidate instanceof PostgresqlConnection postgres) {
+            return postgres;
+        }
+        throw new IllegalStateException("COPY audit sink requires an r2dbc-postgresql connection, got: "
+            + connection.getClass().getName());
+    }
+
+    ByteBuf encode(List<RequestAuditLog> batch) {
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(batch.size() * 512);
+        try {
+            if (binary) {
+                encodeBinary(batch, buffer);
+            } else {
+                encodeText(batch, buffer);
+            }
+            return buffer;
+        } catch (RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    // --- text format: tab separated, \N for NULL, backslash escapes ---
+
+    private static void encodeText(List<RequestAuditLog> batch, ByteBuf buffer) {
+        StringBuilder line = new StringBuilder(512);
+        for (RequestAuditLog row : batch) {
+            AuditColumns.fit(row);
+            line.setLength(0);
+            text(line, row.getRequestId()).append('\t');
+            text(line, row.getRouteId()).append('\t');
+            text(line, row.getMethod()).append('\t');
+            text(line, row.getPath()).append('\t');
+            text(line, row.getQueryParams()).append('\t');
+            text(line, row.getClientIp()).append('\t');
+            text(line, row.getUserAgent()).append('\t');
+            text(line, row.getRequestHeaders()).append('\t');
+            text(line, row.getRequestBody()).append('\t');
+            text(line, row.getResponseStatus()).append('\t');
+            text(line, row.getResponseHeaders()).append('\t');
+            text(line, row.getResponseBody()).append('\t');
+            text(line, row.getProcessingTimeMs()).append('\t');
+            text(line, row.getErrorMessage()).append('\t');
+            text(line, row.getCreatedAt()).append('\n');
+            ByteBufUtil.writeUtf8(buffer, line);
+        }
+    }
+
+    private static StringBuilder text(StringBuilder line, Object value) {
+        if (value == null) {
+            return line.append("\\N");
+        }
+        if (!(value instanceof String string)) {
+            return line.append(value);
+        }
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                default -> line.append(c);
+            }
+        }
+        return line;
+    }
+
+    // --- binary format: signature, flags, then length-prefixed fields per tuple ---
+
+    private static void encodeBinary(List<RequestAuditLog> batch, ByteBuf buffer) {
+        buffer.writeBytes(BINARY_SIGNATURE);
+        buffer.writeInt(0); // flags
+        buffer.writeInt(0); // header extension length
+
+        for (RequestAuditLog row : batch) {
+            AuditColumns.fit(row);
+            buffer.writeShort(AuditColumns.COLUMN_COUNT);
+            binary(buffer, row.getRequestId());
+            binary(buffer, row.getRouteId());
+            binary(buffer, row.getMethod());
+            binary(buffer, row.getPath());
+            binary(buffer, row.getQueryParams());
+            binary(buffer, row.getClientIp());
+            binary(buffer, row.getUserAgent());
+            binary(buffer, row.getRequestHeaders());
+            binary(buffer, row.getRequestBody());
+            binary(buffer, row.getResponseStatus());
+            binary(buffer, row.getResponseHeaders());
+            binary(buffer, row.getResponseBody());
+            binary(buffer, row.getProcessingTimeMs());
+            binary(buffer, row.getErrorMessage());
+            binary(buffer, row.getCreatedAt());
+        }
+
+        buffer.writeShort(-1); // trailer
+    }
+
+    private static void binary(ByteBuf buffer, String value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        int lengthIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        int written = ByteBufUtil.writeUtf8(buffer, value);
+        buffer.setInt(lengthIndex, written);
+    }
+
+    private static void binary(ByteBuf buffer, Integer value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        buffer.writeInt(Integer.BYTES);
+        buffer.writeInt(value);
+    }
+
+    private static void binary(ByteBuf buffer, Long value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        buffer.writeInt(Long.BYTES);
+        buffer.writeLong(value);
+    }
+
+    private static void binary(ByteBuf buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        // timestamp without time zone: microseconds since 2000-01-01 00:00:00
+        buffer.writeInt(Long.BYTES);
+        buffer.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:05:18 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.nopaper.work.gateway.config.AuditProperties;
+
+/**
+ * Serializes request/response headers into the JSON stored with an audit
+ * row, leaving out sensitive headers.
+ *
+ * The redaction rules (exact names plus name patterns) are compiled once; the
+ * verdict per header name is cached, so a known header costs a single map
+ * lookup. JSON is escaped with Jackson's encoder straight into a per-thread
+ * StringBuilder, without an intermediate map or joined value strings.
+ */
+@Component
+public class HeaderRedactor {
+
+    // Header names are a small, mostly fixed vocabulary; stop caching if a
+    // client sends an unbounded variety of them
+    private static final int MAX_CACHED_NAMES = 4096;
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final Set<String> redactedNames;
+    private final Pattern redactedPattern;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    public HeaderRedactor(AuditProperties auditProperties) {
+        AuditProperties.Headers settings = auditProperties.getHeaders();
+        this.redactedNames = settings.getRedactedNames().stream()
+            .map(name -> name.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+        List<String> patterns = settings.getRedactedPatterns();
+        this.redactedPattern = patterns.isEmpty() ? null : Pattern.compile(
+            patterns.stream().map(pattern -> "(?:" + pattern + ")").collect(Collectors.joining("|")),
+            Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Headers as a JSON object of name to comma-joined values.
+     */
+    public String toJson(HttpHeaders headers) {
+        StringBuilder json = BUFFER.get();
+        json.setLength(0);
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey();
+            if (isRedacted(name)) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+
+            json.append('"');
+            encoder.quoteAsString(name, json);
+            json.append("\":\"");
+            List<String> values = header.getValue();
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                encoder.quoteAsString(values.get(i), json);
+            }
+            json.append('"');
+        }
+        json.append('}');
+
+        String result = json.toString();
+        if (json.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Whether the header must not be logged.
+     */
+    public boolean isRedacted(String name) {
+        Boolean verdict = verdicts.get(name);
+        if (verdict == null) {
+            verdict = redactedNames.contains(name.toLowerCase(Locale.ROOT))
+                || (redactedPattern != null && redactedPattern.matcher(name).find());
+            if (verdicts.size() < MAX_CACHED_NAMES) {
+                verdicts.put(name, verdict);
+            }
+        }
+        return verdict;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:38:45 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes a batch of audit rows as a single multi-row INSERT.
+ */
+@Component
+@RequiredArgsConstructor
+public class InsertAuditSink implements AuditSink {
+
+    public static final String NAME = "insert";
+
+    private static final String INSERT_PREFIX = "INSERT INTO way.request_audit_log ("
+        + AuditColumns.COLUMN_LIST + ") VALUES ";
+
+    // PostgreSQL accepts at most 65535 bind parameters per statement
+    public static final int MAX_ROWS_PER_STATEMENT = 65535 / AuditColumns.COLUMN_COUNT;
+
+    private final DatabaseClient databaseClient;
+
+    private final Map<Integer, String> insertStatements = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> write(List<RequestAuditLog> batch) {
+        if (batch.size() > MAX_ROWS_PER_STATEMENT) {
+            int half = batch.size() / 2;
+            return write(batch.subList(0, half))
+                .zipWith(write(batch.subList(half, batch.size())), Long::sum);
+        }
+
+        GenericExecuteSpec spec = databaseClient.sql(insertStatement(batch.size()));
+
+        int index = 0;
+        for (RequestAuditLog row : batch) {
+            AuditColumns.fit(row);
+            spec = bind(spec, index++, row.getRequestId(), String.class);
+            spec = bind(spec, index++, row.getRouteId(), String.class);
+            spec = bind(spec, index++, row.getMethod(), String.class);
+            spec = bind(spec, index++, row.getPath(), String.class);
+            spec = bind(spec, index++, row.getQueryParams(), String.class);
+            spec = bind(spec, index++, row.getClientIp(), String.class);
+            spec = bind(spec, index++, row.getUserAgent(), String.class);
+            spec = bind(spec, index++, row.getRequestHeaders(), String.class);
+            spec = bind(spec, index++, row.getRequestBody(), String.class);
+            spec = bind(spec, index++, row.getResponseStatus(), Integer.class);
+            spec = bind(spec, index++, row.getResponseHeaders(), String.class);
+            spec = bind(spec, index++, row.getResponseBody(), String.class);
+            spec = bind(spec, index++, row.getProcessingTimeMs(), Long.class);
+            spec = bind(spec, index++, row.getErrorMessage(), String.class);
+            spec = bind(spec, index++, row.getCreatedAt(), LocalDateTime.class);
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, int index, Object value, Class<?> type) {
+        return value != null ? spec.bind(index, value) : spec.bindNull(index, type);
+    }
+
+    /**
+     * Statements are cached per row count so the driver can reuse prepared statements.
+     */
+    private String insertStatement(int rows) {
+        return insertStatements.computeIfAbsent(rows, count -> {
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + count * AuditColumns.COLUMN_COUNT * 6);
+            sql.append(INSERT_PREFIX);
+            int parameter = 1;
+            for (int row = 0; row < count; row++) {
+                sql.append(row == 0 ? "(" : ", (");
+                for (int column = 0; column < AuditColumns.COLUMN_COUNT; column++) {
+                    if (column > 0) {
+                        sql.append(", ");
+                    }
+                    sql.append('$').append(parameter++);
+                }
+                sql.append(')');
+            }
+            return sql.toString();
+        });
+    }
+}
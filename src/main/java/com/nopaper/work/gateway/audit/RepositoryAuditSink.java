@@ -0,0 +1,41 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:36:02 am
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.repositories.RequestAuditLogRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes every row with its own repository save (one INSERT round trip per row).
+ * Kept as a baseline and for setups where the other sinks cannot be used.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepositoryAuditSink implements AuditSink {
+
+    public static final String NAME = "repository";
+
+    private final RequestAuditLogRepository auditLogRepository;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> write(List<RequestAuditLog> batch) {
+        batch.forEach(AuditColumns::fit);
+        return auditLogRepository.saveAll(batch).count();
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 16-Oct-2026 11:52:04 pm
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.audit;
\ No newline at end of file
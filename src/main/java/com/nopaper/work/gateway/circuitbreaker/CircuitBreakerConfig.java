@@ -0,0 +1,51 @@
+/**
+ * @package com.nopaper.work.gateway.circuitbreaker -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:54:02 am
+ * @git 
+ */
+package com.nopaper.work.gateway.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+/**
+ * Circuit breaker settings of one route, from its gateway_routes columns.
+ *
+ * @param failureRate percentage of failed calls that opens the circuit, 0 for none
+ * @param slowCallNanos calls at least this long are slow, 0 for none
+ * @param slowCallRate percentage of slow calls that opens the circuit, 0 for none
+ * @param halfOpenCalls probe calls let through once the open period is over
+ * @param openNanos how long the circuit stays open
+ */
+public record CircuitBreakerConfig(int failureRate, long slowCallNanos, int slowCallRate, int halfOpenCalls,
+        long openNanos) {
+
+    private static final int DEFAULT_HALF_OPEN_CALLS = 3;
+    private static final int DEFAULT_OPEN_SECONDS = 30;
+
+    /**
+     * @return null if the route has no circuit breaker
+     */
+    public static CircuitBreakerConfig of(CustomRouteDefinitionDTO route) {
+        int failureRate = percentage(route.getCircuitFailureRate());
+        long slowCallNanos = positive(route.getCircuitSlowCallMs()) ? TimeUnit.MILLISECONDS.toNanos(route.getCircuitSlowCallMs()) : 0;
+        int slowCallRate = slowCallNanos > 0 ? percentage(route.getCircuitSlowCallRate()) : 0;
+        if (failureRate == 0 && slowCallRate == 0) {
+            return null;
+        }
+        int halfOpenCalls = positive(route.getCircuitHalfOpenCalls()) ? route.getCircuitHalfOpenCalls() : DEFAULT_HALF_OPEN_CALLS;
+        int openSeconds = positive(route.getCircuitOpenSeconds()) ? route.getCircuitOpenSeconds() : DEFAULT_OPEN_SECONDS;
+        return new CircuitBreakerConfig(failureRate, slowCallNanos, slowCallRate, halfOpenCalls,
+            TimeUnit.SECONDS.toNanos(openSeconds));
+    }
+
+    private static int percentage(Integer value) {
+        return value == null ? 0 : Math.max(0, Math.min(100, value));
+    }
+
+    private static boolean positive(Integer value) {
+        return value != null && value > 0;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * @package com.nopaper.work.gateway.circuitbreaker -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:12:19 am
+ * @git 
+ */
+package com.nopaper.work.gateway.circuitbreaker;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.dto.RouteChanges;
+import com.nopaper.work.gateway.service.RouteService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breakers of the routes that configure one, keyed by route id.
+ *
+ * Breakers are rebuilt from the route snapshot whenever routes are reloaded;
+ * a route whose settings did not change keeps its breaker and state.
+ */
+@Slf4j
+@Component
+public class CircuitBreakerRegistry {
+
+    private final RouteService routeService;
+    private final int windowSeconds;
+    private final int minimumCalls;
+    private final Counter rejected;
+    private final Counter opened;
+    private final Counter closed;
+
+    private volatile Map<String, RouteCircuitBreaker> breakers = Map.of();
+
+    public CircuitBreakerRegistry(RouteService routeService, MeterRegistry meterRegistry,
+            @Value("${gateway.circuit-breaker.window:10s}") Duration window,
+            @Value("${gateway.circuit-breaker.minimum-calls:20}") int minimumCalls) {
+        this.routeService = routeService;
+        this.windowSeconds = (int) Math.max(1, window.toSeconds());
+        this.minimumCalls = minimumCalls;
+        this.rejected = Counter.builder("gateway.circuit.rejected")
+            .description("Calls rejected by an open circuit")
+            .register(meterRegistry);
+        this.opened = Counter.builder("gateway.circuit.transitions")
+            .tag("state", "open")
+            .description("Circuit breaker state changes")
+            .register(meterRegistry);
+        this.closed = Counter.builder("gateway.circuit.transitions")
+            .tag("state", "closed")
+            .description("Circuit breaker state changes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the route's breaker, null if it has none
+     */
+    public RouteCircuitBreaker get(String routeId) {
+        return breakers.get(routeId);
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    /**
+     * Count and log a state change returned by RouteCircuitBreaker#onComplete.
+     */
+    public void transitioned(String routeId, int state) {
+        if (state == RouteCircuitBreaker.OPEN) {
+            opened.increment();
+            log.warn("Circuit opened for route {}", routeId);
+        } else if (state == RouteCircuitBreaker.CLOSED) {
+            closed.increment();
+            log.info("Circuit closed for route {}", routeId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onRoutesReloaded(RouteChanges changes) {
+        rebuild();
+    }
+
+    private void rebuild() {
+        routeService.getEnabledRoutes()
+            .subscribe(this::rebuild, error -> log.error("Failed to build circuit breakers", error));
+    }
+
+    private synchronized void rebuild(List<CustomRouteDefinitionDTO> routes) {
+        Map<String, RouteCircuitBreaker> previous = breakers;
+        Map<String, RouteCircuitBreaker> next = new HashMap<>();
+        for (CustomRouteDefinitionDTO route : routes) {
+            CircuitBreakerConfig config = CircuitBreakerConfig.of(route);
+            if (config == null) {
+                continue;
+            }
+            RouteCircuitBreaker breaker = previous.get(route.getRouteId());
+            next.put(route.getRouteId(), breaker != null && breaker.getConfig().equals(config)
+                ? breaker
+                : new RouteCircuitBreaker(config, windowSeconds, minimumCalls));
+        }
+        breakers = Map.copyOf(next);
+        log.debug("Circuit breakers rebuilt for {} routes", next.size());
+    }
+}
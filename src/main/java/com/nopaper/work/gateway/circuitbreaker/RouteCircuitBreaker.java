@@ -0,0 +1,228 @@
+/**
+ * @package com.nopaper.work.gateway.circuitbreaker -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:58:40 am
+ * @git 
+ */
+package com.nopaper.work.gateway.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free circuit breaker of one route.
+ *
+ * Closed, calls are counted in a sliding window of one-second buckets. Each
+ * bucket is a single long (second, calls, failures, slow calls as 16-bit
+ * fields) updated with CAS, so recording a call never locks and a bucket from
+ * an earlier window is recycled in the same CAS. Once the window holds the
+ * minimum number of calls and the failure or slow-call percentage is reached,
+ * the circuit opens and calls are rejected without reaching the upstream.
+ *
+ * After the open period the first call moves the circuit to half-open, where
+ * only the configured number of probe calls go through: all of them
+ * succeeding closes the circuit, a single failed or slow one opens it again.
+ * The state, the probe permits left and the probe successes share one int,
+ * so entering half-open hands out exactly the configured permits.
+ */
+public final class RouteCircuitBreaker {
+
+    public static final int CLOSED = 0;
+    public static final int OPEN = 1;
+    public static final int HALF_OPEN = 2;
+    /** Returned by {@link #tryAcquire(long)} for a rejected call. */
+    public static final int REJECTED = -1;
+    /** Returned by {@link #onComplete} when the state did not change. */
+    public static final int UNCHANGED = -1;
+
+    private static final long FIELD = 0xFFFF;
+    private static final long ONE_CALL = 1L << 32;
+    private static final long ONE_FAILURE = 1L << 16;
+    private static final long ONE_SLOW = 1L;
+
+    // Control layout: successes (15 bits) | permits (15 bits) | state (2 bits)
+    private static final int STATE_MASK = 0x3;
+    private static final int COUNT_MASK = 0x7FFF;
+    private static final int ONE_PERMIT = 1 << 2;
+    private static final int ONE_SUCCESS = 1 << 17;
+
+    private final CircuitBreakerConfig config;
+    private final int minimumCalls;
+    // Bucket layout: second (16 bits) | calls | failures | slow calls
+    private final AtomicLongArray buckets;
+
+    private final int halfOpenCalls;
+    private final AtomicInteger control = new AtomicInteger(CLOSED);
+    private volatile long openedAtNanos;
+
+    public RouteCircuitBreaker(CircuitBreakerConfig config, int windowSeconds, int minimumCalls) {
+        this.config = config;
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.halfOpenCalls = Math.max(1, Math.min(config.halfOpenCalls(), COUNT_MASK));
+        this.buckets = new AtomicLongArray(Math.max(1, Math.min(windowSeconds, 3600)));
+    }
+
+    public CircuitBreakerConfig getConfig() {
+        return config;
+    }
+
+    public int getState() {
+        return control.get() & STATE_MASK;
+    }
+
+    /**
+     * Nanoseconds until an open circuit lets probe calls through, 0 otherwise.
+     */
+    public long getRemainingOpenNanos(long nowNanos) {
+        return getState() == OPEN ? Math.max(0, config.openNanos() - (nowNanos - openedAtNanos)) : 0;
+    }
+
+    /**
+     * @return the state the call is admitted in, to pass to {@link #onComplete}
+     *         or {@link #release}, or {@link #REJECTED}
+     */
+    public int tryAcquire(long nowNanos) {
+        for (;;) {
+            int current = control.get();
+            int state = current & STATE_MASK;
+            if (state == CLOSED) {
+                return CLOSED;
+            }
+            if (state == OPEN) {
+                if (nowNanos - openedAtNanos < config.openNanos()) {
+                    return REJECTED;
+                }
+                // Half-open with all its permits at once; this caller takes one on the next pass
+                control.compareAndSet(current, HALF_OPEN | halfOpenCalls * ONE_PERMIT);
+                continue;
+            }
+            if (((current >>> 2) & COUNT_MASK) == 0) {
+                return REJECTED;
+            }
+            if (control.compareAndSet(current, current - ONE_PERMIT)) {
+                return HALF_OPEN;
+            }
+        }
+    }
+
+    /**
+     * Record the outcome of an admitted call.
+     *
+     * @param admittedIn the state returned by {@link #tryAcquire(long)}
+     * @param failed the call failed or the upstream answered 5xx
+     * @return the new state if this call changed it, {@link #UNCHANGED} otherwise
+     */
+    public int onComplete(int admittedIn, long durationNanos, boolean failed, long nowNanos) {
+        boolean slow = config.slowCallNanos() > 0 && durationNanos >= config.slowCallNanos();
+        if (admittedIn == HALF_OPEN) {
+            if (failed || slow) {
+                return trip(HALF_OPEN, nowNanos) ? OPEN : UNCHANGED;
+            }
+            return probeSucceeded() ? CLOSED : UNCHANGED;
+        }
+        if (getState() != CLOSED) {
+            // Admitted before the circuit opened
+            return UNCHANGED;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        record(second, failed, slow);
+        if ((failed || slow) && shouldOpen(second)) {
+            return trip(CLOSED, nowNanos) ? OPEN : UNCHANGED;
+        }
+        return UNCHANGED;
+    }
+
+    /**
+     * Give back the permit of a call that was cancelled before it completed.
+     */
+    public void release(int admittedIn) {
+        if (admittedIn != HALF_OPEN) {
+            return;
+        }
+        int current;
+        do {
+            current = control.get();
+            if ((current & STATE_MASK) != HALF_OPEN) {
+                // The permit went with the half-open state it was taken in
+                return;
+            }
+        } while (!control.compareAndSet(current, current + ONE_PERMIT));
+    }
+
+    /**
+     * Count a successful probe; the last one needed closes the circuit.
+     */
+    private boolean probeSucceeded() {
+        for (;;) {
+            int current = control.get();
+            if ((current & STATE_MASK) != HALF_OPEN) {
+                return false;
+            }
+            boolean closes = (current >>> 17) + 1 >= halfOpenCalls;
+            if (control.compareAndSet(current, closes ? CLOSED : current + ONE_SUCCESS)) {
+                if (closes) {
+                    for (int i = 0; i < buckets.length(); i++) {
+                        buckets.set(i, 0);
+                    }
+                }
+                return closes;
+            }
+        }
+    }
+
+    private void record(long second, boolean failed, boolean slow) {
+        // nanoTime, and so the second, may be negative
+        int index = (int) Math.floorMod(second, (long) buckets.length());
+        long tag = (second & FIELD) << 48;
+        long increment = ONE_CALL + (failed ? ONE_FAILURE : 0) + (slow ? ONE_SLOW : 0);
+        long current;
+        long next;
+        do {
+            current = buckets.get(index);
+            if ((current >>> 48) == (second & FIELD)) {
+                if (((current >>> 32) & FIELD) == FIELD) {
+                    // Saturated for this second; the rates are already well sampled
+                    return;
+                }
+                next = current + increment;
+            } else {
+                next = tag | increment;
+            }
+        } while (!buckets.compareAndSet(index, current, next));
+    }
+
+    private boolean shouldOpen(long second) {
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long bucket = buckets.get(i);
+            long age = ((second & FIELD) - (bucket >>> 48)) & FIELD;
+            if (age < buckets.length()) {
+                calls += (bucket >>> 32) & FIELD;
+                failures += (bucket >>> 16) & FIELD;
+                slowCalls += bucket & FIELD;
+            }
+        }
+        if (calls < minimumCalls) {
+            return false;
+        }
+        return (config.failureRate() > 0 && failures * 100 >= config.failureRate() * calls)
+            || (config.slowCallRate() > 0 && slowCalls * 100 >= config.slowCallRate() * calls);
+    }
+
+    private boolean trip(int from, long nowNanos) {
+        int current = control.get();
+        while ((current & STATE_MASK) == from) {
+            // Written before the state, so a caller that sees OPEN sees it too
+            openedAtNanos = nowNanos;
+            // Open drops any permits and successes left from half-open
+            if (control.compareAndSet(current, OPEN)) {
+                return true;
+            }
+            current = control.get();
+        }
+        return false;
+    }
+}
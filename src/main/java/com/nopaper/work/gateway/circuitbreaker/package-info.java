@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.circuitbreaker -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:52:15 am
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.circuitbreaker;
\ No newline at end of file
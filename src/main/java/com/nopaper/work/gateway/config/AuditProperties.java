@@ -0,0 +1,249 @@
+/**
+ * @package com.nopaper.work.gateway.config -> gateway
+ * @author saikatbarman
+ * @date 2026 16-Oct-2026 11:53:40 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import com.nopaper.work.gateway.audit.AuditOverflowPolicy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Externalized settings for the request audit pipeline (prefix: gateway.audit).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+    private boolean logRequestBody = false;
+    private boolean logResponseBody = false;
+
+    /** Maximum number of body bytes copied into an audit row. */
+    private DataSize maxBodySize = DataSize.ofKilobytes(4);
+
+    /** Destination of audit batches: insert, copy or repository. */
+    private String sink = "insert";
+
+    private RequestBody requestBody = new RequestBody();
+    private Batch batch = new Batch();
+    private Copy copy = new Copy();
+    private Queue queue = new Queue();
+    private Spool spool = new Spool();
+    private Partition partition = new Partition();
+    private Sampling sampling = new Sampling();
+    private Headers headers = new Headers();
+    private Rollup rollup = new Rollup();
+
+    /**
+     * Opt-in capture of request payloads (requires log-request-body=true).
+     */
+    @Data
+    public static class RequestBody {
+
+        /** Route IDs whose request bodies are captured. */
+        private Set<String> routes = new HashSet<>();
+
+        /** Content types eligible for capture; anything else (e.g. binary uploads) is skipped. */
+        private List<MediaType> contentTypes = new ArrayList<>(List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_XML,
+            MediaType.APPLICATION_FORM_URLENCODED,
+            MediaType.parseMediaType("text/*")));
+    }
+
+    /**
+     * Batching of audit rows before they are written to PostgreSQL.
+     */
+    @Data
+    public static class Batch {
+
+        /** Maximum rows per multi-row INSERT. */
+        private int size = 200;
+
+        /** Maximum time a row waits for its batch to fill up. */
+        private Duration maxLinger = Duration.ofMillis(500);
+
+        /** Number of batches allowed in flight against the connection pool. */
+        private int flushConcurrency = 2;
+
+        /** A batch not written within this time is treated as failed and spooled locally. */
+        private Duration writeTimeout = Duration.ofSeconds(10);
+
+        /** Upper bound for draining pending rows during graceful shutdown. */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * In-process per-route traffic rollups in rolling 1-minute windows.
+     */
+    @Data
+    public static class Rollup {
+
+        private boolean enabled = true;
+
+        /** Number of completed minutes kept in memory. */
+        private int windows = 15;
+
+        /** Write one aggregate row per route, minute and node to request_audit_rollup. */
+        private boolean flushEnabled = false;
+
+        /** Node id of this gateway's rollup rows; host name and process id when blank. */
+        private String nodeId;
+
+        /** How often completed minutes are looked for and flushed. */
+        private Duration flushInterval = Duration.ofSeconds(20);
+    }
+
+    /**
+     * Redaction of sensitive headers before they are written to the audit row.
+     */
+    @Data
+    public static class Headers {
+
+        /** Header names (case-insensitive) that are never logged. */
+        private Set<String> redactedNames = new HashSet<>();
+
+        /** Regular expressions (case-insensitive, partial match) for header names that are never logged. */
+        private List<String> redactedPatterns = new ArrayList<>(List.of(
+            "authorization", "password", "token", "secret", "api-key"));
+    }
+
+    /**
+     * Bounded in-process queue between the audit filter and the batch writer.
+     */
+    @Data
+    public static class Queue {
+
+        /** Maximum number of audit rows waiting to be written. */
+        private int capacity = 10000;
+
+        /** What to do with a new row when the queue is full. */
+        private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.DROP_OLDEST;
+
+        /** With the SAMPLE policy, keep one of every N overflowing rows. */
+        private int sampleRate = 10;
+
+        /**
+         * With the BLOCK policy, how long a producer may wait for free space.
+         * Event loop threads never wait, see {@link AuditOverflowPolicy#BLOCK}.
+         */
+        private Duration blockTimeout = Duration.ofMillis(5);
+    }
+
+    /**
+     * Local write-ahead spool for batches the database could not take.
+     */
+    @Data
+    public static class Spool {
+
+        private boolean enabled = true;
+
+        /** Directory holding the segment files and the replay offset. */
+        private String directory = "spool/audit";
+
+        /** Size of one memory-mapped segment file. */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /** Upper bound for all segments together; further rows are dropped. */
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+
+        /** Maximum rows per second replayed into the database after recovery. */
+        private int replayRate = 2000;
+
+        /** Rows per replayed batch. */
+        private int replayBatchSize = 500;
+    }
+
+    /**
+     * Range partitioning of request_audit_log on created_at.
+     */
+    @Data
+    public static class Partition {
+
+        private boolean enabled = true;
+
+        private PartitionGranularity granularity = PartitionGranularity.DAILY;
+
+        /** Number of partitions created ahead of the current one. */
+        private int precreate = 3;
+
+        /** Partitions whose range ended longer ago than this are detached and dropped. */
+        private Duration retention = Duration.ofDays(30);
+
+        /** How often partitions are checked. */
+        private Duration checkInterval = Duration.ofHours(1);
+
+        /** Detach without blocking writers (PostgreSQL 14+). */
+        private boolean detachConcurrently = true;
+    }
+
+    public enum PartitionGranularity {
+        DAILY,
+        HOURLY
+    }
+
+    /**
+     * Sampling of audit rows once the response is complete. Reloaded at
+     * runtime when gateway.audit.sampling.* changes.
+     */
+    @Data
+    public static class Sampling {
+
+        private boolean enabled = true;
+
+        /** Policy for routes without an entry in 'routes'; keeps everything by default. */
+        private SamplingPolicy defaults = new SamplingPolicy(500, null, 1.0);
+
+        /** Per route ID overrides; unset fields fall back to 'defaults'. */
+        private Map<String, SamplingPolicy> routes = new HashMap<>();
+    }
+
+    /**
+     * A row is kept if any rule matches: status, latency, or the random sample.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SamplingPolicy {
+
+        /** Rows with a status at or above this are always kept (errors count as 500). */
+        private Integer keepStatusAtLeast;
+
+        /** Rows slower than this, e.g. the route's p99, are always kept. */
+        private Duration keepSlowerThan;
+
+        /** Fraction (0.0 - 1.0) of the remaining rows that is kept. */
+        private Double rate;
+    }
+
+    /**
+     * Settings of the COPY based audit sink.
+     */
+    @Data
+    public static class Copy {
+
+        private CopyFormat format = CopyFormat.BINARY;
+    }
+
+    public enum CopyFormat {
+        TEXT,
+        BINARY
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 
@@ -39,6 +40,9 @@ public class DatabaseConfiguration {
     @Value("classpath:schema.sql")
     private Resource schemaScript;
     
+    @Value("classpath:schema-notify.sql")
+    private Resource notifyScript;
+    
     /**
      * Initialize database schema on startup.
      * In production, use Flyway or Liquibase for migrations.
@@ -49,7 +53,12 @@ public class DatabaseConfiguration {
         initializer.setConnectionFactory(connectionFactory);
         
         ResourceDatabasePopulator populator = new ResourceDatabasePopulator(schemaScript);
-        initializer.setDatabasePopulator(populator);
+        
+        // Trigger functions contain ';' in their body, so that script uses ';;'
+        ResourceDatabasePopulator notifyPopulator = new ResourceDatabasePopulator(notifyScript);
+        notifyPopulator.setSeparator(";;");
+        
+        initializer.setDatabasePopulator(new CompositeDatabasePopulator(populator, notifyPopulator));
         
         return initializer;
     }
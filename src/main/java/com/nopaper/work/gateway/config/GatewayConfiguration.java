@@ -11,8 +11,8 @@ package com.nopaper.work.gateway.config;
  */
 
 import java.time.Duration;
-import java.util.concurrent.Executor;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -27,7 +27,6 @@ import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSeriali
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -38,13 +37,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  * 
  * Configures:
  * - Redis caching with Jackson serialization
- * - Async task execution
  * - ObjectMapper for JSON processing
  * @param <RouteDefinitionDTO>
  */
 @Configuration
 @EnableCaching
 @EnableAsync
+@EnableConfigurationProperties({AuditProperties.class, UpstreamProperties.class})
 public class GatewayConfiguration {
     
     /**
@@ -83,15 +82,8 @@ public class GatewayConfiguration {
                 RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer)
             );
         
-        // Configure cache-specific settings
         return RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
-            .withCacheConfiguration("routes", 
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(10)))
-            .withCacheConfiguration("ip-blacklist", 
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(30)))
             .build();
     }
     
@@ -141,20 +133,4 @@ public class GatewayConfiguration {
         return new ReactiveRedisTemplate<>(factory, context);
     }
     */
-    /**
-     * Configure async task executor for @Async methods.
-     * Used for asynchronous audit logging.
-     */
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("async-audit-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
-        executor.initialize();
-        return executor;
-    }
 }
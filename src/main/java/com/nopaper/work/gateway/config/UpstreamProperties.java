@@ -0,0 +1,70 @@
+/**
+ * @package com.nopaper.work.gateway.config -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:05:44 am
+ * @git 
+ */
+package com.nopaper.work.gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Externalized settings for route upstream balancing, outlier ejection and
+ * health checks (prefix: gateway.upstreams).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstreams")
+public class UpstreamProperties {
+
+    /** How fast the latency EWMA forgets; an observation this old weighs 1/e. */
+    private Duration ewmaDecay = Duration.ofSeconds(10);
+
+    /** Latency charged for a failed request. */
+    private Duration errorPenalty = Duration.ofSeconds(1);
+
+    private Outlier outlier = new Outlier();
+    private HealthCheck healthCheck = new HealthCheck();
+
+    /**
+     * Passive outlier detection from proxied responses.
+     */
+    @Data
+    public static class Outlier {
+
+        /** Consecutive 5xx responses or errors that eject an endpoint. */
+        private int consecutiveFailures = 5;
+
+        /** First ejection; doubles with every ejection in a row. */
+        private Duration baseEjection = Duration.ofSeconds(30);
+
+        private Duration maxEjection = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Active HTTP probes of upstreams that have a health_check_path.
+     */
+    @Data
+    public static class HealthCheck {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofSeconds(10);
+
+        /** Each probe is delayed by a random amount up to this, to spread them out. */
+        private Duration jitter = Duration.ofSeconds(2);
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /** Failed probes in a row before an endpoint is marked down. */
+        private int unhealthyThreshold = 2;
+
+        /** Successful probes in a row before a down endpoint is marked up. */
+        private int healthyThreshold = 2;
+
+        /** Probes in flight at once. */
+        private int concurrency = 16;
+    }
+}
@@ -16,4 +16,10 @@ public interface GatewayConstant {
 	public String ERROR_MSG = "An unknown error occured";
 	public String SUCCESS_MSG = "Request Successfully processed";
 
+	// Route metadata key that opts a route into request body auditing
+	public String AUDIT_REQUEST_BODY_METADATA = "audit-request-body";
+
+	// Route metadata key carrying the database route id, used to scope route refreshes
+	public String ROUTE_ID_METADATA = "gateway-route-id";
+
 }
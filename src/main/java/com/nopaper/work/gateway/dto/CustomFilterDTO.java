@@ -9,10 +9,18 @@ package com.nopaper.work.gateway.dto;
 import java.io.Serializable;
 import java.util.Map;
 
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
 /**
- * 
+ * Name and arguments of a filter or predicate, as stored in the JSONB
+ * filters and predicates columns of gateway_routes, e.g.
+ * {"name": "AddRequestHeader", "args": {"name": "X-Tenant", "value": "acme"}}.
  */
-
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CustomFilterDTO implements Serializable {
     private static final long serialVersionUID = -1881829638838696562L;
 	private String name;
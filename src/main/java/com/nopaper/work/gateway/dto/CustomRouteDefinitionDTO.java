@@ -20,8 +20,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Serializable DTO for caching route definitions in Redis.
+ * Serializable DTO of a route definition, as held in the route snapshot.
  * This avoids the NotSerializableException when caching Spring's RouteDefinition.
+ *
+ * predicates, filters and metadata come from the JSONB columns of the same
+ * name; predicates use the same name + args shape as filters. upstreams are
+ * the route's enabled rows of gateway_route_upstreams, empty to use uri.
  */
 @Data
 @NoArgsConstructor
@@ -37,11 +41,25 @@ public class CustomRouteDefinitionDTO implements Serializable {
     private boolean enabled;
     private Integer rateLimitRequests;
     private Integer rateLimitPeriodSeconds;
+    // Per-unit rate, see RateLimitSpec
+    private Double rateLimitRate;
+    private String rateLimitUnit;
+    private Integer rateLimitBurst;
+    // token_bucket when null, see RateLimitAlgorithm
+    private String rateLimitAlgorithm;
+    // Circuit breaker, see CircuitBreakerConfig
+    private Integer circuitFailureRate;
+    private Integer circuitSlowCallMs;
+    private Integer circuitSlowCallRate;
+    private Integer circuitHalfOpenCalls;
+    private Integer circuitOpenSeconds;
 
     // Complex types
     private List<String> allowedMethods;
-    private Map<String, String> metadata; // e.g. description, owner, tags
+    private Map<String, Object> metadata; // e.g. description, owner, tags; values may be nested
+    private List<CustomFilterDTO> predicates; // In addition to path and method
     private List<CustomFilterDTO> filters;   // Nested complex object
+    private List<UpstreamDTO> upstreams;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -67,15 +85,48 @@ public class CustomRouteDefinitionDTO implements Serializable {
     public Integer getRateLimitPeriodSeconds() { return rateLimitPeriodSeconds; }
     public void setRateLimitPeriodSeconds(Integer rateLimitPeriodSeconds) { this.rateLimitPeriodSeconds = rateLimitPeriodSeconds; }
 
+    public Double getRateLimitRate() { return rateLimitRate; }
+    public void setRateLimitRate(Double rateLimitRate) { this.rateLimitRate = rateLimitRate; }
+
+    public String getRateLimitUnit() { return rateLimitUnit; }
+    public void setRateLimitUnit(String rateLimitUnit) { this.rateLimitUnit = rateLimitUnit; }
+
+    public Integer getRateLimitBurst() { return rateLimitBurst; }
+    public void setRateLimitBurst(Integer rateLimitBurst) { this.rateLimitBurst = rateLimitBurst; }
+
+    public String getRateLimitAlgorithm() { return rateLimitAlgorithm; }
+    public void setRateLimitAlgorithm(String rateLimitAlgorithm) { this.rateLimitAlgorithm = rateLimitAlgorithm; }
+
+    public Integer getCircuitFailureRate() { return circuitFailureRate; }
+    public void setCircuitFailureRate(Integer circuitFailureRate) { this.circuitFailureRate = circuitFailureRate; }
+
+    public Integer getCircuitSlowCallMs() { return circuitSlowCallMs; }
+    public void setCircuitSlowCallMs(Integer circuitSlowCallMs) { this.circuitSlowCallMs = circuitSlowCallMs; }
+
+    public Integer getCircuitSlowCallRate() { return circuitSlowCallRate; }
+    public void setCircuitSlowCallRate(Integer circuitSlowCallRate) { this.circuitSlowCallRate = circuitSlowCallRate; }
+
+    public Integer getCircuitHalfOpenCalls() { return circuitHalfOpenCalls; }
+    public void setCircuitHalfOpenCalls(Integer circuitHalfOpenCalls) { this.circuitHalfOpenCalls = circuitHalfOpenCalls; }
+
+    public Integer getCircuitOpenSeconds() { return circuitOpenSeconds; }
+    public void setCircuitOpenSeconds(Integer circuitOpenSeconds) { this.circuitOpenSeconds = circuitOpenSeconds; }
+
     public List<String> getAllowedMethods() { return allowedMethods; }
     public void setAllowedMethods(List<String> allowedMethods) { this.allowedMethods = allowedMethods; }
 
-    public Map<String, String> getMetadata() { return metadata; }
-    public void setMetadata(Map<String, String> metadata) { this.metadata = metadata; }
+    public Map<String, Object> getMetadata() { return metadata; }
+    public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
+
+    public List<CustomFilterDTO> getPredicates() { return predicates; }
+    public void setPredicates(List<CustomFilterDTO> predicates) { this.predicates = predicates; }
 
     public List<CustomFilterDTO> getFilters() { return filters; }
     public void setFilters(List<CustomFilterDTO> filters) { this.filters = filters; }
 
+    public List<UpstreamDTO> getUpstreams() { return upstreams; }
+    public void setUpstreams(List<UpstreamDTO> upstreams) { this.upstreams = upstreams; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
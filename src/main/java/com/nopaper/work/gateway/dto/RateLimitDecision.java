@@ -0,0 +1,27 @@
+/**
+ * @package com.nopaper.work.gateway.dto -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:44:52 am
+ * @git 
+ */
+package com.nopaper.work.gateway.dto;
+
+/**
+ * Outcome of a rate limit check.
+ *
+ * @param allowed whether the request may proceed
+ * @param limit requests allowed per period
+ * @param remaining requests left, -1 when Redis could not be reached
+ * @param resetAfterMillis time until the full quota is available again
+ * @param retryAfterMillis time until a denied request could be allowed, 0 when allowed
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetAfterMillis,
+        long retryAfterMillis) {
+
+    /**
+     * Allow the request without a decision, when Redis cannot be reached.
+     */
+    public static RateLimitDecision failOpen(long limit) {
+        return new RateLimitDecision(true, limit, -1, 0, 0);
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * @package com.nopaper.work.gateway.dto -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 2:09:47 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.dto;
+
+/**
+ * Published when rate limiting switches between Redis and the local fallback.
+ *
+ * @param degraded true when switching to the local limiter
+ * @param nodes live gateway nodes the global limits are divided by
+ * @param reason what triggered the switch
+ */
+public record RateLimitModeChange(boolean degraded, int nodes, String reason) {
+}
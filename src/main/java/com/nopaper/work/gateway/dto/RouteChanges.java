@@ -0,0 +1,39 @@
+/**
+ * @package com.nopaper.work.gateway.dto -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 5:51:40 am
+ * @git 
+ */
+package com.nopaper.work.gateway.dto;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Difference between two route snapshots, by route id.
+ *
+ * @param initial true for the first load, when there is nothing to diff against
+ * @param added routes that are new in the snapshot
+ * @param changed routes whose definition changed
+ * @param removed routes that were deleted or disabled
+ */
+public record RouteChanges(boolean initial, Set<String> added, Set<String> changed, Set<String> removed) {
+
+    public boolean isEmpty() {
+        return !initial && added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + changed.size() + removed.size();
+    }
+
+    /**
+     * All route ids whose compiled route has to be rebuilt or dropped.
+     */
+    public Set<String> affected() {
+        Set<String> affected = new LinkedHashSet<>(added);
+        affected.addAll(changed);
+        affected.addAll(removed);
+        return affected;
+    }
+}
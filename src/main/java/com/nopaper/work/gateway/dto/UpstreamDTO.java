@@ -0,0 +1,29 @@
+/**
+ * @package com.nopaper.work.gateway.dto -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:15:21 am
+ * @git 
+ */
+package com.nopaper.work.gateway.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Serializable DTO of a route upstream endpoint, as held in the route snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpstreamDTO implements Serializable {
+
+    private static final long serialVersionUID = 4180528718839106711L;
+
+    private String uri;
+    private int weight;
+    // Path probed by the active health check, null for none
+    private String healthCheckPath;
+}
@@ -0,0 +1,36 @@
+/**
+ * @package com.nopaper.work.gateway.exception -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:08:31 am
+ * @git 
+ */
+package com.nopaper.work.gateway.exception;
+
+/**
+ * A call rejected because the route's circuit breaker is open. Mapped to 503
+ * by GlobalErrorHandler.
+ *
+ * Thrown for every rejected call while a circuit is open, so it carries no
+ * stack trace.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 2905771804626453108L;
+
+    private final String routeId;
+    private final long retryAfterSeconds;
+
+    public CircuitOpenException(String routeId, long retryAfterSeconds) {
+        super("Circuit open for route " + routeId, null, false, false);
+        this.routeId = routeId;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
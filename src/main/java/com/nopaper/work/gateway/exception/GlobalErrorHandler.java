@@ -17,8 +17,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
@@ -27,7 +29,9 @@ import reactor.core.publisher.Mono;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Global error handler for the API Gateway.
@@ -37,6 +41,7 @@ import java.util.Map;
  * - Detailed error information
  * - Appropriate HTTP status codes
  * - Request context (ID, path, etc.)
+ * - A fast path for open-circuit rejections (503)
  * 
  * Order: -2 (High priority to catch all errors)
  */
@@ -48,8 +53,15 @@ public class GlobalErrorHandler implements ErrorWebExceptionHandler {
     
     private final ObjectMapper objectMapper;
     
+    // Fixed part of the open-circuit body, per route
+    private final Map<String, byte[]> circuitOpenBodies = new ConcurrentHashMap<>();
+    
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (ex instanceof CircuitOpenException circuitOpen) {
+            return writeCircuitOpen(exchange, circuitOpen);
+        }
+        
         log.error("Error handling request: {} {}", 
             exchange.getRequest().getMethod(), 
             exchange.getRequest().getPath(), 
@@ -79,6 +91,57 @@ public class GlobalErrorHandler implements ErrorWebExceptionHandler {
         return exchange.getResponse().writeWith(Mono.just(buffer));
     }
     
+    /**
+     * Open-circuit rejections come at full request rate, so they skip the
+     * error log and the per-request map: the fixed fields of the body are
+     * encoded once per route and only the request fields are serialized.
+     */
+    private Mono<Void> writeCircuitOpen(ServerWebExchange exchange, CircuitOpenException ex) {
+        log.debug("Circuit open for route {}: {} {}", ex.getRouteId(),
+            exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+        
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        
+        byte[] fixed = circuitOpenBodies.computeIfAbsent(ex.getRouteId(), this::encodeCircuitOpen);
+        String requestFields;
+        try {
+            requestFields = ",\"timestamp\":" + objectMapper.writeValueAsString(LocalDateTime.now())
+                + ",\"path\":" + objectMapper.writeValueAsString(exchange.getRequest().getPath().value())
+                + ",\"requestId\":" + objectMapper.writeValueAsString(exchange.getRequest().getId())
+                + ",\"method\":\"" + exchange.getRequest().getMethod().name() + "\"}";
+        } catch (JsonProcessingException e) {
+            requestFields = "}";
+        }
+        byte[] tail = requestFields.getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(fixed.length + tail.length)
+            .write(fixed)
+            .write(tail);
+        return response.writeWith(Mono.just(buffer));
+    }
+    
+    /**
+     * The open-circuit body without its request fields and closing brace.
+     */
+    private byte[] encodeCircuitOpen(String routeId) {
+        Map<String, Object> errorBody = new LinkedHashMap<>();
+        errorBody.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorBody.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        errorBody.put("message", "Service temporarily unavailable");
+        errorBody.put("errorCode", "CIRCUIT_OPEN");
+        errorBody.put("errorType", "CircuitOpenException");
+        errorBody.put("routeId", routeId);
+        try {
+            String json = objectMapper.writeValueAsString(errorBody);
+            return json.substring(0, json.length() - 1).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing circuit open response", e);
+            return "{\"status\":503".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+    
     /**
      * Build error response based on exception type.
      */
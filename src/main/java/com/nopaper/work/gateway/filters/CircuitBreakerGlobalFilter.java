@@ -0,0 +1,80 @@
+/**
+ * @package com.nopaper.work.gateway.filters -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:18:05 am
+ * @git 
+ */
+package com.nopaper.work.gateway.filters;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.nopaper.work.gateway.circuitbreaker.CircuitBreakerRegistry;
+import com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker;
+import com.nopaper.work.gateway.exception.CircuitOpenException;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Global filter applying the route's circuit breaker (see RouteCircuitBreaker).
+ *
+ * While the circuit is open, calls fail right away with a
+ * CircuitOpenException, which GlobalErrorHandler answers with 503, before an
+ * upstream is chosen or a connection taken. Errors and 5xx responses count as
+ * failed calls.
+ *
+ * Filter Order: -40 (after the IP blacklist, before any upstream work)
+ */
+@Component
+@RequiredArgsConstructor
+public class CircuitBreakerGlobalFilter implements GlobalFilter, Ordered {
+
+    private final CircuitBreakerRegistry registry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteCircuitBreaker breaker = route == null ? null : registry.get(route.getId());
+        if (breaker == null) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        int permit = breaker.tryAcquire(start);
+        if (permit == RouteCircuitBreaker.REJECTED) {
+            registry.rejected();
+            long retryAfter = TimeUnit.NANOSECONDS.toSeconds(breaker.getRemainingOpenNanos(start)) + 1;
+            return Mono.error(new CircuitOpenException(route.getId(), retryAfter));
+        }
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    breaker.release(permit);
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                long now = System.nanoTime();
+                int transition = breaker.onComplete(permit, now - start,
+                    signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError()), now);
+                if (transition != RouteCircuitBreaker.UNCHANGED) {
+                    registry.transitioned(route.getId(), transition);
+                }
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        return -40;
+    }
+}
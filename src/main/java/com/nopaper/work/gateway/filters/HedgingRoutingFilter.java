@@ -0,0 +1,344 @@
+/**
+ * @package com.nopaper.work.gateway.filters -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:02:36 am
+ * @git 
+ */
+package com.nopaper.work.gateway.filters;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.nopaper.work.gateway.hedging.HedgeBudget;
+import com.nopaper.work.gateway.hedging.HedgingPolicy;
+import com.nopaper.work.gateway.upstream.UpstreamEndpoint;
+import com.nopaper.work.gateway.upstream.UpstreamLoadBalancer;
+import com.nopaper.work.gateway.upstream.UpstreamPool;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+/**
+ * Routes GET and HEAD requests of hedging routes (see HedgingPolicy) in place
+ * of NettyRoutingFilter.
+ *
+ * The request is sent as usual; if no response headers have arrived after the
+ * route's hedge delay and its hedge budget allows, the same request is sent
+ * to another endpoint of the route's upstream pool (or to the route uri again
+ * for a single-upstream route). Whichever answers first is used and the other
+ * attempt is cancelled, which closes its connection. The winning response is
+ * handed on exactly like NettyRoutingFilter does, so NettyWriteResponseFilter
+ * and the other filters see no difference.
+ *
+ * With an upstream pool each attempt is charged to its own endpoint, up to
+ * its response headers, and UpstreamLoadBalancerFilter leaves the exchange
+ * alone (see ATTEMPTS_TRACKED_ATTR). The primary's time to headers feeds the
+ * route's adaptive hedge delay.
+ *
+ * Filter Order: just before NettyRoutingFilter (Ordered.LOWEST_PRECEDENCE - 1)
+ */
+@Slf4j
+@Component
+public class HedgingRoutingFilter implements GlobalFilter, Ordered {
+
+    /** Exchange attribute set when the attempts were charged to their endpoints here. */
+    public static final String ATTEMPTS_TRACKED_ATTR = HedgingRoutingFilter.class.getName() + ".attemptsTracked";
+
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final HttpClientProperties properties;
+    private final HedgingPolicy policy;
+    private final UpstreamLoadBalancer loadBalancer;
+
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public HedgingRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+            HttpClientProperties properties, HedgingPolicy policy, UpstreamLoadBalancer loadBalancer) {
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.properties = properties;
+        this.policy = policy;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        if (route == null || requestUrl == null || isAlreadyRouted(exchange) || !isHttp(requestUrl)
+                || !isIdempotent(request) || !policy.isEnabled(route)) {
+            return chain.filter(exchange);
+        }
+        setAlreadyRouted(exchange);
+        HedgeBudget budget = policy.budget(route.getId());
+        budget.deposit();
+
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(getHeadersFilters(), exchange);
+        DefaultHttpHeaders httpHeaders = new DefaultHttpHeaders();
+        filtered.forEach(httpHeaders::set);
+        boolean preserveHost = exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+        String host = request.getHeaders().getFirst(HttpHeaders.HOST);
+        HttpClient client = getHttpClient(route).headers(headers -> {
+            headers.add(httpHeaders);
+            // Will either be set below, or later by Netty
+            headers.remove(HttpHeaders.HOST);
+            if (preserveHost) {
+                headers.add(HttpHeaders.HOST, host);
+            }
+        });
+        HttpMethod method = HttpMethod.valueOf(request.getMethod().name());
+
+        // Only the first attempt to answer is used; a later one closes its connection
+        AtomicBoolean answered = new AtomicBoolean();
+        AtomicBoolean hedgeSent = new AtomicBoolean();
+        UpstreamPool pool = loadBalancer.pool(route.getId());
+        UpstreamEndpoint first = exchange.getAttribute(UpstreamLoadBalancerFilter.UPSTREAM_ENDPOINT_ATTR);
+        Mono<Attempt> primary = timed(attempt(client, method, requestUrl, false, answered), route);
+        if (first != null) {
+            // Hand the primary's in-flight slot over from UpstreamLoadBalancerFilter,
+            // which would otherwise charge the winner's status to it
+            first.cancel();
+            exchange.getAttributes().put(ATTEMPTS_TRACKED_ATTR, Boolean.TRUE);
+            primary = tracked(primary, route, first);
+        }
+        Mono<Attempt> hedge = Mono.delay(policy.delay(route))
+            .flatMap(tick -> {
+                UpstreamEndpoint endpoint = null;
+                if (pool != null && first != null) {
+                    endpoint = pool.chooseOther(first);
+                    if (endpoint == null) {
+                        return Mono.empty();
+                    }
+                }
+                if (!budget.tryWithdraw()) {
+                    policy.denied();
+                    return Mono.empty();
+                }
+                hedgeSent.set(true);
+                URI hedgeUrl = endpoint == null ? requestUrl : withEndpoint(requestUrl, endpoint.getUri());
+                log.debug("Hedging {} {} to {}", method, requestUrl, hedgeUrl);
+                return endpoint == null
+                    ? attempt(client, method, hedgeUrl, true, answered)
+                    : tracked(attempt(client, method, hedgeUrl, true, answered), route, endpoint);
+            });
+
+        Mono<Attempt> winner = Mono.firstWithValue(primary, hedge)
+            // Both attempts failed or the hedge was never sent: report the primary's error
+            .onErrorMap(NoSuchElementException.class,
+                error -> error.getSuppressed().length > 0 ? error.getSuppressed()[0] : error);
+        Duration responseTimeout = getResponseTimeout(route);
+        if (responseTimeout != null) {
+            winner = winner
+                .timeout(responseTimeout, Mono.defer(() -> Mono.error(
+                    new TimeoutException("Response took longer than timeout: " + responseTimeout))))
+                .onErrorMap(TimeoutException.class,
+                    error -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, error.getMessage(), error));
+        }
+        return winner
+            .doOnNext(attempt -> {
+                if (hedgeSent.get()) {
+                    policy.hedged(attempt.hedge());
+                }
+                apply(exchange, attempt);
+            })
+            .then(chain.filter(exchange));
+    }
+
+    private Mono<Attempt> attempt(HttpClient client, HttpMethod method, URI url, boolean hedge,
+            AtomicBoolean answered) {
+        return client.request(method)
+            .uri(url.toASCIIString())
+            .responseConnection((response, connection) -> {
+                if (!answered.compareAndSet(false, true)) {
+                    connection.dispose();
+                    return Mono.<Attempt>empty();
+                }
+                return Mono.just(new Attempt(response, connection, url, hedge));
+            })
+            .next();
+    }
+
+    /**
+     * Record the primary's time to response headers for the hedge delay. A
+     * primary cancelled because the hedge won records the time it had waited.
+     */
+    private Mono<Attempt> timed(Mono<Attempt> attempt, Route route) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doFinally(signal -> {
+                if (signal != SignalType.ON_ERROR) {
+                    policy.recordHeaders(route.getId(), System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    /**
+     * Feed an attempt's outcome into its endpoint's load and outlier state,
+     * up to the response headers.
+     */
+    private Mono<Attempt> tracked(Mono<Attempt> attempt, Route route, UpstreamEndpoint endpoint) {
+        long start = endpoint.start();
+        int[] status = {0};
+        return attempt
+            .doOnNext(answer -> status[0] = answer.response().status().code())
+            .doFinally(signal -> {
+                if (signal == SignalType.CANCEL || (signal == SignalType.ON_COMPLETE && status[0] == 0)) {
+                    endpoint.cancel();
+                } else {
+                    loadBalancer.complete(route.getId(), endpoint, start,
+                        signal == SignalType.ON_ERROR || status[0] >= 500);
+                }
+            });
+    }
+
+    /**
+     * Hand the response on for NettyWriteResponseFilter, as NettyRoutingFilter does.
+     */
+    private void apply(ServerWebExchange exchange, Attempt attempt) {
+        exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, attempt.response());
+        exchange.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, attempt.connection());
+        if (attempt.hedge()) {
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, attempt.url());
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = new HttpHeaders();
+        attempt.response().responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentTypeValue = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentTypeValue)) {
+            exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentTypeValue);
+        }
+        setResponseStatus(attempt.response(), response);
+
+        HttpHeaders filteredResponseHeaders = HttpHeadersFilter.filter(getHeadersFilters(), headers, exchange,
+            HttpHeadersFilter.Type.RESPONSE);
+        if (!filteredResponseHeaders.containsKey(HttpHeaders.TRANSFER_ENCODING)
+                && filteredResponseHeaders.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, filteredResponseHeaders.keySet());
+        response.getHeaders().addAll(filteredResponseHeaders);
+    }
+
+    private static void setResponseStatus(HttpClientResponse clientResponse, ServerHttpResponse response) {
+        HttpStatus status = HttpStatus.resolve(clientResponse.status().code());
+        if (status != null) {
+            response.setStatusCode(status);
+            return;
+        }
+        while (response instanceof ServerHttpResponseDecorator decorator) {
+            response = decorator.getDelegate();
+        }
+        if (response instanceof AbstractServerHttpResponse serverResponse) {
+            serverResponse.setRawStatusCode(clientResponse.status().code());
+        } else {
+            throw new IllegalStateException("Unable to set status code " + clientResponse.status().code()
+                + " on response of type " + response.getClass().getName());
+        }
+    }
+
+    private HttpClient getHttpClient(Route route) {
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR) != null
+            ? route.getMetadata().get(CONNECT_TIMEOUT_ATTR)
+            : properties.getConnectTimeout();
+        return connectTimeout == null
+            ? httpClient
+            : httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+    }
+
+    private Duration getResponseTimeout(Route route) {
+        Object routeTimeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (routeTimeout != null) {
+            try {
+                long millis = Long.parseLong(routeTimeout.toString());
+                return millis >= 0 ? Duration.ofMillis(millis) : null;
+            } catch (NumberFormatException e) {
+                // Use the global default
+            }
+        }
+        return properties.getResponseTimeout();
+    }
+
+    private List<HttpHeadersFilter> getHeadersFilters() {
+        if (headersFilters == null) {
+            headersFilters = headersFiltersProvider.getIfAvailable();
+        }
+        return headersFilters;
+    }
+
+    private static URI withEndpoint(URI url, URI endpoint) {
+        return UriComponentsBuilder.fromUri(url)
+            .scheme(endpoint.getScheme())
+            .host(endpoint.getHost())
+            .port(endpoint.getPort())
+            .build(true)
+            .toUri();
+    }
+
+    private static boolean isHttp(URI url) {
+        return "http".equalsIgnoreCase(url.getScheme()) || "https".equalsIgnoreCase(url.getScheme());
+    }
+
+    /**
+     * GET and HEAD without a body; anything else may not be safe to send twice.
+     */
+    private static boolean isIdempotent(ServerHttpRequest request) {
+        String method = request.getMethod().name();
+        return (method.equals("GET") || method.equals("HEAD"))
+            && request.getHeaders().getContentLength() <= 0
+            && !request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    private record Attempt(HttpClientResponse response, Connection connection, URI url, boolean hedge) {
+    }
+}
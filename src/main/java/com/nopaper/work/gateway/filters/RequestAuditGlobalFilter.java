@@ -6,21 +6,28 @@
  */
 package com.nopaper.work.gateway.filters;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nopaper.work.gateway.audit.AuditBodyCapture;
+import com.nopaper.work.gateway.audit.AuditSampler;
+import com.nopaper.work.gateway.audit.HeaderRedactor;
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.constants.GatewayConstant;
 import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.rollup.TrafficRollupEngine;
 import com.nopaper.work.gateway.service.RequestAuditService;
 import com.nopaper.work.gateway.utils.IpAddressExtractor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.reactivestreams.Publisher;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -30,11 +37,7 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Global filter for request/response auditing.
@@ -44,7 +47,9 @@ import java.util.stream.Collectors;
  * - Logs asynchronously to database (non-blocking)
  * - Tracks processing time
  * - Captures errors
- * - Configurable body logging
+ * - Configurable, size-capped body logging that never buffers the stream
+ * - Per-route sampling once the response is complete (see {@link AuditSampler})
+ * - Feeds every request, sampled or not, into the {@link TrafficRollupEngine}
  * 
  * Filter Order: Integer.MIN_VALUE (Execute first to capture full request lifecycle)
  */
@@ -54,20 +59,14 @@ import java.util.stream.Collectors;
 public class RequestAuditGlobalFilter implements GlobalFilter, Ordered {
     
     private final RequestAuditService auditService;
-    private final ObjectMapper objectMapper;
-    
-    @Value("${gateway.audit.enabled:true}")
-    private boolean auditEnabled;
-    
-    @Value("${gateway.audit.log-request-body:false}")
-    private boolean logRequestBody;
-    
-    @Value("${gateway.audit.log-response-body:false}")
-    private boolean logResponseBody;
+    private final AuditProperties auditProperties;
+    private final AuditSampler auditSampler;
+    private final HeaderRedactor headerRedactor;
+    private final TrafficRollupEngine rollupEngine;
     
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        if (!auditEnabled) {
+        if (!auditProperties.isEnabled()) {
             return chain.filter(exchange);
         }
         
@@ -86,87 +85,130 @@ public class RequestAuditGlobalFilter implements GlobalFilter, Ordered {
         // Get route ID if available
         String routeId = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR);
         
-        // Capture request headers
-        String requestHeaders = captureHeaders(request.getHeaders());
+        // Bodies are only copied (never buffered) into pooled, size-capped captures
+        int maxBodyBytes = (int) auditProperties.getMaxBodySize().toBytes();
+        DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+        AuditBodyCapture requestCapture = shouldCaptureRequestBody(exchange, routeId)
+            ? new AuditBodyCapture(bufferFactory, maxBodyBytes)
+            : null;
+        AuditBodyCapture responseCapture = auditProperties.isLogResponseBody()
+            ? new AuditBodyCapture(bufferFactory, maxBodyBytes)
+            : null;
         
-        // Create decorated request and response for body capture
-        ServerHttpRequestDecorator requestDecorator = new ServerHttpRequestDecorator(request);
-        ServerHttpResponseDecorator responseDecorator = decorateResponse(
-            exchange, requestId, routeId, method, path, queryParams, 
-            clientIp, userAgent, requestHeaders, startTime
-        );
+        ServerWebExchange.Builder auditedExchange = exchange.mutate();
+        if (requestCapture != null) {
+            auditedExchange.request(decorateRequest(request, requestCapture));
+        }
+        if (responseCapture != null) {
+            auditedExchange.response(decorateResponse(exchange, responseCapture));
+        }
         
-        // Continue with decorated exchange
-        return chain.filter(
-            exchange.mutate()
-                .request(requestDecorator)
-                .response(responseDecorator)
-                .build()
-        ).doOnError(error -> {
-            // Log error asynchronously
-            long processingTime = System.currentTimeMillis() - startTime;
-            logAuditWithError(
-                requestId, routeId, method, path, queryParams,
-                clientIp, userAgent, requestHeaders, processingTime, error
-            );
-        });
+        // The audit record is emitted from the completion signal, once the
+        // response has been fully written
+        return chain.filter(auditedExchange.build())
+            .doOnSuccess(done -> {
+                ServerHttpResponse response = exchange.getResponse();
+                Integer responseStatus = response.getStatusCode() != null 
+                    ? response.getStatusCode().value() 
+                    : null;
+                long processingTime = System.currentTimeMillis() - startTime;
+                rollupEngine.record(routeId, responseStatus, processingTime);
+                // Headers are only serialized for rows that survive sampling
+                if (auditSampler.sample(routeId, responseStatus, processingTime)) {
+                    logAudit(
+                        requestId, routeId, method, path, queryParams,
+                        clientIp, userAgent, captureHeaders(request.getHeaders()),
+                        requestCapture != null ? requestCapture.asString() : null,
+                        responseStatus, captureHeaders(response.getHeaders()),
+                        responseCapture != null ? responseCapture.asString() : null,
+                        processingTime
+                    );
+                }
+            })
+            .doOnError(error -> {
+                long processingTime = System.currentTimeMillis() - startTime;
+                rollupEngine.record(routeId, 500, processingTime);
+                if (auditSampler.sample(routeId, 500, processingTime)) {
+                    logAuditWithError(
+                        requestId, routeId, method, path, queryParams,
+                        clientIp, userAgent, captureHeaders(request.getHeaders()), processingTime, error
+                    );
+                }
+            })
+            .doFinally(signal -> {
+                // Hand the capture buffers back to the pool
+                if (requestCapture != null) {
+                    requestCapture.release();
+                }
+                if (responseCapture != null) {
+                    responseCapture.release();
+                }
+            });
     }
     
     /**
-     * Decorate response to capture response details.
+     * Request bodies are captured only for routes that opted in (by route ID
+     * or route metadata) and only for allow-listed content types.
      */
-    private ServerHttpResponseDecorator decorateResponse(
-            ServerWebExchange exchange, String requestId, String routeId,
-            String method, String path, String queryParams, String clientIp,
-            String userAgent, String requestHeaders, long startTime) {
+    private boolean shouldCaptureRequestBody(ServerWebExchange exchange, String routeId) {
+        if (!auditProperties.isLogRequestBody()) {
+            return false;
+        }
+        
+        AuditProperties.RequestBody settings = auditProperties.getRequestBody();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        boolean optedIn = (routeId != null && settings.getRoutes().contains(routeId))
+            || (route != null && Boolean.parseBoolean(
+                String.valueOf(route.getMetadata().get(GatewayConstant.AUDIT_REQUEST_BODY_METADATA))));
+        if (!optedIn) {
+            return false;
+        }
         
-        ServerHttpResponse originalResponse = exchange.getResponse();
+        MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType allowed : settings.getContentTypes()) {
+            if (allowed.includes(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Decorate request to tee the leading bytes of the body into the capture.
+     * The original buffers continue downstream without an extra copy.
+     */
+    private ServerHttpRequestDecorator decorateRequest(
+            ServerHttpRequest request, AuditBodyCapture capture) {
         
-        return new ServerHttpResponseDecorator(originalResponse) {
+        return new ServerHttpRequestDecorator(request) {
             @Override
-            public Mono<Void> writeWith(org.reactivestreams.Publisher<? extends DataBuffer> body) {
-                if (body instanceof Flux) {
-                    Flux<? extends DataBuffer> fluxBody = (Flux<? extends DataBuffer>) body;
-                    
-                    return super.writeWith(fluxBody
-                        .collectList()
-                        .flatMapMany(dataBuffers -> {
-                            // Capture response body if enabled
-                            String responseBody = null;
-                            if (logResponseBody && !dataBuffers.isEmpty()) {
-                                responseBody = dataBuffers.stream()
-                                    .map(buffer -> {
-                                        byte[] bytes = new byte[buffer.readableByteCount()];
-                                        buffer.read(bytes);
-                                        DataBufferUtils.release(buffer);
-                                        return new String(bytes, StandardCharsets.UTF_8);
-                                    })
-                                    .collect(Collectors.joining());
-                            }
-                            
-                            // Calculate processing time
-                            long processingTime = System.currentTimeMillis() - startTime;
-                            
-                            // Capture response details
-                            Integer responseStatus = getDelegate().getStatusCode() != null 
-                                ? getDelegate().getStatusCode().value() 
-                                : null;
-                            String responseHeaders = captureHeaders(getDelegate().getHeaders());
-                            
-                            // Log audit asynchronously
-                            logAudit(
-                                requestId, routeId, method, path, queryParams,
-                                clientIp, userAgent, requestHeaders, null,
-                                responseStatus, responseHeaders, responseBody, processingTime
-                            );
-                            
-                            // Return data buffers for actual response
-                            return Flux.fromIterable(dataBuffers);
-                        })
-                    );
-                }
-                
-                return super.writeWith(body);
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(capture::copy);
+            }
+        };
+    }
+    
+    /**
+     * Decorate response to copy the leading bytes of the body as it streams
+     * through. Buffers are passed on untouched, so time-to-first-byte, large
+     * downloads and server-sent events are unaffected.
+     */
+    private ServerHttpResponseDecorator decorateResponse(
+            ServerWebExchange exchange, AuditBodyCapture capture) {
+        
+        return new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body).doOnNext(capture::copy));
+            }
+            
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                return super.writeAndFlushWith(Flux.from(body)
+                    .map(chunk -> Flux.from(chunk).doOnNext(capture::copy)));
             }
         };
     }
@@ -196,12 +238,8 @@ public class RequestAuditGlobalFilter implements GlobalFilter, Ordered {
             .processingTimeMs(processingTime)
             .build();
         
-        // Save asynchronously (non-blocking)
-        auditService.saveAuditLogAsync(auditLog)
-            .exceptionally(error -> {
-                log.error("Failed to save audit log for request: {}", requestId, error);
-                return null;
-            });
+        // Queue for batched persistence (non-blocking)
+        auditService.submitAuditLog(auditLog);
     }
     
     /**
@@ -226,42 +264,14 @@ public class RequestAuditGlobalFilter implements GlobalFilter, Ordered {
             .responseStatus(500)
             .build();
         
-        auditService.saveAuditLogAsync(auditLog)
-            .exceptionally(saveError -> {
-                log.error("Failed to save error audit log for request: {}", requestId, saveError);
-                return null;
-            });
+        auditService.submitAuditLog(auditLog);
     }
     
     /**
-     * Capture headers as JSON string.
+     * Capture headers as JSON string, without sensitive headers.
      */
     private String captureHeaders(HttpHeaders headers) {
-        try {
-            Map<String, String> headerMap = new HashMap<>();
-            headers.forEach((key, values) -> {
-                // Skip sensitive headers
-                if (!isSensitiveHeader(key)) {
-                    headerMap.put(key, String.join(",", values));
-                }
-            });
-            return objectMapper.writeValueAsString(headerMap);
-        } catch (Exception e) {
-            log.warn("Failed to serialize headers", e);
-            return "{}";
-        }
-    }
-    
-    /**
-     * Check if header is sensitive (should not be logged).
-     */
-    private boolean isSensitiveHeader(String headerName) {
-        String lowerName = headerName.toLowerCase();
-        return lowerName.contains("authorization") ||
-               lowerName.contains("password") ||
-               lowerName.contains("token") ||
-               lowerName.contains("secret") ||
-               lowerName.contains("api-key");
+        return headerRedactor.toJson(headers);
     }
     
     @Override
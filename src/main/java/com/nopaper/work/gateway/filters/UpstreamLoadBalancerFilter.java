@@ -0,0 +1,98 @@
+/**
+ * @package com.nopaper.work.gateway.filters -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:47:09 am
+ * @git 
+ */
+package com.nopaper.work.gateway.filters;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+import java.net.URI;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.nopaper.work.gateway.upstream.UpstreamEndpoint;
+import com.nopaper.work.gateway.upstream.UpstreamLoadBalancer;
+import com.nopaper.work.gateway.upstream.UpstreamPool;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Global filter sending requests of multi-upstream routes to one of their
+ * endpoints (see UpstreamPool), and feeding the outcome back into the
+ * endpoint's latency, in-flight and outlier state. Errors (including
+ * timeouts) and 5xx responses count as failures.
+ *
+ * Only the scheme, host and port of the request URL are replaced, the same
+ * parts RouteToRequestUrlFilter takes from the route uri.
+ *
+ * Filter Order: right after RouteToRequestUrlFilter (10001)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamLoadBalancerFilter implements GlobalFilter, Ordered {
+
+    /** Exchange attribute holding the chosen UpstreamEndpoint. */
+    public static final String UPSTREAM_ENDPOINT_ATTR = UpstreamLoadBalancerFilter.class.getName() + ".endpoint";
+
+    private final UpstreamLoadBalancer loadBalancer;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        UpstreamPool pool = route == null || url == null ? null : loadBalancer.pool(route.getId());
+        if (pool == null) {
+            return chain.filter(exchange);
+        }
+
+        UpstreamEndpoint endpoint = pool.choose();
+        URI upstream = endpoint.getUri();
+        URI requestUrl = UriComponentsBuilder.fromUri(url)
+            .scheme(upstream.getScheme())
+            .host(upstream.getHost())
+            .port(upstream.getPort())
+            .build(true)
+            .toUri();
+        addOriginalRequestUrl(exchange, url);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        exchange.getAttributes().put(UPSTREAM_ENDPOINT_ATTR, endpoint);
+        log.debug("Route {} sent to upstream {}", route.getId(), upstream);
+
+        long start = endpoint.start();
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                if (exchange.getAttribute(HedgingRoutingFilter.ATTEMPTS_TRACKED_ATTR) != null) {
+                    // Hedged: each attempt was already charged to its own endpoint
+                    return;
+                }
+                if (signal == SignalType.CANCEL) {
+                    endpoint.cancel();
+                } else {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    loadBalancer.complete(route.getId(), endpoint, start,
+                        signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError()));
+                }
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+}
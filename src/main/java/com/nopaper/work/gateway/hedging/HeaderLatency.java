@@ -0,0 +1,44 @@
+/**
+ * @package com.nopaper.work.gateway.hedging -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 3:12:40 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.hedging;
+
+import com.nopaper.work.gateway.rollup.LatencyHistogram;
+
+/**
+ * Time to response headers of a route's first attempts, in two periods: the
+ * current one and the one before it, so a quantile always covers at least one
+ * full period. A first attempt that lost to its hedge is counted with the
+ * time it had waited, a lower bound of its latency.
+ */
+final class HeaderLatency {
+
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile LatencyHistogram previous = new LatencyHistogram();
+
+    void record(long latencyMs) {
+        current.record(latencyMs);
+    }
+
+    /**
+     * Quantile over both periods, then start a new period. Callers rotate one
+     * at a time; samples recorded into a histogram while it is retired are lost.
+     *
+     * @return the quantile in ms, or -1 with fewer than minSamples samples
+     */
+    long rotate(double quantile, long minSamples) {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        previous.addTo(counts);
+        current.addTo(counts);
+        previous = current;
+        current = new LatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total < minSamples ? -1 : LatencyHistogram.valueAtQuantile(counts, total, quantile);
+    }
+}
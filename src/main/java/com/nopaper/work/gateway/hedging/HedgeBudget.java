@@ -0,0 +1,49 @@
+/**
+ * @package com.nopaper.work.gateway.hedging -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:43:50 am
+ * @git 
+ */
+package com.nopaper.work.gateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free budget of hedged requests for one route, as a token bucket in
+ * thousandths of a token: every request deposits the budget share (50 for
+ * 5%) and every hedge withdraws a whole token (1000). The bucket is capped, so
+ * a quiet period cannot save up for a burst of hedges, and during an outage,
+ * when every request would be hedged, at most the budget share is.
+ */
+public final class HedgeBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+
+    public HedgeBudget(double percent, int maxBurst) {
+        this.deposit = Math.round(Math.max(0, percent) * TOKEN / 100);
+        this.capacity = Math.max(1, maxBurst) * TOKEN;
+    }
+
+    public void deposit() {
+        long current = balance.get();
+        // Plain read first: a full bucket, the common case when nothing is slow, needs no write
+        if (current < capacity) {
+            balance.accumulateAndGet(deposit, (value, amount) -> Math.min(capacity, value + amount));
+        }
+    }
+
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * @package com.nopaper.work.gateway.hedging -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:49:27 am
+ * @git 
+ */
+package com.nopaper.work.gateway.hedging;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Which routes hedge, after how long, and within which budget.
+ *
+ * Hedging is opt-in through route metadata (the metadata JSONB column):
+ * "hedge.enabled": "true", and optionally "hedge.delay-ms" to fix the delay.
+ * Without a fixed delay the route's p95 time to response headers is used,
+ * over the last one to two delay-refresh periods (see HeaderLatency), so only
+ * the slowest ~5% of requests are hedged. Hedging races for the response
+ * headers, so full request durations, which include the body, would hedge too
+ * late on routes with large responses. A route with fewer than min-samples
+ * requests in that time uses the default delay.
+ */
+@Component
+public class HedgingPolicy {
+
+    public static final String ENABLED_METADATA = "hedge.enabled";
+    public static final String DELAY_METADATA = "hedge.delay-ms";
+
+    private final double budgetPercent;
+    private final int maxBurst;
+    private final long minDelayMs;
+    private final long defaultDelayMs;
+    private final int minSamples;
+    private final long refreshNanos;
+
+    private final Map<String, HedgeBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<String, HeaderLatency> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AdaptiveDelay> delays = new ConcurrentHashMap<>();
+
+    private final Counter won;
+    private final Counter lost;
+    private final Counter denied;
+
+    public HedgingPolicy(MeterRegistry meterRegistry,
+            @Value("${gateway.hedging.budget-percent:5}") double budgetPercent,
+            @Value("${gateway.hedging.max-burst:10}") int maxBurst,
+            @Value("${gateway.hedging.min-delay:20ms}") Duration minDelay,
+            @Value("${gateway.hedging.default-delay:250ms}") Duration defaultDelay,
+            @Value("${gateway.hedging.min-samples:20}") int minSamples,
+            @Value("${gateway.hedging.delay-refresh:1m}") Duration delayRefresh) {
+        this.budgetPercent = budgetPercent;
+        this.maxBurst = maxBurst;
+        this.minDelayMs = minDelay.toMillis();
+        this.defaultDelayMs = defaultDelay.toMillis();
+        this.minSamples = Math.max(1, minSamples);
+        this.refreshNanos = delayRefresh.toNanos();
+        this.won = Counter.builder("gateway.hedging.hedges")
+            .tag("outcome", "won")
+            .description("Hedged requests sent, by which attempt answered first")
+            .register(meterRegistry);
+        this.lost = Counter.builder("gateway.hedging.hedges")
+            .tag("outcome", "lost")
+            .description("Hedged requests sent, by which attempt answered first")
+            .register(meterRegistry);
+        this.denied = Counter.builder("gateway.hedging.denied")
+            .description("Hedges skipped because the route's hedge budget was spent")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled(Route route) {
+        return "true".equalsIgnoreCase(String.valueOf(route.getMetadata().get(ENABLED_METADATA)));
+    }
+
+    public Duration delay(Route route) {
+        Object fixed = route.getMetadata().get(DELAY_METADATA);
+        if (fixed != null) {
+            try {
+                return Duration.ofMillis(Math.max(0, Long.parseLong(fixed.toString())));
+            } catch (NumberFormatException e) {
+                // Fall back to the adaptive delay
+            }
+        }
+        long now = System.nanoTime();
+        AdaptiveDelay delay = delays.get(route.getId());
+        if (delay == null || now - delay.computedAtNanos() > refreshNanos) {
+            // One caller per route recomputes and starts a new latency period
+            delay = delays.compute(route.getId(), (id, current) -> {
+                if (current != null && now - current.computedAtNanos() <= refreshNanos) {
+                    return current;
+                }
+                long p95 = latency(id).rotate(0.95, minSamples);
+                return new AdaptiveDelay(p95 < 0 ? defaultDelayMs : Math.max(minDelayMs, p95), now);
+            });
+        }
+        return Duration.ofMillis(delay.delayMs());
+    }
+
+    /**
+     * Record how long a route's first attempt took to its response headers.
+     */
+    public void recordHeaders(String routeId, long nanos) {
+        latency(routeId).record(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private HeaderLatency latency(String routeId) {
+        return latencies.computeIfAbsent(routeId, id -> new HeaderLatency());
+    }
+
+    public HedgeBudget budget(String routeId) {
+        return budgets.computeIfAbsent(routeId, id -> new HedgeBudget(budgetPercent, maxBurst));
+    }
+
+    public void hedged(boolean hedgeWon) {
+        (hedgeWon ? won : lost).increment();
+    }
+
+    public void denied() {
+        denied.increment();
+    }
+
+    private record AdaptiveDelay(long delayMs, long computedAtNanos) {
+    }
+}
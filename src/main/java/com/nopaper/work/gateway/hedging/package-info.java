@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.hedging -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:41:12 am
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.hedging;
\ No newline at end of file
@@ -6,11 +6,13 @@
  */
 package com.nopaper.work.gateway.models;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
+import io.r2dbc.postgresql.codec.Json;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -36,7 +38,21 @@ public class GatewayRoute { // extends AbstractAuditEntity
     private Boolean enabled;
     private Integer rateLimitRequests;
     private Integer rateLimitPeriodSeconds;
+    private BigDecimal rateLimitRate;
+    private String rateLimitUnit;
+    private Integer rateLimitBurst;
+    private String rateLimitAlgorithm;
+    private Integer circuitFailureRate;
+    private Integer circuitSlowCallMs;
+    private Integer circuitSlowCallRate;
+    private Integer circuitHalfOpenCalls;
+    private Integer circuitOpenSeconds;
     private String description;
+    // JSONB: [{"name": ..., "args": {...}}]
+    private Json predicates;
+    private Json filters;
+    // JSONB: {"key": "value"}
+    private Json metadata;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
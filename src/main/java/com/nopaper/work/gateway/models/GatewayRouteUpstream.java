@@ -0,0 +1,37 @@
+/**
+ * @package com.nopaper.work.gateway.models -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:12:40 am
+ * @git 
+ */
+package com.nopaper.work.gateway.models;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Database entity representing one upstream endpoint of a gateway route.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "gateway_route_upstreams", schema = "way")
+public class GatewayRouteUpstream {
+
+    @Id
+    private Long id;
+
+    private String routeId;
+    private String uri;
+    private Integer weight;
+    private String healthCheckPath;
+    private Boolean enabled;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
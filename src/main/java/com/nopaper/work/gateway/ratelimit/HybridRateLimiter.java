@@ -0,0 +1,310 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:14:09 am
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Two-tier token bucket: the global bucket of every key lives in Redis, and
+ * each node leases a slice of it and spends that locally, so most requests
+ * never wait for Redis.
+ *
+ * A lease takes up to lease-fraction of the burst capacity from the global
+ * bucket, or what the route refills in a lease-ttl if that is more (up to a
+ * quarter of the burst), and is good for lease-ttl. When half of the lease is
+ * spent a new one is requested in the background; a request only waits for
+ * Redis when its node's lease is empty or expired. Tokens an expired lease did not spend go
+ * back to the global bucket with the next lease.
+ *
+ * Leases are taken from the global bucket, so the cluster never admits more
+ * than the limit. The error is the other way: a node can hold up to one lease
+ * of tokens another node would have used, so requests may be rejected early
+ * by at most nodes x lease size.
+ *
+ * When Redis cannot be reached the request is decided on this node's share
+ * of the limit, see {@link RateLimitFallback}, or allowed if the fallback is
+ * disabled. Routes whose RequestRateLimiter has no hybrid-rate-limiter
+ * arguments are handed to the RedisRateLimiter, or limited locally with its
+ * settings while the fallback is degraded.
+ */
+@Slf4j
+@Primary
+@Component(HybridRateLimiter.BEAN_NAME)
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String BEAN_NAME = "hybridRateLimiter";
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final String KEY_PREFIX = "gateway:ratelimit:";
+    // Lease requests after the first, when concurrent requests emptied a new lease first
+    private static final int MAX_LEASE_ATTEMPTS = 3;
+
+    // KEYS: bucket; ARGV: rate per second, capacity, lease size, requested, returned tokens
+    // Returns granted tokens, ms until the requested tokens are available, tokens left
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> LEASE = (RedisScript) RedisScript.of("""
+        local rate = tonumber(ARGV[1])
+        local capacity = tonumber(ARGV[2])
+        local requested = tonumber(ARGV[4])
+        local time = redis.call('TIME')
+        local now = time[1] * 1000 + math.floor(time[2] / 1000)
+        local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+        local tokens = tonumber(state[1]) or capacity
+        local last = tonumber(state[2]) or now
+        tokens = math.min(capacity, tokens + tonumber(ARGV[5]) + math.max(0, now - last) * rate / 1000)
+        local granted = 0
+        local wait = 0
+        if tokens >= requested then
+            granted = math.min(tonumber(ARGV[3]), math.floor(tokens))
+            tokens = tokens - granted
+        else
+            wait = math.ceil((requested - tokens) * 1000 / rate)
+        end
+        redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+        redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 2000 / rate))
+        return {granted, wait, math.floor(tokens)}
+        """, List.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ObjectProvider<RedisRateLimiter> redisRateLimiter;
+    private final RateLimitFallback rateLimitFallback;
+    private final LongSupplier nanoClock;
+    private final double leaseFraction;
+    private final long leaseTtlNanos;
+    private final Duration idleTimeout;
+
+    private final Map<String, LeasedTokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter granted;
+    private final Counter exhausted;
+    private final Counter failed;
+
+    private Disposable sweeper;
+
+    @Autowired
+    public HybridRateLimiter(@Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            ConfigurationService configurationService, ObjectProvider<RedisRateLimiter> redisRateLimiter,
+            RateLimitFallback rateLimitFallback, MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limiter.lease-fraction:0.05}") double leaseFraction,
+            @Value("${gateway.rate-limiter.lease-ttl:1s}") Duration leaseTtl,
+            @Value("${gateway.rate-limiter.idle-timeout:5m}") Duration idleTimeout) {
+        this(redisTemplate, configurationService, redisRateLimiter, rateLimitFallback, meterRegistry, leaseFraction,
+            leaseTtl, idleTimeout, System::nanoTime);
+    }
+
+    HybridRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate, ConfigurationService configurationService,
+            ObjectProvider<RedisRateLimiter> redisRateLimiter, RateLimitFallback rateLimitFallback,
+            MeterRegistry meterRegistry, double leaseFraction, Duration leaseTtl, Duration idleTimeout,
+            LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.redisRateLimiter = redisRateLimiter;
+        this.rateLimitFallback = rateLimitFallback;
+        this.nanoClock = nanoClock;
+        this.leaseFraction = leaseFraction;
+        this.leaseTtlNanos = leaseTtl.toNanos();
+        this.idleTimeout = idleTimeout;
+        this.granted = Counter.builder("gateway.ratelimit.leases")
+            .tag("outcome", "granted")
+            .description("Token leases requested from Redis, by outcome")
+            .register(meterRegistry);
+        this.exhausted = Counter.builder("gateway.ratelimit.leases")
+            .tag("outcome", "exhausted")
+            .description("Token leases requested from Redis, by outcome")
+            .register(meterRegistry);
+        this.failed = Counter.builder("gateway.ratelimit.leases")
+            .tag("outcome", "error")
+            .description("Token leases requested from Redis, by outcome")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweeper = Flux.interval(idleTimeout, idleTimeout)
+            .onBackpressureDrop()
+            .subscribe(tick -> sweep());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS));
+        if (config == null) {
+            RedisRateLimiter fallback = redisRateLimiter.getIfAvailable();
+            if (fallback == null) {
+                throw new IllegalArgumentException("No rate limiter configuration found for route " + routeId);
+            }
+            RedisRateLimiter.Config redisConfig = rateLimitFallback.isDegraded()
+                ? fallback.getConfig().getOrDefault(routeId,
+                    fallback.getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS))
+                : null;
+            return redisConfig == null
+                ? fallback.isAllowed(routeId, id)
+                : Mono.just(local(routeId, id, Config.of(redisConfig)));
+        }
+        if (rateLimitFallback.isDegraded()) {
+            return Mono.just(local(routeId, id, config));
+        }
+        LeasedTokenBucket bucket = buckets.computeIfAbsent(routeId + ':' + id,
+            key -> new LeasedTokenBucket(nanoClock.getAsLong()));
+        return acquire(routeId, id, config, bucket, 0);
+    }
+
+    private Mono<Response> acquire(String routeId, String id, Config config, LeasedTokenBucket bucket, int attempt) {
+        long now = nanoClock.getAsLong();
+        long left = bucket.tryAcquire(config.getRequestedTokens(), now);
+        if (left >= 0) {
+            // Top the lease up before it runs out, so the next requests do not wait,
+            // unless Redis just said it has no tokens
+            if (left <= leaseSize(config) / 2 && !bucket.isDenied(now)) {
+                bucket.lease(() -> lease(routeId, id, config, bucket)).subscribe();
+            }
+            return Mono.just(response(true, config, bucket.remaining()));
+        }
+        if (bucket.isDenied(now) || attempt == MAX_LEASE_ATTEMPTS) {
+            return Mono.just(response(false, config, 0));
+        }
+        return bucket.lease(() -> lease(routeId, id, config, bucket))
+            .flatMap(answered -> answered
+                ? acquire(routeId, id, config, bucket, attempt + 1)
+                : Mono.just(rateLimitFallback.isEnabled() ? local(routeId, id, config) : response(true, config, -1)));
+    }
+
+    /**
+     * Decide on this node's share of the limit, while Redis is unavailable.
+     */
+    private Response local(String routeId, String id, Config config) {
+        long left = rateLimitFallback.tryAcquire(routeId + ':' + id, config.getReplenishRate(),
+            config.getBurstCapacity(), config.getRequestedTokens());
+        return response(left >= 0, config, Math.max(left, 0));
+    }
+
+    private Mono<Boolean> lease(String routeId, String id, Config config, LeasedTokenBucket bucket) {
+        long returned = bucket.drainExpired(nanoClock.getAsLong());
+        List<String> args = List.of(String.valueOf(config.getReplenishRate()),
+            String.valueOf(config.getBurstCapacity()), String.valueOf(leaseSize(config)),
+            String.valueOf(config.getRequestedTokens()), String.valueOf(returned));
+        return rateLimitFallback.guard(redisTemplate.execute(LEASE, List.of(KEY_PREFIX + routeId + ':' + id), args)
+                .reduce(new ArrayList<Long>(), (results, part) -> {
+                    results.addAll(part);
+                    return results;
+                }))
+            .map(results -> {
+                long leased = results.get(0);
+                // A slow route's next token can be hours away: ask again after a lease TTL at the latest,
+                // so a raised limit applies
+                long waitNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(results.get(1)), leaseTtlNanos);
+                bucket.leased(leased, results.get(2), waitNanos, leaseTtlNanos, nanoClock.getAsLong());
+                (leased > 0 ? granted : exhausted).increment();
+                return true;
+            })
+            .onErrorResume(error -> {
+                failed.increment();
+                log.warn("Rate limit lease for route {} failed: {}", routeId, error.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    /**
+     * Tokens per lease: lease-fraction of the burst, or what the route refills
+     * in a lease TTL up to a quarter of the burst, so small bursts still lease
+     * more than one request; never less than one request.
+     */
+    long leaseSize(Config config) {
+        long refilled = (long) Math.min(config.getReplenishRate() * leaseTtlNanos / TimeUnit.SECONDS.toNanos(1),
+            config.getBurstCapacity() / 4.0);
+        return Math.max(config.getRequestedTokens(),
+            Math.max((long) (config.getBurstCapacity() * leaseFraction), refilled));
+    }
+
+    private Response response(boolean allowed, Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return new Response(allowed, headers);
+    }
+
+    /**
+     * Drop the buckets of keys that have not leased for the idle timeout.
+     */
+    private void sweep() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = idleTimeout.toNanos();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        log.debug("Rate limit buckets swept: {} of {} idle", before - buckets.size(), before);
+    }
+
+    /**
+     * Per-route settings, bound from the hybrid-rate-limiter.* arguments of a
+     * RequestRateLimiter filter.
+     */
+    @Data
+    @Validated
+    public static class Config {
+
+        // Tokens per second, may be fractional
+        @Positive
+        private double replenishRate;
+
+        @Min(1)
+        private long burstCapacity = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+
+        static Config of(RedisRateLimiter.Config redisConfig) {
+            Config config = new Config();
+            config.setReplenishRate(redisConfig.getReplenishRate());
+            config.setBurstCapacity(redisConfig.getBurstCapacity());
+            config.setRequestedTokens(redisConfig.getRequestedTokens());
+            return config;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:06:42 am
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * The tokens one node has leased from a key's global bucket in Redis, spent
+ * without locks or Redis calls. A lease is valid for the lease TTL; the tokens
+ * an expired lease did not spend are handed back with the next lease request.
+ *
+ * At most one lease request per key is in flight: concurrent requests that
+ * find the lease empty wait for the same one.
+ */
+final class LeasedTokenBucket {
+
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicReference<Mono<Boolean>> pending = new AtomicReference<>();
+    private volatile long expiresAt;
+    // Set when Redis had no tokens left, until the next one is due
+    private volatile long deniedUntil;
+    // Tokens left in the global bucket after the last lease, for the remaining header
+    private volatile long globalRemaining;
+
+    LeasedTokenBucket(long now) {
+        this.expiresAt = now;
+        this.deniedUntil = now;
+    }
+
+    /**
+     * Take the requested tokens from a valid lease.
+     *
+     * @return the tokens left in the lease, or -1 if none were taken
+     */
+    long tryAcquire(long requested, long now) {
+        if (now - expiresAt >= 0) {
+            return -1;
+        }
+        long current;
+        do {
+            current = tokens.get();
+            if (current < requested) {
+                return -1;
+            }
+        } while (!tokens.compareAndSet(current, current - requested));
+        return current - requested;
+    }
+
+    boolean isDenied(long now) {
+        return now - deniedUntil < 0;
+    }
+
+    /**
+     * The tokens of an expired lease, removed from this node to be returned to Redis.
+     */
+    long drainExpired(long now) {
+        return now - expiresAt >= 0 ? tokens.getAndSet(0) : 0;
+    }
+
+    /**
+     * Record a lease answer. The expiry is extended before the tokens are
+     * added, so a request never spends new tokens under the old expiry.
+     */
+    void leased(long granted, long remaining, long waitNanos, long ttlNanos, long now) {
+        if (granted > 0) {
+            expiresAt = now + ttlNanos;
+            tokens.addAndGet(granted);
+        } else {
+            deniedUntil = now + waitNanos;
+        }
+        globalRemaining = remaining;
+    }
+
+    /**
+     * Join the lease request in flight, or start one, when subscribed.
+     *
+     * The request is cleared before its answer is delivered, so a caller that
+     * finds the lease empty again starts a new request instead of rejoining
+     * the finished one.
+     *
+     * @return true once Redis answered, false if it could not be reached
+     */
+    Mono<Boolean> lease(Supplier<Mono<Boolean>> request) {
+        return Mono.defer(() -> {
+            while (true) {
+                Mono<Boolean> current = pending.get();
+                if (current != null) {
+                    return current;
+                }
+                Sinks.One<Boolean> answer = Sinks.one();
+                Mono<Boolean> started = answer.asMono();
+                if (pending.compareAndSet(null, started)) {
+                    Mono.defer(request).subscribe(
+                        value -> {
+                            pending.compareAndSet(started, null);
+                            answer.tryEmitValue(value);
+                        },
+                        error -> {
+                            pending.compareAndSet(started, null);
+                            answer.tryEmitError(error);
+                        },
+                        () -> {
+                            if (pending.compareAndSet(started, null)) {
+                                answer.tryEmitEmpty();
+                            }
+                        });
+                    return started;
+                }
+            }
+        });
+    }
+
+    long remaining() {
+        return tokens.get() + globalRemaining;
+    }
+
+    boolean isIdle(long now, long idleNanos) {
+        return now - expiresAt > idleNanos && now - deniedUntil > 0 && pending.get() == null;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 2:05:33 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-process token buckets per key, for when Redis cannot be reached. The
+ * keys are spread over a fixed number of stripes, each with its own lock
+ * and map, so requests only contend with the keys of their stripe.
+ */
+final class LocalStripedLimiter {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    LocalStripedLimiter(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param permitsPerSecond refill rate, may be fractional
+     * @param capacity bucket size, a new key starts full
+     * @return the tokens left after taking requested, or -1 if there were not enough
+     */
+    long tryAcquire(String key, double permitsPerSecond, double capacity, long requested, long now) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.refill(permitsPerSecond, capacity, now);
+            if (bucket.tokens < requested) {
+                return -1;
+            }
+            bucket.tokens -= requested;
+            return (long) bucket.tokens;
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely; a new bucket starts full,
+     * so this loses nothing.
+     */
+    void sweep(long now) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.buckets.values().removeIf(bucket -> bucket.isFull(now));
+            }
+        }
+    }
+
+    void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.buckets.clear();
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+
+        private final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long last;
+        // Settings of the last acquire, to tell when the bucket is full again
+        private double permitsPerSecond;
+        private double capacity;
+
+        private Bucket(double capacity, long now) {
+            this.tokens = capacity;
+            this.last = now;
+        }
+
+        private void refill(double permitsPerSecond, double capacity, long now) {
+            tokens = Math.min(capacity, tokens + Math.max(0, now - last) * permitsPerSecond / 1e9);
+            last = now;
+            this.permitsPerSecond = permitsPerSecond;
+            this.capacity = capacity;
+        }
+
+        private boolean isFull(long now) {
+            return tokens + Math.max(0, now - last) * permitsPerSecond / 1e9 >= capacity;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:41:18 am
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Rate limit algorithm of a route, from the rate_limit_algorithm column.
+ */
+public enum RateLimitAlgorithm {
+
+    // Node-local leases of a Redis token bucket, see HybridRateLimiter
+    TOKEN_BUCKET("token_bucket"),
+    // Counter per period-aligned window; allows up to twice the limit around a window edge
+    FIXED_WINDOW("fixed_window"),
+    // Current window count plus the overlapping share of the previous one
+    SLIDING_WINDOW("sliding_window"),
+    // Generic cell rate algorithm: requests spaced period / permits apart, up to burst of them early
+    GCRA("gcra");
+
+    private final String value;
+
+    RateLimitAlgorithm(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Column value, also passed to the rate limit script.
+     */
+    public String value() {
+        return value;
+    }
+
+    /**
+     * @return TOKEN_BUCKET when empty
+     * @throws IllegalArgumentException for an unknown algorithm
+     */
+    public static RateLimitAlgorithm of(String value) {
+        if (!StringUtils.hasText(value)) {
+            return TOKEN_BUCKET;
+        }
+        for (RateLimitAlgorithm algorithm : values()) {
+            if (algorithm.value.equalsIgnoreCase(value.trim())) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rate limit algorithm '" + value + "'");
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 12:21:05 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Coalesces rate limit checks into multi-key script calls: the checks
+ * submitted within a tick of the first waiting one, or as soon as max-size
+ * are waiting, are sent as one call, and each caller gets its slice of the
+ * results. One Redis command per batch instead of one per request, for at
+ * most one tick of added latency.
+ *
+ * The script gets every key of a batch, so on Redis Cluster the keys would
+ * have to share a hash slot; do not batch there.
+ */
+public final class RateLimitBatcher implements Disposable {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final int resultsPerKey;
+    private final long tickNanos;
+    private final int maxSize;
+    private final DistributionSummary batchSizes;
+
+    // Single consumer: the queue is only drained on the batch scheduler
+    private final Scheduler scheduler = Schedulers.newSingle("ratelimit-batch");
+    private final Queue<Pending> queue = Queues.<Pending>unboundedMultiproducer().get();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * @param script a script that takes the same number of arguments per key,
+     *        in key order, and returns resultsPerKey values per key
+     */
+    public RateLimitBatcher(ReactiveRedisTemplate<String, String> redisTemplate, RedisScript<List<Long>> script,
+            int resultsPerKey, Duration tick, int maxSize, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.script = script;
+        this.resultsPerKey = resultsPerKey;
+        this.tickNanos = tick.toNanos();
+        this.maxSize = Math.max(1, maxSize);
+        this.batchSizes = DistributionSummary.builder("gateway.ratelimit.batch.size")
+            .description("Rate limit checks sent to Redis per script call")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue a check for the next batch.
+     *
+     * @return the script's results for this key
+     */
+    public Mono<List<Long>> submit(String key, List<String> args) {
+        return Mono.create(sink -> {
+            // Counted before it is queued, so a flush never takes a check it has not counted
+            int count = waiting.incrementAndGet();
+            queue.offer(new Pending(key, args, sink));
+            if (count % maxSize == 0) {
+                scheduler.schedule(this::flush);
+            } else if (count == 1) {
+                scheduler.schedule(this::flush, tickNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private void flush() {
+        List<Pending> batch = new ArrayList<>(maxSize);
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            waiting.decrementAndGet();
+            batch.add(pending);
+            if (batch.size() == maxSize) {
+                send(batch);
+                batch = new ArrayList<>(maxSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+        // Checks counted while this flush ran may not have been queued in time
+        if (waiting.get() > 0) {
+            scheduler.schedule(this::flush, tickNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        List<String> args = new ArrayList<>(batch.size() * batch.get(0).args().size());
+        for (Pending pending : batch) {
+            keys.add(pending.key());
+            args.addAll(pending.args());
+        }
+        batchSizes.record(batch.size());
+        redisTemplate.execute(script, keys, args)
+            .reduce(new ArrayList<Long>(), (results, part) -> {
+                results.addAll(part);
+                return results;
+            })
+            .subscribe(results -> {
+                if (results.size() != batch.size() * resultsPerKey) {
+                    IllegalStateException error = new IllegalStateException("Rate limit script returned "
+                        + results.size() + " values for " + batch.size() + " keys");
+                    batch.forEach(pending -> pending.sink().error(error));
+                    return;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).sink().success(results.subList(i * resultsPerKey, (i + 1) * resultsPerKey));
+                }
+            }, error -> batch.forEach(pending -> pending.sink().error(error)));
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return scheduler.isDisposed();
+    }
+
+    private record Pending(String key, List<String> args, MonoSink<List<Long>> sink) {
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 2:21:08 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.dto.RateLimitModeChange;
+import com.nopaper.work.gateway.routing.RouteClusterSync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Degraded mode for rate limits while Redis is down or slow.
+ *
+ * Rate limiters send their Redis calls through {@link #guard(Mono)}, which
+ * applies the redis-timeout. After failure-threshold consecutive failures
+ * rate limiting switches to a {@link LocalStripedLimiter}, where every node
+ * enforces its share of each global limit: the limit divided by the live
+ * gateway nodes in the route sync node registry, as last read while Redis was
+ * healthy. Without route sync the node count is unknown and every node
+ * enforces the full limit.
+ *
+ * While degraded the limiters do not call Redis. A background probe does,
+ * backing off from probe-initial-backoff to probe-max-backoff while it fails,
+ * and after recovery-probes successes in a row rate limiting switches back.
+ * Every switch is published as a {@link RateLimitModeChange} event and counted
+ * in gateway.ratelimit.mode.transitions.
+ *
+ * With gateway.rate-limiter.fallback.enabled=false requests are allowed while
+ * Redis fails, as before.
+ */
+@Slf4j
+@Component
+public class RateLimitFallback {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final Duration redisTimeout;
+    private final Duration probeInitialBackoff;
+    private final Duration probeMaxBackoff;
+    private final int recoveryProbes;
+    private final Duration nodesRefresh;
+    private final long nodeExpiryMillis;
+
+    private final LocalStripedLimiter local;
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int nodes = 1;
+    // Only touched by the probe, one attempt at a time
+    private int probeSuccesses;
+
+    private final Counter toLocal;
+    private final Counter toRedis;
+
+    private Disposable refresher;
+    private volatile Disposable probe;
+
+    public RateLimitFallback(@Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limiter.fallback.enabled:true}") boolean enabled,
+            @Value("${gateway.rate-limiter.fallback.failure-threshold:3}") int failureThreshold,
+            @Value("${gateway.rate-limiter.fallback.redis-timeout:250ms}") Duration redisTimeout,
+            @Value("${gateway.rate-limiter.fallback.probe-initial-backoff:1s}") Duration probeInitialBackoff,
+            @Value("${gateway.rate-limiter.fallback.probe-max-backoff:30s}") Duration probeMaxBackoff,
+            @Value("${gateway.rate-limiter.fallback.recovery-probes:3}") int recoveryProbes,
+            @Value("${gateway.rate-limiter.fallback.stripes:64}") int stripes,
+            @Value("${gateway.rate-limiter.fallback.nodes-refresh:30s}") Duration nodesRefresh,
+            @Value("${gateway.routes.sync.heartbeat-interval:10s}") Duration heartbeatInterval) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.redisTimeout = redisTimeout;
+        this.probeInitialBackoff = probeInitialBackoff;
+        this.probeMaxBackoff = probeMaxBackoff;
+        this.recoveryProbes = Math.max(1, recoveryProbes);
+        this.nodesRefresh = nodesRefresh;
+        // Same expiry as the node registry itself
+        this.nodeExpiryMillis = heartbeatInterval.multipliedBy(3).toMillis();
+        this.local = new LocalStripedLimiter(stripes);
+        this.toLocal = Counter.builder("gateway.ratelimit.mode.transitions")
+            .tag("mode", "local")
+            .description("Switches between Redis and local rate limiting, by the mode switched to")
+            .register(meterRegistry);
+        this.toRedis = Counter.builder("gateway.ratelimit.mode.transitions")
+            .tag("mode", "redis")
+            .description("Switches between Redis and local rate limiting, by the mode switched to")
+            .register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.degraded", degraded, state -> state.get() ? 1 : 0)
+            .description("1 while rate limits are enforced locally because Redis is unavailable")
+            .register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.nodes", this, fallback -> fallback.nodes)
+            .description("Gateway nodes the global rate limits are divided by in degraded mode")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refresher = Flux.interval(Duration.ZERO, nodesRefresh)
+            .onBackpressureDrop()
+            .concatMap(tick -> refresh(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+        Disposable current = probe;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDegraded() {
+        return degraded.get();
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Apply the Redis timeout to a rate limit call and track its outcome.
+     */
+    public <T> Mono<T> guard(Mono<T> call) {
+        return call.timeout(redisTimeout)
+            .doOnSuccess(value -> {
+                // Plain read first, the common case needs no write
+                if (failures.get() != 0) {
+                    failures.set(0);
+                }
+            })
+            .doOnError(this::failed);
+    }
+
+    /**
+     * Take tokens from this node's share of a global limit.
+     *
+     * @param permitsPerSecond the global rate
+     * @param burst the global burst
+     * @return the tokens left, or -1 if the request is over the limit
+     */
+    public long tryAcquire(String key, double permitsPerSecond, long burst, long requested) {
+        int share = nodes;
+        return local.tryAcquire(key, permitsPerSecond / share, Math.max(requested, (double) burst / share),
+            requested, System.nanoTime());
+    }
+
+    private void failed(Throwable error) {
+        if (enabled && failures.incrementAndGet() >= failureThreshold && degraded.compareAndSet(false, true)) {
+            String reason = error instanceof TimeoutException
+                ? "Redis did not answer within " + redisTimeout
+                : "Redis failed: " + error.getMessage();
+            log.warn("Rate limits switched to local enforcement, 1/{} of each limit per node. {}", nodes, reason);
+            transition(true, reason);
+            probeSuccesses = 0;
+            scheduleProbe(probeInitialBackoff, probeInitialBackoff);
+        }
+    }
+
+    /**
+     * @param backoff the backoff the delay was derived from, without jitter
+     */
+    private void scheduleProbe(Duration backoff, Duration delay) {
+        probe = Mono.delay(delay)
+            .then(liveNodes().timeout(redisTimeout))
+            .subscribe(count -> probeSucceeded(count), error -> probeFailed(backoff, error));
+    }
+
+    private void probeSucceeded(long count) {
+        nodes = (int) Math.max(1, count);
+        if (++probeSuccesses < recoveryProbes) {
+            scheduleProbe(probeInitialBackoff, probeInitialBackoff);
+            return;
+        }
+        failures.set(0);
+        local.clear();
+        degraded.set(false);
+        log.info("Rate limits switched back to Redis after {} successful probes", probeSuccesses);
+        transition(false, "Redis answered " + probeSuccesses + " probes");
+    }
+
+    private void probeFailed(Duration backoff, Throwable error) {
+        probeSuccesses = 0;
+        Duration next = backoff.multipliedBy(2);
+        if (next.compareTo(probeMaxBackoff) > 0) {
+            next = probeMaxBackoff;
+        }
+        // Jitter, so the nodes do not all probe a recovering Redis at once; not compounded into the backoff
+        Duration delay = next.plusMillis(ThreadLocalRandom.current().nextLong(next.toMillis() / 10 + 1));
+        log.debug("Redis probe failed, next in {}: {}", delay, error.getMessage());
+        scheduleProbe(next, delay);
+    }
+
+    private void transition(boolean toDegraded, String reason) {
+        (toDegraded ? toLocal : toRedis).increment();
+        eventPublisher.publishEvent(new RateLimitModeChange(toDegraded, nodes, reason));
+    }
+
+    /**
+     * Keep the node count current while Redis is healthy, and drop refilled
+     * local buckets while degraded.
+     */
+    private Mono<Void> refresh() {
+        if (degraded.get()) {
+            local.sweep(System.nanoTime());
+            return Mono.empty();
+        }
+        return liveNodes()
+            .timeout(redisTimeout)
+            .doOnNext(count -> nodes = (int) Math.max(1, count))
+            .then()
+            .onErrorResume(error -> {
+                log.debug("Could not count gateway nodes: {}", error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Long> liveNodes() {
+        double since = System.currentTimeMillis() - nodeExpiryMillis;
+        return redisTemplate.opsForZSet()
+            .count(RouteClusterSync.NODES_KEY, Range.rightUnbounded(Range.Bound.inclusive(since)));
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 12:58:40 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.util.Locale;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+/**
+ * A route's rate limit over its declared period.
+ *
+ * Routes set rate_limit_rate requests per rate_limit_unit (second, minute,
+ * hour or day), fractional rates included, and optionally rate_limit_burst;
+ * older routes set rate_limit_requests per rate_limit_period_seconds. Either
+ * way the rate is kept exactly, as a whole number of permits per period in
+ * milliseconds: 2.5 per minute becomes 3 per 72 seconds, 0.5 per second 1 per
+ * 2 seconds. The window algorithms count permits per period, the token bucket
+ * refills at permits / period and GCRA spaces requests period / permits apart.
+ *
+ * @param permits requests per period, at least 1
+ * @param periodMillis the period
+ * @param burst requests allowed at once (token bucket and GCRA), at least 1
+ * @param algorithm how the limit is enforced
+ */
+public record RateLimitSpec(long permits, long periodMillis, long burst, RateLimitAlgorithm algorithm) {
+
+    public RateLimitSpec {
+        if (permits < 1 || periodMillis < 1 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit of " + permits + " per " + periodMillis
+                + " ms with burst " + burst + " is not positive");
+        }
+    }
+
+    public double permitsPerSecond() {
+        return permits * 1000.0 / periodMillis;
+    }
+
+    /**
+     * @return null if the route has no rate limit
+     * @throws IllegalArgumentException for an unknown unit
+     */
+    public static RateLimitSpec of(CustomRouteDefinitionDTO route, RateLimitAlgorithm algorithm) {
+        if (route.getRateLimitRate() != null && route.getRateLimitRate() > 0 && route.getRateLimitUnit() != null) {
+            return of(route.getRateLimitRate(), unitMillis(route.getRateLimitUnit()), route.getRateLimitBurst(),
+                algorithm);
+        }
+        if (route.getRateLimitRequests() != null && route.getRateLimitRequests() > 0
+                && route.getRateLimitPeriodSeconds() != null && route.getRateLimitPeriodSeconds() > 0) {
+            return of(route.getRateLimitRequests(), route.getRateLimitPeriodSeconds() * 1000L,
+                route.getRateLimitBurst(), algorithm);
+        }
+        return null;
+    }
+
+    /**
+     * @param rate requests per unit, may be fractional
+     * @param burst null for one period's permits
+     */
+    static RateLimitSpec of(double rate, long unitMillis, Integer burst, RateLimitAlgorithm algorithm) {
+        long permits = Math.max(1, Math.round(rate));
+        long periodMillis = Math.max(1, Math.round(unitMillis * permits / rate));
+        return new RateLimitSpec(permits, periodMillis, burst != null && burst > 0 ? burst : permits, algorithm);
+    }
+
+    static long unitMillis(String unit) {
+        return switch (unit.trim().toLowerCase(Locale.ROOT)) {
+            case "second" -> 1_000L;
+            case "minute" -> 60_000L;
+            case "hour" -> 3_600_000L;
+            case "day" -> 86_400_000L;
+            default -> throw new IllegalArgumentException("Unknown rate limit unit '" + unit + "'");
+        };
+    }
+}
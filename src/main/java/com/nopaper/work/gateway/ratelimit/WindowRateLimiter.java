@@ -0,0 +1,102 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 11:58:36 am
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import com.nopaper.work.gateway.dto.RateLimitDecision;
+import com.nopaper.work.gateway.service.RateLimitService;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate limiter for routes with a fixed_window, sliding_window or gcra
+ * algorithm: one {@link RateLimitService} script call per request.
+ *
+ * The decision is published as X-RateLimit-Limit, X-RateLimit-Remaining and
+ * X-RateLimit-Reset (seconds until the full quota is back) response headers,
+ * plus Retry-After on rejected requests.
+ */
+@Component(WindowRateLimiter.BEAN_NAME)
+public class WindowRateLimiter extends AbstractRateLimiter<WindowRateLimiter.Config> {
+
+    public static final String BEAN_NAME = "windowRateLimiter";
+    public static final String CONFIGURATION_PROPERTY_NAME = "window-rate-limiter";
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final RateLimitService rateLimitService;
+
+    public WindowRateLimiter(RateLimitService rateLimitService, ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS));
+        if (config == null) {
+            throw new IllegalArgumentException("No rate limiter configuration found for route " + routeId);
+        }
+        RateLimitSpec spec = new RateLimitSpec(config.getPermits(), config.getPeriodMillis(), config.getBurst(),
+            config.getAlgorithm());
+        return rateLimitService.check(routeId + ':' + id, spec, config.getRequestedTokens())
+            .map(decision -> new Response(decision.allowed(), headers(decision)));
+    }
+
+    private static Map<String, String> headers(RateLimitDecision decision) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(LIMIT_HEADER, String.valueOf(decision.limit()));
+        headers.put(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        headers.put(RESET_HEADER, String.valueOf(toSeconds(decision.resetAfterMillis())));
+        if (!decision.allowed()) {
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, toSeconds(decision.retryAfterMillis()))));
+        }
+        return headers;
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+
+    /**
+     * Per-route settings, bound from the window-rate-limiter.* arguments of a
+     * RequestRateLimiter filter.
+     */
+    @Data
+    @Validated
+    public static class Config {
+
+        @NotNull
+        private RateLimitAlgorithm algorithm;
+
+        @Min(1)
+        private long permits;
+
+        @Min(1)
+        private long periodMillis;
+
+        @Min(1)
+        private long burst = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * @package com.nopaper.work.gateway.repositories -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:13:55 am
+ * @git 
+ */
+package com.nopaper.work.gateway.repositories;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.nopaper.work.gateway.models.GatewayRouteUpstream;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive repository for route upstream endpoints.
+ */
+public interface GatewayRouteUpstreamRepository extends ReactiveCrudRepository<GatewayRouteUpstream, Long> {
+
+    /**
+     * Find all enabled upstreams, in a stable order so route content hashes
+     * do not change between loads.
+     */
+    Flux<GatewayRouteUpstream> findByEnabledTrueOrderByIdAsc();
+}
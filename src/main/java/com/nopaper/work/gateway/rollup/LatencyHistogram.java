@@ -0,0 +1,123 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:33:12 am
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (HdrHistogram style).
+ *
+ * Values below 64 ms are counted exactly; above that every power of two is
+ * split into 32 sub-buckets, i.e. about 3% relative error, up to ~4.6 hours.
+ * Counts go to one shared array (5 KB). Like LongAdder, a thread whose update
+ * of it is contended gets a stripe of its own, by thread, so concurrent
+ * requests on a busy route rarely update the same cache line; quiet routes
+ * never allocate stripes.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 24;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    public static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private static final int STRIPES =
+        Integer.highestOneBit(Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+
+    private final AtomicLongArray base = new AtomicLongArray(BUCKETS);
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    public void record(long valueMs) {
+        int bucket = bucketOf(valueMs);
+        int index = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe != null) {
+            stripe.incrementAndGet(bucket);
+            return;
+        }
+        long count = base.get(bucket);
+        if (base.compareAndSet(bucket, count, count + 1)) {
+            return;
+        }
+        // Contended: move this thread's stripe off the shared array
+        stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+        stripes.get(index).incrementAndGet(bucket);
+    }
+
+    /**
+     * Add the counts of the shared array and all stripes into the target array.
+     */
+    public void addTo(long[] counts) {
+        addTo(base, counts);
+        for (int i = 0; i < STRIPES; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                addTo(stripe, counts);
+            }
+        }
+    }
+
+    private static void addTo(AtomicLongArray source, long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += source.get(i);
+        }
+    }
+
+    int stripesAllocated() {
+        int allocated = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            if (stripes.get(i) != null) {
+                allocated++;
+            }
+        }
+        return allocated;
+    }
+
+    static int bucketOf(long valueMs) {
+        long value = Math.max(0, Math.min(valueMs, MAX_VALUE));
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Highest value that falls into the bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Value at the given quantile (0.0 - 1.0) of merged bucket counts, or 0 if empty.
+     */
+    public static long valueAtQuantile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:41:55 am
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import java.util.Map;
+
+/**
+ * Aggregated traffic of one route over one or more minutes.
+ *
+ * @param requests number of completed requests
+ * @param statusClasses requests per status class (1xx - 5xx)
+ * @param errorRate share of 5xx responses and failed requests
+ * @param meanMs mean latency
+ * @param p50Ms median latency
+ * @param p90Ms 90th percentile latency
+ * @param p95Ms 95th percentile latency
+ * @param p99Ms 99th percentile latency
+ * @param maxMs highest latency seen
+ */
+public record RouteRollup(
+        long requests,
+        Map<String, Long> statusClasses,
+        double errorRate,
+        double meanMs,
+        long p50Ms,
+        long p90Ms,
+        long p95Ms,
+        long p99Ms,
+        long maxMs) {
+}
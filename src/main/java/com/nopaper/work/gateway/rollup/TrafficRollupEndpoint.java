@@ -0,0 +1,53 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:58:37 am
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint with live per-route traffic rollups.
+ *
+ * - GET /actuator/traffic?minutes=5 : all routes
+ * - GET /actuator/traffic/{routeId}?minutes=5 : one route
+ *
+ * minutes defaults to 1 (the last completed minute).
+ */
+@Component
+@Endpoint(id = "traffic")
+@RequiredArgsConstructor
+public class TrafficRollupEndpoint {
+
+    private final TrafficRollupEngine rollupEngine;
+
+    @ReadOperation
+    public Map<String, Object> traffic(@Nullable Integer minutes) {
+        int window = window(minutes);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("minutes", window);
+        result.put("routes", rollupEngine.rollups(window));
+        return result;
+    }
+
+    @ReadOperation
+    public RouteRollup route(@Selector String routeId, @Nullable Integer minutes) {
+        // A null result is rendered as 404 by the actuator
+        return rollupEngine.rollup(routeId, window(minutes)).orElse(null);
+    }
+
+    private int window(Integer minutes) {
+        return minutes == null ? 1 : Math.max(1, Math.min(minutes, rollupEngine.maxMinutes()));
+    }
+}
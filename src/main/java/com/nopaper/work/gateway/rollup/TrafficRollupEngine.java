@@ -0,0 +1,233 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:46:20 am
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+
+/**
+ * Per-route request counters and latency histograms in rolling 1-minute
+ * windows, fed by the audit filter for every request (before sampling).
+ *
+ * Windows live in a ring indexed by epoch minute; a window is replaced by
+ * compare-and-set when its slot comes round again, so recording never takes
+ * a lock. Readers aggregate the last N completed minutes.
+ */
+@Component
+public class TrafficRollupEngine {
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final boolean enabled;
+    private final int windows;
+    private final AtomicReferenceArray<Window> ring;
+
+    public TrafficRollupEngine(AuditProperties auditProperties) {
+        AuditProperties.Rollup settings = auditProperties.getRollup();
+        this.enabled = settings.isEnabled();
+        this.windows = Math.max(1, settings.getWindows());
+        // Current minute plus a spare slot, so a completed minute is never
+        // overwritten while it is still being read or flushed
+        this.ring = new AtomicReferenceArray<>(windows + 2);
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param status response status, failed requests are passed as 500
+     */
+    public void record(String routeId, Integer status, long latencyMs) {
+        if (!enabled || routeId == null) {
+            return;
+        }
+        Window window = window(currentMinute());
+        if (window != null) {
+            window.routes.computeIfAbsent(routeId, id -> new RouteCells()).record(status, latencyMs);
+        }
+    }
+
+    /**
+     * Rollups of all routes over the last completed minutes.
+     */
+    public Map<String, RouteRollup> rollups(int minutes) {
+        Map<String, Accumulator> accumulators = new HashMap<>();
+        for (Window window : completedWindows(minutes)) {
+            window.routes.forEach((routeId, cells) ->
+                cells.addTo(accumulators.computeIfAbsent(routeId, id -> new Accumulator())));
+        }
+        Map<String, RouteRollup> rollups = new LinkedHashMap<>();
+        accumulators.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> rollups.put(entry.getKey(), entry.getValue().toRollup()));
+        return rollups;
+    }
+
+    /**
+     * Rollup of one route over the last completed minutes, empty if it had no traffic.
+     */
+    public Optional<RouteRollup> rollup(String routeId, int minutes) {
+        Accumulator accumulator = new Accumulator();
+        for (Window window : completedWindows(minutes)) {
+            RouteCells cells = window.routes.get(routeId);
+            if (cells != null) {
+                cells.addTo(accumulator);
+            }
+        }
+        return accumulator.requests == 0 ? Optional.empty() : Optional.of(accumulator.toRollup());
+    }
+
+    public int maxMinutes() {
+        return windows;
+    }
+
+    /**
+     * Completed minutes that have not been flushed yet, oldest first.
+     */
+    List<Window> unflushedWindows() {
+        List<Window> pending = new ArrayList<>();
+        for (Window window : completedWindows(windows)) {
+            if (!window.flushed.get()) {
+                pending.add(0, window);
+            }
+        }
+        return pending;
+    }
+
+    static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    /**
+     * Windows of the last completed minutes, newest first.
+     */
+    private List<Window> completedWindows(int minutes) {
+        long current = currentMinute();
+        int count = Math.max(1, Math.min(minutes, windows));
+        List<Window> result = new ArrayList<>(count);
+        for (long minute = current - 1; minute >= current - count; minute--) {
+            Window window = ring.get(slot(minute));
+            if (window != null && window.minute == minute) {
+                result.add(window);
+            }
+        }
+        return result;
+    }
+
+    private Window window(long minute) {
+        int slot = slot(minute);
+        Window current = ring.get(slot);
+        while (current == null || current.minute < minute) {
+            Window fresh = new Window(minute);
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+            current = ring.get(slot);
+        }
+        // A request that completed right before its minute was recycled is dropped
+        return current.minute == minute ? current : null;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) ring.length());
+    }
+
+    static final class Window {
+
+        final long minute;
+        final Map<String, RouteCells> routes = new ConcurrentHashMap<>();
+        final AtomicBoolean flushed = new AtomicBoolean();
+
+        Window(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    static final class RouteCells {
+
+        // index 0: no status, 1 - 5: status class
+        private final LongAdder[] statuses = new LongAdder[6];
+        private final LongAdder latencySum = new LongAdder();
+        private final LongAccumulator latencyMax = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        RouteCells() {
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+
+        void record(Integer status, long latencyMs) {
+            int statusClass = status == null ? 0 : Math.max(1, Math.min(5, status / 100));
+            statuses[statusClass].increment();
+            latencySum.add(latencyMs);
+            latencyMax.accumulate(latencyMs);
+            histogram.record(latencyMs);
+        }
+
+        void addTo(Accumulator accumulator) {
+            for (int i = 0; i < statuses.length; i++) {
+                long count = statuses[i].sum();
+                accumulator.statuses[i] += count;
+                accumulator.requests += count;
+            }
+            accumulator.latencySum += latencySum.sum();
+            accumulator.latencyMax = Math.max(accumulator.latencyMax, latencyMax.get());
+            histogram.addTo(accumulator.buckets);
+        }
+
+        RouteRollup toRollup() {
+            Accumulator accumulator = new Accumulator();
+            addTo(accumulator);
+            return accumulator.toRollup();
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final long[] statuses = new long[6];
+        private final long[] buckets = new long[LatencyHistogram.BUCKETS];
+        private long requests;
+        private long latencySum;
+        private long latencyMax;
+
+        RouteRollup toRollup() {
+            Map<String, Long> statusClasses = new LinkedHashMap<>();
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                statusClasses.put(STATUS_CLASSES[i], statuses[i + 1]);
+            }
+            // Histogram counts are read after the status counters and may be a few requests ahead
+            long recorded = 0;
+            for (long count : buckets) {
+                recorded += count;
+            }
+            return new RouteRollup(
+                requests,
+                statusClasses,
+                requests == 0 ? 0.0 : (double) statuses[5] / requests,
+                requests == 0 ? 0.0 : (double) latencySum / requests,
+                LatencyHistogram.valueAtQuantile(buckets, recorded, 0.50),
+                LatencyHistogram.valueAtQuantile(buckets, recorded, 0.90),
+                LatencyHistogram.valueAtQuantile(buckets, recorded, 0.95),
+                LatencyHistogram.valueAtQuantile(buckets, recorded, 0.99),
+                latencyMax);
+        }
+    }
+}
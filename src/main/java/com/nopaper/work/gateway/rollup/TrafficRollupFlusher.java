@@ -0,0 +1,133 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 5:04:09 am
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Optionally writes one compact row per route and completed minute to
+ * request_audit_rollup (gateway.audit.rollup.flush-enabled), so dashboards
+ * can query minute aggregates instead of scanning request_audit_log.
+ *
+ * Every node only sees its own traffic, so rows are keyed by node as well:
+ * the cluster's traffic for a minute is the sum over its nodes' rows. The
+ * node id also makes a retried flush idempotent.
+ */
+@Slf4j
+@Component
+public class TrafficRollupFlusher {
+
+    private static final String INSERT = "INSERT INTO way.request_audit_rollup (bucket_start, route_id, node_id, "
+        + "request_count, status_1xx, status_2xx, status_3xx, status_4xx, status_5xx, "
+        + "latency_mean_ms, latency_p50_ms, latency_p90_ms, latency_p95_ms, latency_p99_ms, latency_max_ms) "
+        + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14, $15) "
+        + "ON CONFLICT (bucket_start, route_id, node_id) DO NOTHING";
+
+    private final TrafficRollupEngine rollupEngine;
+    private final DatabaseClient databaseClient;
+    private final AuditProperties.Rollup settings;
+    private final String nodeId;
+
+    private volatile Disposable schedule;
+
+    public TrafficRollupFlusher(TrafficRollupEngine rollupEngine, DatabaseClient databaseClient,
+            AuditProperties auditProperties) {
+        this.rollupEngine = rollupEngine;
+        this.databaseClient = databaseClient;
+        this.settings = auditProperties.getRollup();
+        this.nodeId = StringUtils.hasText(settings.getNodeId()) ? settings.getNodeId() : defaultNodeId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!settings.isEnabled() || !settings.isFlushEnabled()) {
+            return;
+        }
+        schedule = Flux.interval(settings.getFlushInterval())
+            .onBackpressureDrop()
+            .concatMap(tick -> flush(), 1)
+            .subscribe();
+        log.info("Traffic rollup flush started as node '{}' (every {})", nodeId, settings.getFlushInterval());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    private Mono<Void> flush() {
+        return Flux.fromIterable(rollupEngine.unflushedWindows())
+            .filter(window -> window.flushed.compareAndSet(false, true))
+            .concatMap(window -> Flux.fromIterable(window.routes.entrySet())
+                .concatMap(route -> insert(window.minute, route))
+                .then()
+                .onErrorResume(error -> {
+                    // Rows this node already wrote are skipped by ON CONFLICT on the next attempt
+                    window.flushed.set(false);
+                    log.warn("Failed to flush traffic rollup for minute {}: {}", window.minute, error.getMessage());
+                    return Mono.empty();
+                }))
+            .then();
+    }
+
+    private Mono<Long> insert(long minute, Map.Entry<String, TrafficRollupEngine.RouteCells> route) {
+        RouteRollup rollup = route.getValue().toRollup();
+        LocalDateTime bucketStart = LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), ZoneId.systemDefault());
+        return databaseClient.sql(INSERT)
+            .bind(0, bucketStart)
+            .bind(1, route.getKey())
+            .bind(2, nodeId)
+            .bind(3, rollup.requests())
+            .bind(4, rollup.statusClasses().get("1xx"))
+            .bind(5, rollup.statusClasses().get("2xx"))
+            .bind(6, rollup.statusClasses().get("3xx"))
+            .bind(7, rollup.statusClasses().get("4xx"))
+            .bind(8, rollup.statusClasses().get("5xx"))
+            .bind(9, rollup.meanMs())
+            .bind(10, rollup.p50Ms())
+            .bind(11, rollup.p90Ms())
+            .bind(12, rollup.p95Ms())
+            .bind(13, rollup.p99Ms())
+            .bind(14, rollup.maxMs())
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Host name plus process id: stable for the life of the process, distinct
+     * for gateways sharing a host.
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "gateway";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:31:40 am
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.rollup;
\ No newline at end of file
@@ -8,82 +8,120 @@ package com.nopaper.work.gateway.routing;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function; // Import Function
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
-import com.nopaper.work.gateway.dto.RouteDefinitionDTO;
+import com.nopaper.work.gateway.constants.GatewayConstant;
+import com.nopaper.work.gateway.dto.CustomFilterDTO;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.ratelimit.HybridRateLimiter;
+import com.nopaper.work.gateway.ratelimit.RateLimitAlgorithm;
+import com.nopaper.work.gateway.ratelimit.RateLimitSpec;
+import com.nopaper.work.gateway.ratelimit.WindowRateLimiter;
 import com.nopaper.work.gateway.service.RouteService;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
-/**
- * Custom RouteDefinitionLocator that loads routes dynamically from PostgreSQL.
- * Routes are cached in the service layer using Redis for high performance.
- * 
- * This implements Azure API Gateway's dynamic routing capabilities where routes
- * can be modified without restarting the gateway.
- */
-
 /**
  * Custom RouteDefinitionLocator that loads routes dynamically.
- * Routes are loaded from the RouteService, which implements a "Redis-First"
- * caching strategy.
+ * Routes are served from the RouteService's in-memory snapshot, which is
+ * reloaded on NOTIFY from gateway_routes (see RouteChangeListener).
+ * Predicate and filter names from the JSONB columns are checked against the
+ * registered factories: the gateway fails the whole refresh on an unknown one.
  */
-
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DatabaseRouteDefinitionLocator implements RouteDefinitionLocator {
     
     private final RouteService routeService;
+    private final Set<String> predicateNames;
+    private final Set<String> filterNames;
+    
+    public DatabaseRouteDefinitionLocator(RouteService routeService,
+            List<RoutePredicateFactory<?>> predicateFactories, List<GatewayFilterFactory<?>> filterFactories) {
+        this.routeService = routeService;
+        this.predicateNames = predicateFactories.stream().map(RoutePredicateFactory::name).collect(Collectors.toSet());
+        this.filterNames = filterFactories.stream().map(GatewayFilterFactory::name).collect(Collectors.toSet());
+    }
     
     /**
      * Load route definitions from database.
      * This method is called by Spring Cloud Gateway to discover routes.
-     * It fetches the routes from the RouteService, which serves from the Redis cache.
+     * It fetches the routes from the RouteService's in-memory snapshot.
+     * A route without any predicate would match all traffic, so it is
+     * logged and left out, as is one naming an unknown predicate or filter.
      * @return Flux of RouteDefinition objects
      */
-    
-    /*
     @Override
     public Flux<RouteDefinition> getRouteDefinitions() {
-        log.info("Loading route definitions from database");
+        log.info("Loading route definitions from route snapshot");
         
         return routeService.getEnabledRoutes()
+            .flatMapIterable(Function.identity()) // Unpack the Mono<List<DTO>> into a Flux<DTO>
+            .filter(this::hasKnownFactories)
             .map(this::convertToRouteDefinition)
+            .filter(route -> {
+                if (route.getPredicates().isEmpty()) {
+                    log.error("Skipping route {}: no path and no predicates, it would match every request",
+                        route.getId());
+                    return false;
+                }
+                return true;
+            })
             .doOnNext(route -> log.debug("Loaded route: {}", route.getId()))
             .doOnComplete(() -> log.info("Finished loading route definitions"))
             .doOnError(error -> log.error("Error loading route definitions", error));
     }
-    */
     
-    @Override
-    public Flux<RouteDefinition> getRouteDefinitions() {
-        log.info("Loading route definitions from service (Redis-First)");
-        
-        return routeService.getEnabledRoutes()
-            .flatMapIterable(Function.identity()) // Unpack the Mono<List<DTO>> into a Flux<DTO>
-            .map(this::convertToRouteDefinition)
-            .doOnNext(route -> log.debug("Loaded route: {}", route.getId()))
-            .doOnComplete(() -> log.info("Finished loading route definitions"))
-            .doOnError(error -> log.error("Error loading route definitions", error));
+    /**
+     * @return false, logging the names, if the route's predicates or filters
+     *         name a factory that is not registered
+     */
+    private boolean hasKnownFactories(CustomRouteDefinitionDTO dto) {
+        List<String> unknownPredicates = unknown(dto.getPredicates(), predicateNames);
+        List<String> unknownFilters = unknown(dto.getFilters(), filterNames);
+        if (unknownPredicates.isEmpty() && unknownFilters.isEmpty()) {
+            return true;
+        }
+        log.error("Skipping route {}: unknown predicates {}, unknown filters {}",
+            dto.getRouteId(), unknownPredicates, unknownFilters);
+        return false;
+    }
+    
+    private static List<String> unknown(List<CustomFilterDTO> definitions, Set<String> names) {
+        if (definitions == null) {
+            return List.of();
+        }
+        return definitions.stream()
+            .map(CustomFilterDTO::getName)
+            .filter(name -> name == null || !names.contains(name))
+            .map(String::valueOf)
+            .toList();
     }
     
     /**
      * Convert DTO to Spring Cloud Gateway RouteDefinition.
-     * Adds predicates (path, method) and filters (rate limiting).
+     * Adds predicates (path, method, then the route's own) and filters (rate
+     * limiting, then the route's own). A route without a rate limit or
+     * filters gets an empty filter chain.
      */
-    private RouteDefinition convertToRouteDefinition(RouteDefinitionDTO dto) {
+    private RouteDefinition convertToRouteDefinition(CustomRouteDefinitionDTO dto) {
         RouteDefinition definition = new RouteDefinition();
         definition.setId(dto.getRouteId());
         definition.setUri(URI.create(dto.getUri()));
@@ -91,58 +129,109 @@ public class DatabaseRouteDefinitionLocator implements RouteDefinitionLocator {
         // Build predicates
         List<PredicateDefinition> predicates = new ArrayList<>();
         
-        // Path predicate (required)
-        PredicateDefinition pathPredicate = new PredicateDefinition();
-        pathPredicate.setName("Path");
-        pathPredicate.addArg("pattern", dto.getPath());
-        predicates.add(pathPredicate);
+        // Path predicate
+        if (StringUtils.hasText(dto.getPath())) {
+            PredicateDefinition pathPredicate = new PredicateDefinition();
+            pathPredicate.setName("Path");
+            pathPredicate.addArg("pattern", dto.getPath());
+            predicates.add(pathPredicate);
+        }
         
         // Method predicate (optional)
-        if (dto.getMethod() != null && !dto.getMethod().isEmpty()) {
+        if (StringUtils.hasText(dto.getMethod())) {
             PredicateDefinition methodPredicate = new PredicateDefinition();
             methodPredicate.setName("Method");
             methodPredicate.addArg("methods", dto.getMethod());
             predicates.add(methodPredicate);
         }
         
+        // Route-specific predicates (e.g. Host, Header)
+        if (dto.getPredicates() != null) {
+            for (CustomFilterDTO custom : dto.getPredicates()) {
+                PredicateDefinition predicate = new PredicateDefinition();
+                predicate.setName(custom.getName());
+                predicate.setArgs(toArgs(custom.getArgs()));
+                predicates.add(predicate);
+            }
+        }
+        
         definition.setPredicates(predicates);
         
         // Build filters
         List<FilterDefinition> filters = new ArrayList<>();
         
         // Add rate limiting filter with route-specific configuration
-        FilterDefinition rateLimitFilter = createRateLimitFilter(dto);
-        filters.add(rateLimitFilter);
+        RateLimitSpec rateLimit = rateLimitSpec(dto);
+        if (rateLimit != null) {
+            filters.add(createRateLimitFilter(rateLimit));
+        }
         
-        // Add StripPrefix filter to remove /api prefix if needed
-        FilterDefinition stripPrefixFilter = new FilterDefinition();
-        stripPrefixFilter.setName("StripPrefix");
-        stripPrefixFilter.addArg("parts", "0");
-        filters.add(stripPrefixFilter);
+        // Route-specific filters, in the order they are stored
+        if (dto.getFilters() != null) {
+            for (CustomFilterDTO custom : dto.getFilters()) {
+                FilterDefinition filter = new FilterDefinition();
+                filter.setName(custom.getName());
+                filter.setArgs(toArgs(custom.getArgs()));
+                filters.add(filter);
+            }
+        }
         
         definition.setFilters(filters);
         definition.setOrder(1);
         
+        Map<String, Object> metadata = new HashMap<>();
+        if (dto.getMetadata() != null) {
+            metadata.putAll(dto.getMetadata());
+        }
+        // Lets a scoped RefreshRoutesEvent rebuild just this route
+        metadata.put(GatewayConstant.ROUTE_ID_METADATA, dto.getRouteId());
+        definition.setMetadata(metadata);
+        
         return definition;
     }
     
+    /**
+     * Gateway definitions take string arguments; lists are passed comma
+     * separated, which the gateway converts back (e.g. Method, statuses).
+     */
+    private static Map<String, String> toArgs(Map<String, Object> args) {
+        Map<String, String> converted = new LinkedHashMap<>();
+        if (args != null) {
+            args.forEach((key, value) -> converted.put(key, value instanceof Collection<?> values
+                ? values.stream().map(String::valueOf).collect(Collectors.joining(","))
+                : String.valueOf(value)));
+        }
+        return converted;
+    }
+    
     /**
      * Create rate limiting filter with dynamic configuration from database.
      * This implements Azure API Gateway's rate limiting by key pattern.
+     * The limit is enforced over its own period, see RateLimitSpec.
      */
-    private FilterDefinition createRateLimitFilter(RouteDefinitionDTO dto) {
+    private FilterDefinition createRateLimitFilter(RateLimitSpec rateLimit) {
         FilterDefinition rateLimitFilter = new FilterDefinition();
         rateLimitFilter.setName("RequestRateLimiter");
         
         Map<String, String> args = new HashMap<>();
         
-        // Calculate replenish rate (requests per second)
-        int replenishRate = dto.getRateLimitRequests() / dto.getRateLimitPeriodSeconds();
-        if (replenishRate < 1) replenishRate = 1;
-        
-        args.put("redis-rate-limiter.replenishRate", String.valueOf(replenishRate));
-        args.put("redis-rate-limiter.burstCapacity", String.valueOf(dto.getRateLimitRequests()));
-        args.put("redis-rate-limiter.requestedTokens", "1");
+        if (rateLimit.algorithm() == RateLimitAlgorithm.TOKEN_BUCKET) {
+            // Replenish rate in requests per second, fractional for slow limits (100 per hour)
+            String replenishRate = String.valueOf(rateLimit.permitsPerSecond());
+            
+            // Spent from a node-local lease of the key's budget, see HybridRateLimiter
+            args.put("rate-limiter", "#{@" + HybridRateLimiter.BEAN_NAME + "}");
+            args.put(HybridRateLimiter.CONFIGURATION_PROPERTY_NAME + ".replenishRate", replenishRate);
+            args.put(HybridRateLimiter.CONFIGURATION_PROPERTY_NAME + ".burstCapacity", String.valueOf(rateLimit.burst()));
+            args.put(HybridRateLimiter.CONFIGURATION_PROPERTY_NAME + ".requestedTokens", "1");
+        } else {
+            // One Redis script call per request, see RateLimitService
+            args.put("rate-limiter", "#{@" + WindowRateLimiter.BEAN_NAME + "}");
+            args.put(WindowRateLimiter.CONFIGURATION_PROPERTY_NAME + ".algorithm", rateLimit.algorithm().name());
+            args.put(WindowRateLimiter.CONFIGURATION_PROPERTY_NAME + ".permits", String.valueOf(rateLimit.permits()));
+            args.put(WindowRateLimiter.CONFIGURATION_PROPERTY_NAME + ".periodMillis", String.valueOf(rateLimit.periodMillis()));
+            args.put(WindowRateLimiter.CONFIGURATION_PROPERTY_NAME + ".burst", String.valueOf(rateLimit.burst()));
+        }
         
         // Use custom key resolver bean
         args.put("key-resolver", "#{@customKeyResolver}");
@@ -153,82 +242,23 @@ public class DatabaseRouteDefinitionLocator implements RouteDefinitionLocator {
     }
     
     /**
-     * Convert DTO to Spring Cloud Gateway RouteDefinition.
-     * Adds predicates (path, method) and filters (rate limiting).
+     * @return null if the route has no rate limit, or one with an unknown unit
      */
-    
-    /* OLD
-     * 
-     */
-    /*
-     * private RouteDefinition convertToRouteDefinition(RouteDefinitionDTO dto) {
-        RouteDefinition definition = new RouteDefinition();
-        definition.setId(dto.getRouteId());
-        definition.setUri(URI.create(dto.getUri()));
-        
-        // Build predicates
-        List<PredicateDefinition> predicates = new ArrayList<>();
-        
-        // Path predicate (required)
-        PredicateDefinition pathPredicate = new PredicateDefinition();
-        pathPredicate.setName("Path");
-        pathPredicate.addArg("pattern", dto.getPath());
-        predicates.add(pathPredicate);
-        
-        // Method predicate (optional)
-        if (dto.getMethod() != null && !dto.getMethod().isEmpty()) {
-            PredicateDefinition methodPredicate = new PredicateDefinition();
-            methodPredicate.setName("Method");
-            methodPredicate.addArg("methods", dto.getMethod());
-            predicates.add(methodPredicate);
+    private static RateLimitSpec rateLimitSpec(CustomRouteDefinitionDTO dto) {
+        try {
+            return RateLimitSpec.of(dto, rateLimitAlgorithm(dto));
+        } catch (IllegalArgumentException e) {
+            log.error("Route {}: {}, rate limit not applied", dto.getRouteId(), e.getMessage());
+            return null;
         }
-        
-        definition.setPredicates(predicates);
-        
-        // Build filters
-        List<FilterDefinition> filters = new ArrayList<>();
-        
-        // Add rate limiting filter with route-specific configuration
-        FilterDefinition rateLimitFilter = createRateLimitFilter(dto);
-        filters.add(rateLimitFilter);
-        
-        // Add StripPrefix filter to remove /api prefix if needed
-        FilterDefinition stripPrefixFilter = new FilterDefinition();
-        stripPrefixFilter.setName("StripPrefix");
-        stripPrefixFilter.addArg("parts", "0");
-        filters.add(stripPrefixFilter);
-        
-        definition.setFilters(filters);
-        definition.setOrder(1);
-        
-        return definition;
-    } */
+    }
     
-    /**
-     * Create rate limiting filter with dynamic configuration from database.
-     * This implements Azure API Gateway's rate limiting by key pattern.
-     */
-    /*
-    private FilterDefinition createRateLimitFilter(RouteDefinitionDTO dto) {
-        FilterDefinition rateLimitFilter = new FilterDefinition();
-        rateLimitFilter.setName("RequestRateLimiter");
-        
-        Map<String, String> args = new HashMap<>();
-        
-        // Calculate replenish rate (requests per second)
-        int replenishRate = dto.getRateLimitRequests() / dto.getRateLimitPeriodSeconds();
-        if (replenishRate < 1) replenishRate = 1;
-        
-        args.put("redis-rate-limiter.replenishRate", String.valueOf(replenishRate));
-        args.put("redis-rate-limiter.burstCapacity", String.valueOf(dto.getRateLimitRequests()));
-        args.put("redis-rate-limiter.requestedTokens", "1");
-        
-        // Use custom key resolver bean
-        args.put("key-resolver", "#{@customKeyResolver}");
-        
-        rateLimitFilter.setArgs(args);
-        
-        return rateLimitFilter;
+    private static RateLimitAlgorithm rateLimitAlgorithm(CustomRouteDefinitionDTO dto) {
+        try {
+            return RateLimitAlgorithm.of(dto.getRateLimitAlgorithm());
+        } catch (IllegalArgumentException e) {
+            log.warn("Route {}: {}, using token_bucket", dto.getRouteId(), e.getMessage());
+            return RateLimitAlgorithm.TOKEN_BUCKET;
+        }
     }
-    */
 }
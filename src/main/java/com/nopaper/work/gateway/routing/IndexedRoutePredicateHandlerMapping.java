@@ -0,0 +1,162 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:14:27 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.nopaper.work.gateway.constants.GatewayConstant;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.service.RouteService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replaces the gateway's linear route lookup with a {@link RouteMatchIndex}
+ * built from the route snapshot.
+ *
+ * Only the candidate routes returned by the index have their predicates
+ * tested, still in route order, so the route that matches is the same one a
+ * full scan would pick. Routes that are not in the snapshot (e.g. defined in
+ * properties) or whose path cannot be indexed are tested for every request.
+ *
+ * The index is rebuilt lazily after every route refresh. Disable with
+ * gateway.routes.indexed-matching=false to fall back to the linear scan.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.routes.indexed-matching", havingValue = "true", matchIfMissing = true)
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    private final RouteLocator routeLocator;
+    private final RouteService routeService;
+
+    private volatile Mono<CompiledIndex> index;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+            GlobalCorsProperties globalCorsProperties, Environment environment, RouteService routeService) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeService = routeService;
+        this.index = compile();
+    }
+
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            index = compile();
+        }
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        return index.map(current -> current.candidates(exchange))
+            .onErrorResume(error -> routeLocator.getRoutes().collectList())
+            .flatMapMany(Flux::fromIterable)
+            .filterWhen(route -> {
+                // add the current route we are testing
+                exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, route.getId());
+                try {
+                    return route.getPredicate().apply(exchange);
+                }
+                catch (Exception e) {
+                    log.error("Error applying predicate for route: {}", route.getId(), e);
+                }
+                return Mono.just(false);
+            })
+            .next()
+            .map(route -> {
+                log.debug("Route matched: {}", route.getId());
+                validateRoute(route, exchange);
+                return route;
+            });
+    }
+
+    /**
+     * Build the index on first use. A failed build is not cached: lookups scan
+     * all routes and the next one retries the build.
+     */
+    private Mono<CompiledIndex> compile() {
+        return Mono.zip(routeLocator.getRoutes().collectList(), routeService.getEnabledRoutes())
+            .map(tuple -> CompiledIndex.of(tuple.getT1(), tuple.getT2()))
+            .doOnNext(compiled -> log.info("Route match index built: {} routes, {} not indexed",
+                compiled.routes.size(), compiled.unindexed.length))
+            .doOnError(error -> log.error("Failed to build route match index, scanning all routes", error))
+            .cacheInvalidateIf(compiled -> false);
+    }
+
+    /**
+     * Compiled routes in precedence order plus the index over their positions.
+     */
+    private static final class CompiledIndex {
+
+        private final List<Route> routes;
+        private final RouteMatchIndex tree;
+        // Positions of routes that have to be tested for every request
+        private final int[] unindexed;
+
+        private CompiledIndex(List<Route> routes, RouteMatchIndex tree, int[] unindexed) {
+            this.routes = routes;
+            this.tree = tree;
+            this.unindexed = unindexed;
+        }
+
+        static CompiledIndex of(List<Route> routes, List<CustomRouteDefinitionDTO> snapshot) {
+            Map<String, CustomRouteDefinitionDTO> byId = new HashMap<>(snapshot.size() * 2);
+            snapshot.forEach(dto -> byId.put(dto.getRouteId(), dto));
+
+            RouteMatchIndex.Builder builder = RouteMatchIndex.builder();
+            List<Integer> unindexed = new ArrayList<>();
+            for (int position = 0; position < routes.size(); position++) {
+                Object routeId = routes.get(position).getMetadata().get(GatewayConstant.ROUTE_ID_METADATA);
+                CustomRouteDefinitionDTO dto = routeId == null ? null : byId.get(routeId.toString());
+                if (dto == null || !builder.add(position, dto.getPath(), dto.getMethod())) {
+                    unindexed.add(position);
+                }
+            }
+            return new CompiledIndex(List.copyOf(routes), builder.build(),
+                unindexed.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        List<Route> candidates(ServerWebExchange exchange) {
+            int[] matched = tree.candidates(exchange.getRequest().getPath().pathWithinApplication(),
+                exchange.getRequest().getMethod());
+            int[] positions = unindexed.length == 0 ? matched : merge(matched, unindexed);
+            List<Route> candidates = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                candidates.add(routes.get(position));
+            }
+            return candidates;
+        }
+
+        private static int[] merge(int[] left, int[] right) {
+            int[] merged = Arrays.copyOf(left, left.length + right.length);
+            System.arraycopy(right, 0, merged, left.length, right.length);
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 5:32:16 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Keeps the route snapshot in sync with gateway_routes.
+ *
+ * Triggers on gateway_routes and gateway_route_upstreams (schema-notify.sql)
+ * send NOTIFY on every change. This listener holds one dedicated connection, outside the pool,
+ * with LISTEN on that channel; each notification reloads the snapshot and
+ * refreshes the changed routes (see RouteSnapshotRefresher). Bursts are
+ * coalesced into a single reload.
+ *
+ * After (re)connecting the snapshot is reloaded once, as notifications sent
+ * while the connection was down are lost.
+ *
+ * LISTEN does not work through a transaction-mode pooler (e.g. PgBouncer on
+ * Neon's "-pooler" host); set gateway.routes.listen-url to a direct endpoint
+ * in that case.
+ */
+@Slf4j
+@Component
+public class RouteChangeListener {
+
+    public static final String CHANNEL = "gateway_routes_changed";
+
+    private final ConnectionFactory connectionFactory;
+    private final String listenUrl;
+    private final RouteSnapshotRefresher refresher;
+
+    private volatile Disposable subscription;
+
+    public RouteChangeListener(ConnectionFactory connectionFactory,
+            @Value("${gateway.routes.listen-url:}") String listenUrl, RouteSnapshotRefresher refresher) {
+        this.connectionFactory = connectionFactory;
+        this.listenUrl = listenUrl;
+        this.refresher = refresher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.usingWhen(
+                connect(),
+                connection -> listen(connection)
+                    .thenMany(Flux.concat(Mono.just(CHANNEL), connection.getNotifications().map(Notification::getName))),
+                PostgresqlConnection::close)
+            // Connection lost: reconnect, which also reloads once
+            .concatWith(Mono.error(() -> new IllegalStateException("LISTEN connection closed")))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .transientErrors(true)
+                .doBeforeRetry(signal -> log.warn("Route change listener reconnecting: {}",
+                    signal.failure().getMessage())))
+            .onBackpressureLatest()
+            .concatMap(change -> reload(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> reload() {
+        return refresher.reload()
+            .then()
+            .onErrorResume(error -> {
+                log.error("Failed to reload routes, keeping the previous snapshot", error);
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + CHANNEL)
+            .execute()
+            .flatMap(result -> result.getRowsUpdated())
+            .then()
+            .doOnSuccess(done -> log.info("Listening for route changes on channel '{}'", CHANNEL));
+    }
+
+    /**
+     * Open a connection straight from the driver; a pooled connection would be
+     * recycled and lose its LISTEN registration.
+     */
+    private Mono<PostgresqlConnection> connect() {
+        Object factory = StringUtils.hasText(listenUrl) ? ConnectionFactories.get(listenUrl) : connectionFactory;
+        while (factory instanceof Wrapped<?> wrapped) {
+            factory = wrapped.unwrap();
+        }
+        ConnectionFactory driverFactory = (ConnectionFactory) factory;
+        return Mono.from(driverFactory.create()).map(RouteChangeListener::unwrap);
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object candidate = connection;
+        while (!(candidate instanceof PostgresqlConnection) && candidate instanceof Wrapped<?> wrapped) {
+            candidate = wrapped.unwrap();
+        }
+        if (candidate instanceof PostgresqlConnection postgres) {
+            return postgres;
+        }
+        throw new IllegalStateException("Route change notifications require an r2dbc-postgresql connection, got: "
+            + connection.getClass().getName());
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:57:13 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.service.RouteService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Cluster-wide route invalidation over Redis pub/sub.
+ *
+ * A route change made through the routesync actuator endpoint is announced:
+ * the node's route-table version, the content hash of
+ * RouteService#getSnapshotVersion, with a cluster-wide counter. Every node
+ * whose own version differs reloads from the database, which stays the source
+ * of truth, and refreshes its routes. Nodes that already loaded the same
+ * routes only compare the version. Changes that arrive through NOTIFY reach
+ * every node directly, so nodes only reload for them and do not announce; a
+ * node that missed one catches up with the periodic snapshot reconcile. A
+ * node whose snapshot was read from the database after it first saw the
+ * latest announcement is at least as new, and does not reload for it.
+ *
+ * A node that reloads for an announcement but still loads another version
+ * corrects the stale announcement, only if it is still the latest: when a
+ * NOTIFY change leaves it behind, one node announces, not every node.
+ *
+ * Pub/sub is fire-and-forget, so every heartbeat also gossips: the node
+ * registers itself and its version, and reads the latest announcement. A node
+ * that missed a message, or could not reload, catches up on its next
+ * heartbeat. The node registry (gateway:{cluster}:nodes, scored by last
+ * heartbeat) doubles as the list of live gateway nodes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.routes.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteClusterSync {
+
+    public static final String CHANNEL = "gateway:routes:invalidate";
+    public static final String NODES_KEY = "gateway:{cluster}:nodes";
+    static final String NODE_VERSIONS_KEY = "gateway:{cluster}:node-route-versions";
+    static final String COUNTER_KEY = "gateway:{cluster}:routes-version-counter";
+    static final String VERSION_KEY = "gateway:{cluster}:routes-version";
+
+    // KEYS: counter, latest announcement; ARGV: version, channel
+    private static final RedisScript<String> ANNOUNCE = RedisScript.of("""
+        local message = redis.call('INCR', KEYS[1]) .. ':' .. ARGV[1]
+        redis.call('SET', KEYS[2], message)
+        redis.call('PUBLISH', ARGV[2], message)
+        return message
+        """, String.class);
+
+    // As ANNOUNCE, only if the latest announcement is still ARGV[3]; returns nil otherwise
+    private static final RedisScript<String> CORRECT = RedisScript.of("""
+        if redis.call('GET', KEYS[2]) ~= ARGV[3] then
+            return false
+        end
+        local message = redis.call('INCR', KEYS[1]) .. ':' .. ARGV[1]
+        redis.call('SET', KEYS[2], message)
+        redis.call('PUBLISH', ARGV[2], message)
+        return message
+        """, String.class);
+
+    // KEYS: nodes, node versions, latest announcement; ARGV: node, now, expired before, version
+    private static final RedisScript<String> HEARTBEAT = RedisScript.of("""
+        redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+        for _, node in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3])) do
+            redis.call('HDEL', KEYS[2], node)
+        end
+        redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3])
+        redis.call('HSET', KEYS[2], ARGV[1], ARGV[4])
+        return redis.call('GET', KEYS[3])
+        """, String.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RouteService routeService;
+    private final RouteSnapshotRefresher refresher;
+    private final Duration heartbeatInterval;
+    private final String nodeId;
+
+    private final AtomicReference<Seen> seen = new AtomicReference<>(new Seen(0, 0));
+    private volatile String clusterVersion;
+
+    private final Counter announced;
+    private final Counter messageReloads;
+    private final Counter heartbeatReloads;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public RouteClusterSync(@Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            RouteService routeService, RouteSnapshotRefresher refresher, MeterRegistry meterRegistry,
+            @Value("${gateway.routes.sync.heartbeat-interval:10s}") Duration heartbeatInterval) {
+        this.redisTemplate = redisTemplate;
+        this.routeService = routeService;
+        this.refresher = refresher;
+        this.heartbeatInterval = heartbeatInterval;
+        this.nodeId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.announced = Counter.builder("gateway.routes.sync.announced")
+            .description("Route-table versions announced by this node")
+            .register(meterRegistry);
+        this.messageReloads = Counter.builder("gateway.routes.sync.reloads")
+            .tag("trigger", "message")
+            .description("Route reloads triggered by a cluster announcement")
+            .register(meterRegistry);
+        this.heartbeatReloads = Counter.builder("gateway.routes.sync.reloads")
+            .tag("trigger", "heartbeat")
+            .description("Route reloads triggered by heartbeat gossip")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscriptions.add(redisTemplate.listenToChannel(CHANNEL)
+            .map(ReactiveSubscription.Message::getMessage)
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .transientErrors(true)
+                .doBeforeRetry(signal -> log.warn("Route sync subscription lost, resubscribing: {}",
+                    signal.failure().getMessage())))
+            .onBackpressureLatest()
+            .concatMap(message -> reconcile(message, messageReloads), 1)
+            .subscribe());
+        subscriptions.add(Flux.interval(heartbeatInterval, heartbeatInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> heartbeat(), 1)
+            .subscribe());
+        log.info("Route cluster sync started as node '{}' (heartbeat every {})", nodeId, heartbeatInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+        // Leave the registry right away instead of waiting to expire
+        redisTemplate.opsForZSet().remove(NODES_KEY, nodeId)
+            .then(redisTemplate.opsForHash().remove(NODE_VERSIONS_KEY, nodeId))
+            .timeout(Duration.ofSeconds(2))
+            .onErrorResume(error -> Mono.empty())
+            .block();
+    }
+
+    /**
+     * Announce this node's route-table version to the cluster.
+     *
+     * @return the announcement ("counter:version"), empty before the first load
+     */
+    public Mono<String> announce() {
+        String version = routeService.getSnapshotVersion();
+        if (version == null) {
+            return Mono.empty();
+        }
+        return announce(ANNOUNCE, List.of(version, CHANNEL));
+    }
+
+    private Mono<String> announce(RedisScript<String> script, List<String> args) {
+        return redisTemplate.execute(script, List.of(COUNTER_KEY, VERSION_KEY), args)
+            .next()
+            .doOnNext(message -> {
+                Announcement announcement = Announcement.parse(message);
+                if (announcement != null) {
+                    see(announcement);
+                    clusterVersion = announcement.version();
+                }
+                announced.increment();
+                log.info("Announced route-table version {}", message);
+            });
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getClusterVersion() {
+        return clusterVersion;
+    }
+
+    public long getSeenCounter() {
+        return seen.get().counter();
+    }
+
+    /**
+     * Route-table version last reported by each live node.
+     */
+    public Mono<Map<String, String>> nodeVersions() {
+        return redisTemplate.<String, String>opsForHash().entries(NODE_VERSIONS_KEY)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    Mono<Void> heartbeat() {
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - heartbeatInterval.multipliedBy(3).toMillis();
+        String version = routeService.getSnapshotVersion();
+        return redisTemplate.execute(HEARTBEAT, List.of(NODES_KEY, NODE_VERSIONS_KEY, VERSION_KEY),
+                List.of(nodeId, String.valueOf(now), String.valueOf(expiredBefore), version == null ? "" : version))
+            .next()
+            .flatMap(message -> reconcile(message, heartbeatReloads))
+            .onErrorResume(error -> {
+                log.warn("Route sync heartbeat failed: {}", error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Reload if an announcement is not older than the last one seen, its
+     * version differs from ours and our snapshot was read before we first saw
+     * it. The heartbeat re-reads the same announcement, so a failed reload is
+     * retried.
+     */
+    private Mono<Void> reconcile(String message, Counter reloads) {
+        Announcement announcement = Announcement.parse(message);
+        if (announcement == null) {
+            log.warn("Ignoring malformed route-table announcement '{}'", message);
+            return Mono.empty();
+        }
+        Seen latest = see(announcement);
+        if (announcement.counter() < latest.counter()) {
+            return Mono.empty();
+        }
+        clusterVersion = announcement.version();
+        if (announcement.version().equals(routeService.getSnapshotVersion())) {
+            return Mono.empty();
+        }
+        if (routeService.getSnapshotSequence() > latest.reloadsStarted()) {
+            // Read from the database after the announcement, e.g. on NOTIFY: ours is newer
+            log.debug("Route-table version {} announced, local version {} is newer",
+                announcement.version(), routeService.getSnapshotVersion());
+            return Mono.empty();
+        }
+        log.info("Route-table version {} announced, local version is {}; reloading",
+            announcement.version(), routeService.getSnapshotVersion());
+        reloads.increment();
+        return refresher.reload()
+            // The database does not hold the announced version: the announcement is stale, correct it
+            .flatMap(changes -> announcement.version().equals(routeService.getSnapshotVersion())
+                    || routeService.getSnapshotVersion() == null
+                ? Mono.<String>empty()
+                : announce(CORRECT, List.of(routeService.getSnapshotVersion(), CHANNEL, message)))
+            .then()
+            .onErrorResume(error -> {
+                log.error("Failed to reload routes for version {}", announcement.version(), error);
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Remember the reloads started when an announcement is first seen.
+     *
+     * @return the latest announcement seen
+     */
+    private Seen see(Announcement announcement) {
+        return seen.updateAndGet(current -> announcement.counter() > current.counter()
+            ? new Seen(announcement.counter(), routeService.getReloadsStarted())
+            : current);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "gateway";
+        }
+    }
+
+    private record Seen(long counter, long reloadsStarted) {
+    }
+
+    private record Announcement(long counter, String version) {
+
+        static Announcement parse(String message) {
+            int separator = message == null ? -1 : message.indexOf(':');
+            if (separator <= 0 || separator == message.length() - 1) {
+                return null;
+            }
+            try {
+                return new Announcement(Long.parseLong(message.substring(0, separator)),
+                    message.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
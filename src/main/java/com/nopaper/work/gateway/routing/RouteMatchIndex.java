@@ -0,0 +1,246 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:02:44 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+
+/**
+ * Segment radix tree over route path patterns, with a method bitset per route
+ * at the leaves. Looking up a request walks one branch per path segment, plus
+ * the wildcard branches, instead of testing every route's predicates.
+ *
+ * The index only narrows down the routes; it returns a superset of the routes
+ * whose Path and Method predicates can match, by position, and the caller still
+ * tests the full predicate of each candidate in order. Supported segments:
+ * - literal segments, matched exactly
+ * - "*", "{var}" and partial wildcards such as "file-*.json": any one segment
+ * - "**" and "{*var}" as the last segment: zero or more segments
+ *
+ * Instances are immutable once built and safe to share between threads.
+ */
+public final class RouteMatchIndex {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+    // Bit for request methods outside HttpMethod.values()
+    private static final int OTHER_METHOD = 1 << 31;
+    private static final int ANY_METHOD = -1;
+
+    private final Node root;
+
+    private RouteMatchIndex(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Positions of the routes that may match the request, in ascending order.
+     */
+    public int[] candidates(PathContainer path, HttpMethod method) {
+        return candidates(segments(path), method);
+    }
+
+    /**
+     * Positions of the routes that may match the given path segments, in ascending order.
+     */
+    public int[] candidates(String[] segments, HttpMethod method) {
+        Collector collector = new Collector(methodBit(method));
+        collect(root, segments, 0, segments.length, collector);
+        // "/users/" also matches "/users" (Path predicates match a trailing slash by default)
+        if (segments.length > 0 && segments[segments.length - 1].isEmpty()) {
+            collect(root, segments, 0, segments.length - 1, collector);
+        }
+        return collector.toSortedArray();
+    }
+
+    /**
+     * Split a request path into decoded segments, the way PathPattern sees them.
+     * A trailing slash yields a trailing empty segment.
+     */
+    public static String[] segments(PathContainer path) {
+        var elements = path.elements();
+        String[] segments = new String[elements.size()];
+        int count = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) instanceof PathContainer.Separator) {
+                boolean hasSegment = i + 1 < elements.size()
+                    && elements.get(i + 1) instanceof PathContainer.PathSegment;
+                segments[count++] = hasSegment ? ((PathContainer.PathSegment) elements.get(++i)).valueToMatch() : "";
+            }
+        }
+        return count == segments.length ? segments : Arrays.copyOf(segments, count);
+    }
+
+    private static void collect(Node node, String[] segments, int index, int length, Collector collector) {
+        node.catchAll.collectInto(collector);
+        if (index == length) {
+            node.exact.collectInto(collector);
+            return;
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            collect(literal, segments, index + 1, length, collector);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, segments, index + 1, length, collector);
+        }
+    }
+
+    private static int methodBit(HttpMethod method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return 1 << i;
+            }
+        }
+        return OTHER_METHOD;
+    }
+
+    /**
+     * Bitset of a Method predicate argument ("GET" or "GET,POST"); any method
+     * when empty or when a method is not a standard one.
+     */
+    static int methodMask(String methods) {
+        if (!StringUtils.hasText(methods)) {
+            return ANY_METHOD;
+        }
+        int mask = 0;
+        for (String name : StringUtils.commaDelimitedListToStringArray(methods)) {
+            int bit = methodBit(HttpMethod.valueOf(name.trim().toUpperCase()));
+            if (bit == OTHER_METHOD) {
+                return ANY_METHOD;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    public static final class Builder {
+
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        /**
+         * Index a route.
+         *
+         * @param position route position, lower positions take precedence
+         * @param pattern path pattern of the route's Path predicate
+         * @param methods methods of the route's Method predicate, null for any
+         * @return false if the pattern cannot be indexed; the caller has to
+         *         test that route for every request
+         */
+        public boolean add(int position, String pattern, String methods) {
+            if (!StringUtils.hasText(pattern)) {
+                return false;
+            }
+            String[] parts = StringUtils.tokenizeToStringArray(pattern, "/", true, true);
+            Node node = root;
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i];
+                if (part.equals("**") || part.startsWith("{*")) {
+                    if (i != parts.length - 1) {
+                        // Not a valid PathPattern, leave it to the predicate
+                        return false;
+                    }
+                    node.catchAll.add(position, methodMask(methods));
+                    return true;
+                }
+                boolean wildcard = part.indexOf('*') >= 0 || part.indexOf('?') >= 0
+                    || part.indexOf('{') >= 0 || part.indexOf('%') >= 0;
+                node = wildcard ? node.wildcard() : node.literals.computeIfAbsent(part, key -> new Node());
+            }
+            node.exact.add(position, methodMask(methods));
+            return true;
+        }
+
+        public RouteMatchIndex build() {
+            return new RouteMatchIndex(root);
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>(4);
+        private Node wildcard;
+        // Routes whose pattern ends at this node
+        private final Leaves exact = new Leaves();
+        // Routes whose pattern ends with "**" below this node
+        private final Leaves catchAll = new Leaves();
+
+        private Node wildcard() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+    }
+
+    private static final class Leaves {
+
+        private int[] positions = new int[0];
+        private int[] methodMasks = new int[0];
+        private int size;
+
+        private void add(int position, int methodMask) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(2, size * 2));
+                methodMasks = Arrays.copyOf(methodMasks, positions.length);
+            }
+            positions[size] = position;
+            methodMasks[size++] = methodMask;
+        }
+
+        private void collectInto(Collector collector) {
+            for (int i = 0; i < size; i++) {
+                if ((methodMasks[i] & collector.methodBit) != 0) {
+                    collector.add(positions[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Collector {
+
+        private final int methodBit;
+        private int[] positions = new int[4];
+        private int size;
+
+        private Collector(int methodBit) {
+            this.methodBit = methodBit;
+        }
+
+        private void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        private int[] toSortedArray() {
+            if (size == 0) {
+                return new int[0];
+            }
+            Arrays.sort(positions, 0, size);
+            int unique = 1;
+            for (int i = 1; i < size; i++) {
+                if (positions[i] != positions[unique - 1]) {
+                    positions[unique++] = positions[i];
+                }
+            }
+            return Arrays.copyOf(positions, unique);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:48:52 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.constants.GatewayConstant;
+import com.nopaper.work.gateway.dto.RouteChanges;
+import com.nopaper.work.gateway.service.RouteService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reloads the route snapshot and refreshes the gateway's compiled routes.
+ *
+ * Refreshes are scoped to the routes that were added, changed or removed
+ * (matched on the route id metadata), so Spring Cloud Gateway keeps the
+ * compiled routes, predicates and rate limiters of everything else. Above
+ * gateway.routes.full-refresh-threshold changes a single full refresh is
+ * cheaper than one scoped refresh per route.
+ *
+ * After a reload with changes the {@link RouteChanges} are published as an
+ * application event.
+ */
+@Slf4j
+@Component
+public class RouteSnapshotRefresher {
+
+    private final RouteService routeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int fullRefreshThreshold;
+
+    public RouteSnapshotRefresher(RouteService routeService, ApplicationEventPublisher eventPublisher,
+            @Value("${gateway.routes.full-refresh-threshold:100}") int fullRefreshThreshold) {
+        this.routeService = routeService;
+        this.eventPublisher = eventPublisher;
+        this.fullRefreshThreshold = fullRefreshThreshold;
+    }
+
+    /**
+     * Reload the snapshot from the database and refresh the changed routes.
+     */
+    public Mono<RouteChanges> reload() {
+        return routeService.reloadEnabledRoutes()
+            .doOnNext(this::refresh);
+    }
+
+    /**
+     * Synchronized, as CachingRouteLocator merges a scoped refresh into the
+     * cached routes it read when the event arrived.
+     */
+    private synchronized void refresh(RouteChanges changes) {
+        if (changes.isEmpty()) {
+            log.debug("Route snapshot unchanged, no refresh needed");
+            return;
+        }
+        if (changes.initial() || changes.size() > fullRefreshThreshold) {
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        } else {
+            // A removed route matches its own scope but is no longer returned by the
+            // locator, so the scoped refresh drops it from the route cache
+            for (String routeId : changes.affected()) {
+                eventPublisher.publishEvent(
+                    new RefreshRoutesEvent(this, Map.of(GatewayConstant.ROUTE_ID_METADATA, routeId)));
+            }
+        }
+        eventPublisher.publishEvent(changes);
+    }
+}
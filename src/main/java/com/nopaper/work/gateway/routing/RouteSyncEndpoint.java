@@ -0,0 +1,60 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:09:35 am
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.service.RouteService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Actuator endpoint for cluster route sync.
+ *
+ * - GET /actuator/routesync : local and cluster route-table versions, and the version of every live node
+ * - POST /actuator/routesync : reload routes from the database and announce the version to all nodes
+ */
+@Component
+@Endpoint(id = "routesync")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "gateway.routes.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteSyncEndpoint {
+
+    private final RouteClusterSync clusterSync;
+    private final RouteSnapshotRefresher refresher;
+    private final RouteService routeService;
+
+    @ReadOperation
+    public Mono<Map<String, Object>> status() {
+        return clusterSync.nodeVersions()
+            .map(nodes -> {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("node", clusterSync.getNodeId());
+                result.put("localVersion", routeService.getSnapshotVersion());
+                result.put("clusterVersion", clusterSync.getClusterVersion());
+                result.put("announcement", clusterSync.getSeenCounter());
+                result.put("nodes", nodes);
+                return result;
+            });
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Object>> invalidate() {
+        return refresher.reload()
+            .then(clusterSync.announce())
+            .map(announcement -> Map.<String, Object>of("announced", announcement))
+            .defaultIfEmpty(Map.of());
+    }
+}
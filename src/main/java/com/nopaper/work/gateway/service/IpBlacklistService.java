@@ -11,18 +11,29 @@ package com.nopaper.work.gateway.service;
  */
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.nopaper.work.gateway.models.IpBlacklist;
 import com.nopaper.work.gateway.repositories.IpBlacklistRepository;
+import com.nopaper.work.gateway.snapshot.LocalSnapshot;
+import com.nopaper.work.gateway.snapshot.LocalSnapshotStore;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
- * Service for IP blacklist management with Redis caching.
+ * Service for IP blacklist management.
  * Implements Azure API Gateway's IP filtering capabilities.
+ * 
+ * The blacklist is held in memory, seeded from the local snapshot file at
+ * startup and reloaded from the database in the background (see
+ * SnapshotReconciler), so checks never wait on Redis or the database.
  */
 @Slf4j
 @Service
@@ -30,31 +41,79 @@ import reactor.core.publisher.Mono;
 public class IpBlacklistService {
     
     private final IpBlacklistRepository blacklistRepository;
+    private final LocalSnapshotStore snapshotStore;
+    
+    // IP address -> expiry, LocalDateTime.MAX for permanent entries
+    private volatile Map<String, LocalDateTime> blacklist;
     
- // No Redis template needed - uses @Cacheable // REPLACING @RequiredArgsConstructor
-    public IpBlacklistService(IpBlacklistRepository blacklistRepository) {
+    public IpBlacklistService(IpBlacklistRepository blacklistRepository, LocalSnapshotStore snapshotStore) {
         this.blacklistRepository = blacklistRepository;
+        this.snapshotStore = snapshotStore;
+    }
+    
+    @PostConstruct
+    public void seedFromLocalSnapshot() {
+        snapshotStore.getLoaded()
+            .map(LocalSnapshot::blacklist)
+            .ifPresent(entries -> {
+                blacklist = Collections.unmodifiableMap(entries);
+                log.info("IP blacklist seeded with {} entries from the local snapshot file", entries.size());
+            });
     }
     
     /**
      * Check if an IP address is blacklisted.
-     * Results are cached in Redis for performance.
+     * Before the blacklist is first loaded the database is asked directly.
      * 
      * @param ipAddress The IP address to check
      * @return true if blacklisted and not expired, false otherwise
      */
-    @Cacheable(value = "ip-blacklist", key = "#ipAddress")
     public Mono<Boolean> isBlacklisted(String ipAddress) {
+        Map<String, LocalDateTime> current = blacklist;
+        if (current == null) {
+            return lookup(ipAddress);
+        }
+        LocalDateTime expiresAt = current.get(ipAddress);
+        boolean isBlacklisted = expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+        if (isBlacklisted) {
+            log.warn("IP {} is blacklisted", ipAddress);
+        }
+        return Mono.just(isBlacklisted);
+    }
+    
+    /**
+     * Read the blacklist from the database and replace the in-memory copy.
+     * Entries that have already expired are left out. Expiries are truncated to
+     * millis, the precision of the local snapshot, so an unchanged blacklist
+     * compares equal to the one restored from the snapshot file.
+     * 
+     * @return number of active entries
+     */
+    public Mono<Integer> reloadBlacklist() {
+        LocalDateTime now = LocalDateTime.now();
+        return blacklistRepository.findAll()
+            .filter(entry -> entry.getExpiresAt() == null || entry.getExpiresAt().isAfter(now))
+            .collect(HashMap<String, LocalDateTime>::new, (entries, entry) -> entries.put(entry.getIpAddress(),
+                entry.getExpiresAt() == null
+                    ? LocalDateTime.MAX
+                    : entry.getExpiresAt().truncatedTo(ChronoUnit.MILLIS)))
+            .map(entries -> {
+                Map<String, LocalDateTime> next = Collections.unmodifiableMap(entries);
+                boolean changed = !next.equals(blacklist);
+                blacklist = next;
+                snapshotStore.blacklistSynced(next, changed);
+                if (changed) {
+                    log.info("IP blacklist reloaded with {} active entries", next.size());
+                }
+                return next.size();
+            });
+    }
+    
+    private Mono<Boolean> lookup(String ipAddress) {
         log.debug("Checking if IP {} is blacklisted", ipAddress);
         
         return blacklistRepository.findByIpAddress(ipAddress)
-            .map(blacklist -> {
-                // Check if blacklist entry is still valid
-                if (blacklist.getExpiresAt() == null) {
-                    return true; // Permanently blacklisted
-                }
-                return blacklist.getExpiresAt().isAfter(LocalDateTime.now());
-            })
+            .map(IpBlacklistService::isActive)
             .defaultIfEmpty(false)
             .doOnNext(isBlacklisted -> {
                 if (isBlacklisted) {
@@ -62,4 +121,12 @@ public class IpBlacklistService {
                 }
             });
     }
+    
+    private static boolean isActive(IpBlacklist blacklist) {
+        // Check if blacklist entry is still valid
+        if (blacklist.getExpiresAt() == null) {
+            return true; // Permanently blacklisted
+        }
+        return blacklist.getExpiresAt().isAfter(LocalDateTime.now());
+    }
 }
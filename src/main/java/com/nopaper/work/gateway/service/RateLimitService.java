@@ -7,71 +7,211 @@
 package com.nopaper.work.gateway.service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import com.nopaper.work.gateway.dto.RateLimitDecision;
+import com.nopaper.work.gateway.ratelimit.RateLimitAlgorithm;
+import com.nopaper.work.gateway.ratelimit.RateLimitBatcher;
+import com.nopaper.work.gateway.ratelimit.RateLimitFallback;
+import com.nopaper.work.gateway.ratelimit.RateLimitSpec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
  * Service for managing rate limiting with Redis.
  * Provides additional rate limiting capabilities beyond built-in gateway features.
+ *
+ * A check is a single script call that reads the key, decides, updates the
+ * key together with its TTL and returns the quota left and the time until it
+ * resets, so a key can never be left without a TTL. The time is Redis TIME,
+ * so the nodes' clocks do not matter. Supports the fixed window, sliding
+ * window counter and GCRA algorithms, see {@link RateLimitAlgorithm}.
+ *
+ * With gateway.rate-limiter.batch.enabled the checks of concurrent requests
+ * are coalesced into one script call per tick, see {@link RateLimitBatcher}.
+ *
+ * While Redis is unavailable checks are decided by a node-local token bucket
+ * with this node's share of the limit, see {@link RateLimitFallback}.
  */
 @Slf4j
 @Service
 public class RateLimitService {
     
+    private static final String KEY_PREFIX = "ratelimit:";
+    
+    // KEYS: limit keys; ARGV: algorithm, limit, period ms, burst, cost for each key
+    // Returns, for each key: allowed (1/0), remaining, ms until the full quota is back, ms until a retry can pass
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> CHECK = (RedisScript) RedisScript.of("""
+        local time = redis.call('TIME')
+        local now = time[1] * 1000 + math.floor(time[2] / 1000)
+        local function check(key, algorithm, limit, period, burst, cost)
+            if algorithm == 'gcra' then
+                -- Requests are due interval apart; up to burst may come early
+                local interval = period / limit
+                local tolerance = interval * burst
+                local tat = math.max(tonumber(redis.call('HGET', key, 'tat')) or now, now)
+                local next = tat + interval * cost
+                local retry = math.max(0, math.ceil(next - tolerance - now))
+                if retry == 0 then
+                    tat = next
+                    redis.call('HSET', key, 'tat', tostring(tat))
+                    redis.call('PEXPIRE', key, math.max(1, math.ceil(tat - now)))
+                end
+                return retry == 0 and 1 or 0, math.floor((now + tolerance - tat) / interval), math.ceil(tat - now), retry
+            end
+            -- Fixed and sliding window: the count of the current window ('c') and the previous one ('p')
+            local window = math.floor(now / period)
+            local elapsed = now - window * period
+            local state = redis.call('HMGET', key, 'w', 'c', 'p')
+            local current, previous = 0, 0
+            if tonumber(state[1]) == window then
+                current = tonumber(state[2]) or 0
+                previous = tonumber(state[3]) or 0
+            elseif tonumber(state[1]) == window - 1 then
+                previous = tonumber(state[2]) or 0
+            end
+            local sliding = algorithm == 'sliding_window'
+            local used = current
+            if sliding then
+                used = current + previous * (period - elapsed) / period
+            end
+            local allowed = 0
+            local retry = period - elapsed
+            if used + cost <= limit then
+                allowed = 1
+                retry = 0
+                current = current + cost
+                used = used + cost
+            elseif sliding and previous > 0 and current + cost <= limit then
+                -- Wait until enough of the previous window has slid out
+                retry = math.ceil(period - elapsed - (limit - current - cost) * period / previous)
+            end
+            redis.call('HSET', key, 'w', window, 'c', current, 'p', previous)
+            local reset = period - elapsed
+            if sliding then
+                -- The current window keeps counting until the end of the next one
+                redis.call('PEXPIRE', key, 2 * period - elapsed)
+                if current > 0 then
+                    reset = 2 * period - elapsed
+                end
+            else
+                redis.call('PEXPIRE', key, period - elapsed)
+            end
+            return allowed, math.max(0, math.floor(limit - used)), reset, retry
+        end
+        local results = {}
+        for i, key in ipairs(KEYS) do
+            local base = (i - 1) * 5
+            local allowed, remaining, reset, retry = check(key, ARGV[base + 1], tonumber(ARGV[base + 2]),
+                tonumber(ARGV[base + 3]), tonumber(ARGV[base + 4]), tonumber(ARGV[base + 5]))
+            results[#results + 1] = allowed
+            results[#results + 1] = remaining
+            results[#results + 1] = reset
+            results[#results + 1] = retry
+        end
+        return results
+        """, List.class);
+    
     private final ReactiveRedisTemplate<String, String> redisTemplate;
+    // Null when batching is disabled
+    private final RateLimitBatcher batcher;
+    private final RateLimitFallback rateLimitFallback;
     
     public RateLimitService(
-            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate) {
+            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            RateLimitFallback rateLimitFallback, MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limiter.batch.enabled:true}") boolean batchEnabled,
+            @Value("${gateway.rate-limiter.batch.tick:200us}") Duration batchTick,
+            @Value("${gateway.rate-limiter.batch.max-size:128}") int batchMaxSize) {
         this.redisTemplate = redisTemplate;
+        this.rateLimitFallback = rateLimitFallback;
+        this.batcher = batchEnabled
+            ? new RateLimitBatcher(redisTemplate, CHECK, 4, batchTick, batchMaxSize, meterRegistry)
+            : null;
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (batcher != null) {
+            batcher.dispose();
+        }
     }
     
     /**
-     * Check and increment rate limit counter for a given key.
+     * Check a request against a rate limit and count it if allowed, in one round trip.
      * 
      * @param key Rate limit key (e.g., "ip:route:user")
-     * @param maxRequests Maximum requests allowed in the period
-     * @param period Time period for rate limit
-     * @return true if request is allowed, false if rate limit exceeded
+     * @param spec the limit, with any algorithm but TOKEN_BUCKET
+     * @param cost requests this one counts for
+     * @return the decision; decided locally if Redis cannot be reached, or allowed
+     *         (fail open) if the fallback is disabled
      */
-    public Mono<Boolean> checkRateLimit(String key, int maxRequests, Duration period) {
-        String redisKey = "ratelimit:" + key;
-        
-        return redisTemplate.opsForValue()
-            .increment(redisKey)
-            .flatMap(count -> {
-                if (count == 1) {
-                    // First request, set expiration
-                    return redisTemplate.expire(redisKey, period)
-                        .thenReturn(true);
-                }
-                
-                boolean allowed = count <= maxRequests;
-                
-                if (!allowed) {
-                    log.warn("Rate limit exceeded for key: {}, count: {}, max: {}", 
-                        key, count, maxRequests);
+    public Mono<RateLimitDecision> check(String key, RateLimitSpec spec, int cost) {
+        if (spec.algorithm() == RateLimitAlgorithm.TOKEN_BUCKET) {
+            throw new IllegalArgumentException("Token bucket limits are checked by HybridRateLimiter");
+        }
+        long limit = spec.permits();
+        if (rateLimitFallback.isDegraded()) {
+            return Mono.just(local(key, spec, cost));
+        }
+        List<String> args = List.of(spec.algorithm().value(), String.valueOf(limit),
+            String.valueOf(spec.periodMillis()), String.valueOf(spec.burst()), String.valueOf(cost));
+        Mono<List<Long>> checked = batcher != null
+            ? batcher.submit(KEY_PREFIX + key, args)
+            : redisTemplate.execute(CHECK, List.of(KEY_PREFIX + key), args)
+                .reduce(new ArrayList<Long>(), (results, part) -> {
+                    results.addAll(part);
+                    return results;
+                });
+        return rateLimitFallback.guard(checked)
+            .map(results -> {
+                RateLimitDecision decision = new RateLimitDecision(results.get(0) == 1L, limit,
+                    results.get(1), results.get(2), results.get(3));
+                if (!decision.allowed()) {
+                    log.debug("Rate limit exceeded for key: {}, limit: {} per {} ms", key, limit, spec.periodMillis());
                 }
-                
-                return Mono.just(allowed);
+                return decision;
             })
             .onErrorResume(error -> {
-                log.error("Error checking rate limit", error);
+                if (rateLimitFallback.isEnabled()) {
+                    log.warn("Error checking rate limit for key {}, deciding locally: {}", key, error.getMessage());
+                    return Mono.just(local(key, spec, cost));
+                }
+                log.warn("Error checking rate limit for key {}, allowing request: {}", key, error.getMessage());
                 // On error, allow request (fail open)
-                return Mono.just(true);
+                return Mono.just(RateLimitDecision.failOpen(limit));
             });
     }
     
     /**
-     * Get current rate limit count for a key.
+     * Decide on this node's share of the limit, with a token bucket whatever the
+     * algorithm. Reset and retry times are when the request's cost is refilled.
+     */
+    private RateLimitDecision local(String key, RateLimitSpec spec, int cost) {
+        long left = rateLimitFallback.tryAcquire(KEY_PREFIX + key, spec.permitsPerSecond(), spec.burst(), cost);
+        long refillMillis = (long) Math.ceil(1000.0 * cost * rateLimitFallback.getNodes() / spec.permitsPerSecond());
+        return left >= 0
+            ? new RateLimitDecision(true, spec.permits(), left, refillMillis, 0)
+            : new RateLimitDecision(false, spec.permits(), 0, refillMillis, refillMillis);
+    }
+    
+    /**
+     * Get the requests counted in the current window of a fixed or sliding window key.
      */
     public Mono<Long> getCurrentCount(String key) {
-        return redisTemplate.opsForValue()
-            .get("ratelimit:" + key)
+        return redisTemplate.<String, String>opsForHash()
+            .get(KEY_PREFIX + key, "c")
             .map(Long::parseLong)
             .defaultIfEmpty(0L);
     }
@@ -80,7 +220,7 @@ public class RateLimitService {
      * Reset rate limit for a key (useful for testing or manual intervention).
      */
     public Mono<Boolean> resetRateLimit(String key) {
-        return redisTemplate.delete("ratelimit:" + key)
+        return redisTemplate.delete(KEY_PREFIX + key)
             .map(deleted -> deleted > 0);
     }
 }
@@ -11,17 +11,18 @@ package com.nopaper.work.gateway.service;
  */
 
 import java.time.LocalDateTime;
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nopaper.work.gateway.audit.AuditIngestionQueue;
+import com.nopaper.work.gateway.audit.AuditSink;
+import com.nopaper.work.gateway.config.AuditProperties;
 import com.nopaper.work.gateway.models.RequestAuditLog;
-import com.nopaper.work.gateway.repositories.RequestAuditLogRepository;
 
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.Mono;
 
 /**
  * Asynchronous service for request auditing.
@@ -33,35 +34,63 @@ import reactor.core.scheduler.Schedulers;
 // @RequiredArgsConstructor
 public class RequestAuditService {
     
-    private final RequestAuditLogRepository auditLogRepository;
+    private final AuditIngestionQueue ingestionQueue;
+    
+    private final AuditSink auditSink;
     
     private final ObjectMapper objectMapper;
     
     // No @Qualifier needed for ObjectMapper if there's only one bean
     public RequestAuditService(
-            RequestAuditLogRepository auditLogRepository,
+            AuditIngestionQueue ingestionQueue,
+            List<AuditSink> auditSinks,
+            AuditProperties auditProperties,
             ObjectMapper objectMapper) {
-        this.auditLogRepository = auditLogRepository;
+        this.ingestionQueue = ingestionQueue;
+        this.auditSink = selectSink(auditSinks, auditProperties.getSink());
         this.objectMapper = objectMapper;
+        log.info("Audit logs are written through the '{}' sink", auditSink.getName());
+    }
+    
+    /**
+     * Pick the sink configured with gateway.audit.sink.
+     */
+    private static AuditSink selectSink(List<AuditSink> auditSinks, String name) {
+        return auditSinks.stream()
+            .filter(sink -> sink.getName().equalsIgnoreCase(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown audit sink '" + name + "', expected one of: "
+                + auditSinks.stream().map(AuditSink::getName).toList()));
     }
     
     /**
-     * Asynchronously save audit log to database.
-     * This method returns immediately, allowing the gateway to continue processing.
+     * Queue an audit log for asynchronous persistence.
+     * Runs on the caller's thread without any executor hand-off; the batch
+     * writer picks the entry up from the bounded ingestion queue.
      * 
      * @param auditLog The audit log entity to save
-     * @return CompletableFuture that completes when save is done
+     * @return false if the entry was dropped by the queue's overflow policy
      */
-    @Async
-    public CompletableFuture<Void> saveAuditLogAsync(RequestAuditLog auditLog) {
-        log.debug("Saving audit log asynchronously for request: {}", auditLog.getRequestId());
+    public boolean submitAuditLog(RequestAuditLog auditLog) {
+        if (auditLog.getCreatedAt() == null) {
+            auditLog.setCreatedAt(LocalDateTime.now());
+        }
         
-        return auditLogRepository.save(auditLog)
-            .subscribeOn(Schedulers.boundedElastic())
-            .doOnSuccess(saved -> log.debug("Audit log saved: {}", saved.getId()))
-            .doOnError(error -> log.error("Failed to save audit log", error))
-            .then()
-            .toFuture();
+        boolean accepted = ingestionQueue.offer(auditLog);
+        if (!accepted) {
+            log.debug("Audit log dropped for request: {}", auditLog.getRequestId());
+        }
+        return accepted;
+    }
+    
+    /**
+     * Persist a batch of audit logs through the configured sink.
+     * 
+     * @param batch Audit logs collected by the batch writer
+     * @return number of rows written
+     */
+    public Mono<Long> writeBatch(List<RequestAuditLog> batch) {
+        return auditSink.write(batch);
     }
     
     /**
@@ -6,9 +6,15 @@
  */
 package com.nopaper.work.gateway.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
-import org.springframework.cache.annotation.Cacheable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 
@@ -16,63 +22,258 @@ import org.springframework.cache.annotation.Cacheable;
 
 import org.springframework.stereotype.Service;
 
-import com.nopaper.work.gateway.dto.RouteDefinitionDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nopaper.work.gateway.dto.CustomFilterDTO;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.dto.RouteChanges;
+import com.nopaper.work.gateway.dto.UpstreamDTO;
 import com.nopaper.work.gateway.models.GatewayRoute;
+import com.nopaper.work.gateway.models.GatewayRouteUpstream;
 import com.nopaper.work.gateway.repositories.GatewayRouteRepository;
+import com.nopaper.work.gateway.repositories.GatewayRouteUpstreamRepository;
+import com.nopaper.work.gateway.snapshot.LocalSnapshot;
+import com.nopaper.work.gateway.snapshot.LocalSnapshotStore;
 
+import io.r2dbc.postgresql.codec.Json;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
- * Service for managing gateway routes with Redis caching.
+ * Service for managing gateway routes.
  * 
- * IMPORTANT: We cache DTOs (not RouteDefinition objects) to avoid serialization issues.
+ * Enabled routes are kept as an immutable in-memory snapshot, seeded from the
+ * local snapshot file at startup and swapped atomically on reload (see
+ * RouteChangeListener), so route lookups never hit Redis or the database.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RouteService {
     
+    private static final TypeReference<List<CustomFilterDTO>> DEFINITIONS = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {};
+    
     private final GatewayRouteRepository routeRepository;
+    private final GatewayRouteUpstreamRepository upstreamRepository;
+    private final LocalSnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
     
     /**
      * Returns DTOs which are Serializable, avoiding NotSerializableException.
      */
     
-    /**
-     * Get all enabled routes from the database with Redis caching.
-     * The @Cacheable annotation ensures this method only hits the database
-     * if the "routes" cache is empty.
-     * * @return A Mono emitting a List of all enabled RouteDefinitionDTOs.
-     */
-    
     /*
-     * public Flux<RouteDefinitionDTO> getEnabledRoutes() {
+     * public Flux<CustomRouteDefinitionDTO> getEnabledRoutes() {
         log.debug("Fetching enabled routes from database");
         return routeRepository.findByEnabledTrue()
             .map(this::toDTO);
     } */
     
-    @Cacheable("routes")
-    public Mono<List<RouteDefinitionDTO>> getEnabledRoutes() {
-        log.debug("Fetching enabled routes from database and caching in Redis");
-        return routeRepository.findByEnabledTrue()
-            .map(this::toDTO)
-            .collectList(); // Collect Flux into a List, which is cacheable
+    private volatile Snapshot snapshot;
+    
+    // Reloads may overlap (NOTIFY, cluster sync); only the latest one started is installed
+    private final AtomicLong reloadSequence = new AtomicLong();
+    private volatile long installedSequence;
+    
+    /**
+     * Serve the routes of the local snapshot file, if any, until the first
+     * database load replaces them.
+     */
+    @PostConstruct
+    public void seedFromLocalSnapshot() {
+        snapshotStore.getLoaded()
+            .map(LocalSnapshot::routes)
+            .ifPresent(routes -> {
+                snapshot = new Snapshot(routes);
+                log.info("Route snapshot seeded with {} routes from the local snapshot file", routes.size());
+            });
+    }
+    
+    /**
+     * Current snapshot of enabled routes. Only the very first call, before
+     * the initial load, goes to the database.
+     */
+    public Mono<List<CustomRouteDefinitionDTO>> getEnabledRoutes() {
+        Snapshot current = snapshot;
+        return current != null
+            ? Mono.just(current.routes())
+            : reloadEnabledRoutes().map(changes -> snapshot.routes());
+    }
+    
+    /**
+     * Version of the route table: a hash over the content of all enabled
+     * routes, so nodes that loaded the same routes report the same version.
+     * 
+     * @return the version in hex, null before the first load
+     */
+    public String getSnapshotVersion() {
+        Snapshot current = snapshot;
+        return current == null ? null : Long.toHexString(current.version());
+    }
+    
+    /**
+     * Number of database reloads started so far. A snapshot whose
+     * {@link #getSnapshotSequence()} is greater was read after this call.
+     */
+    public long getReloadsStarted() {
+        return reloadSequence.get();
+    }
+    
+    /**
+     * @return the reload the current snapshot came from, 0 before the first
+     *         database load
+     */
+    public long getSnapshotSequence() {
+        return installedSequence;
+    }
+    
+    /**
+     * Read the enabled routes from the database and replace the snapshot.
+     * Routes are compared by a hash of their content, so the caller can
+     * rebuild only the routes that actually changed.
+     * 
+     * @return the routes added, changed and removed since the previous snapshot
+     */
+    public Mono<RouteChanges> reloadEnabledRoutes() {
+        return Mono.defer(() -> {
+            long sequence = reloadSequence.incrementAndGet();
+            log.debug("Loading enabled routes from database");
+            return Mono.zip(routeRepository.findByEnabledTrue().mapNotNull(this::toDTO).collectList(),
+                    upstreamRepository.findByEnabledTrueOrderByIdAsc().collectList())
+                .map(loaded -> install(sequence, new Snapshot(withUpstreams(loaded.getT1(), loaded.getT2()))));
+        });
+    }
+    
+    private synchronized RouteChanges install(long sequence, Snapshot next) {
+        if (sequence < installedSequence) {
+            // A reload that started later has already been installed
+            log.debug("Discarding route reload #{}, #{} is newer", sequence, installedSequence);
+            return new RouteChanges(false, Set.of(), Set.of(), Set.of());
+        }
+        Snapshot previous = snapshot;
+        snapshot = next;
+        installedSequence = sequence;
+        RouteChanges changes = diff(previous, next);
+        snapshotStore.routesSynced(next.routes(), !changes.isEmpty());
+        log.info("Route snapshot reloaded with {} enabled routes ({} added, {} changed, {} removed)",
+            next.routes().size(), changes.added().size(), changes.changed().size(), changes.removed().size());
+        return changes;
+    }
+    
+    private static List<CustomRouteDefinitionDTO> withUpstreams(List<CustomRouteDefinitionDTO> routes,
+            List<GatewayRouteUpstream> upstreams) {
+        Map<String, List<UpstreamDTO>> byRoute = new HashMap<>();
+        for (GatewayRouteUpstream upstream : upstreams) {
+            int weight = upstream.getWeight() == null ? 1 : upstream.getWeight();
+            byRoute.computeIfAbsent(upstream.getRouteId(), routeId -> new ArrayList<>())
+                .add(new UpstreamDTO(upstream.getUri(), weight, upstream.getHealthCheckPath()));
+        }
+        routes.forEach(route -> route.setUpstreams(byRoute.getOrDefault(route.getRouteId(), List.of())));
+        return routes;
+    }
+    
+    private static RouteChanges diff(Snapshot previous, Snapshot next) {
+        if (previous == null) {
+            return new RouteChanges(true, next.hashes().keySet(), Set.of(), Set.of());
+        }
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> changed = new LinkedHashSet<>();
+        next.hashes().forEach((routeId, hash) -> {
+            Long before = previous.hashes().get(routeId);
+            if (before == null) {
+                added.add(routeId);
+            } else if (before.longValue() != hash.longValue()) {
+                changed.add(routeId);
+            }
+        });
+        Set<String> removed = new LinkedHashSet<>(previous.hashes().keySet());
+        removed.removeAll(next.hashes().keySet());
+        return new RouteChanges(false, added, changed, removed);
+    }
+    
+    /**
+     * 64-bit FNV-1a over every field that ends up in the route definition.
+     */
+    static long contentHash(CustomRouteDefinitionDTO route) {
+        long hash = 0xcbf29ce484222325L;
+        for (Object field : new Object[] {route.getRouteId(), route.getUri(), route.getPath(), route.getMethod(),
+                route.getRateLimitRequests(), route.getRateLimitPeriodSeconds(), route.getRateLimitRate(),
+                route.getRateLimitUnit(), route.getRateLimitBurst(), route.getRateLimitAlgorithm(),
+                route.getCircuitFailureRate(), route.getCircuitSlowCallMs(), route.getCircuitSlowCallRate(),
+                route.getCircuitHalfOpenCalls(), route.getCircuitOpenSeconds(), route.getPredicates(),
+                route.getFilters(), route.getMetadata(), route.getUpstreams()}) {
+            String value = field == null ? "\0" : field.toString();
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            // Field separator, so ("ab", "c") and ("a", "bc") differ
+            hash = (hash ^ 0x1f) * 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Immutable routes plus their content hashes, keyed by route id. The
+     * version is the sum of the hashes, independent of the route order.
+     */
+    private record Snapshot(List<CustomRouteDefinitionDTO> routes, Map<String, Long> hashes, long version) {
+        
+        Snapshot(List<CustomRouteDefinitionDTO> routes) {
+            this(List.copyOf(routes), hashesOf(routes));
+        }
+        
+        private Snapshot(List<CustomRouteDefinitionDTO> routes, Map<String, Long> hashes) {
+            this(routes, hashes, hashes.values().stream().mapToLong(Long::longValue).sum());
+        }
+        
+        private static Map<String, Long> hashesOf(List<CustomRouteDefinitionDTO> routes) {
+            Map<String, Long> hashes = new LinkedHashMap<>();
+            routes.forEach(route -> hashes.put(route.getRouteId(), contentHash(route)));
+            return Collections.unmodifiableMap(hashes);
+        }
     }
     
     /**
      * Convert database entity to cacheable DTO.
+     * 
+     * @return null if the JSONB columns cannot be read; the route is left out
+     *         rather than served without its predicates or filters
      */
-    private RouteDefinitionDTO toDTO(GatewayRoute entity) {
-        return new RouteDefinitionDTO(
-            entity.getRouteId(),
-            entity.getUri(),
-            entity.getPath(),
-            entity.getMethod(),
-            entity.getRateLimitRequests(),
-            entity.getRateLimitPeriodSeconds()
-        );
+    private CustomRouteDefinitionDTO toDTO(GatewayRoute entity) {
+        CustomRouteDefinitionDTO dto = new CustomRouteDefinitionDTO();
+        dto.setRouteId(entity.getRouteId());
+        dto.setUri(entity.getUri());
+        dto.setPath(entity.getPath());
+        dto.setMethod(entity.getMethod());
+        dto.setEnabled(Boolean.TRUE.equals(entity.getEnabled()));
+        dto.setRateLimitRequests(entity.getRateLimitRequests());
+        dto.setRateLimitPeriodSeconds(entity.getRateLimitPeriodSeconds());
+        dto.setRateLimitRate(entity.getRateLimitRate() == null ? null : entity.getRateLimitRate().doubleValue());
+        dto.setRateLimitUnit(entity.getRateLimitUnit());
+        dto.setRateLimitBurst(entity.getRateLimitBurst());
+        dto.setRateLimitAlgorithm(entity.getRateLimitAlgorithm());
+        dto.setCircuitFailureRate(entity.getCircuitFailureRate());
+        dto.setCircuitSlowCallMs(entity.getCircuitSlowCallMs());
+        dto.setCircuitSlowCallRate(entity.getCircuitSlowCallRate());
+        dto.setCircuitHalfOpenCalls(entity.getCircuitHalfOpenCalls());
+        dto.setCircuitOpenSeconds(entity.getCircuitOpenSeconds());
+        try {
+            dto.setPredicates(readJson(entity.getPredicates(), DEFINITIONS));
+            dto.setFilters(readJson(entity.getFilters(), DEFINITIONS));
+            dto.setMetadata(readJson(entity.getMetadata(), METADATA));
+        } catch (JsonProcessingException e) {
+            log.error("Skipping route {}: invalid predicates, filters or metadata JSON: {}",
+                entity.getRouteId(), e.getOriginalMessage());
+            return null;
+        }
+        return dto;
+    }
+    
+    private <T> T readJson(Json json, TypeReference<T> type) throws JsonProcessingException {
+        return json == null ? null : objectMapper.readValue(json.asString(), type);
     }
 }
@@ -0,0 +1,30 @@
+/**
+ * @package com.nopaper.work.gateway.snapshot -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:25:48 am
+ * @git 
+ */
+package com.nopaper.work.gateway.snapshot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+/**
+ * Last good copy of the routes and the IP blacklist, as read from the local
+ * snapshot file.
+ *
+ * @param routes enabled routes, null if the file has none
+ * @param routesSyncedAt epoch millis of the database load the routes came from
+ * @param blacklist blacklisted IPs and their expiry, LocalDateTime.MAX for
+ *        permanent entries; null if the file has none
+ * @param blacklistSyncedAt epoch millis of the database load the blacklist came from
+ */
+public record LocalSnapshot(
+        List<CustomRouteDefinitionDTO> routes,
+        long routesSyncedAt,
+        Map<String, LocalDateTime> blacklist,
+        long blacklistSyncedAt) {
+}
@@ -0,0 +1,231 @@
+/**
+ * @package com.nopaper.work.gateway.snapshot -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:31:02 am
+ * @git 
+ */
+package com.nopaper.work.gateway.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nopaper.work.gateway.dto.CustomFilterDTO;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.dto.UpstreamDTO;
+
+/**
+ * Binary encoding of the local snapshot file.
+ *
+ * Layout: magic, format version, then the routes section (synced-at millis,
+ * count, routes) and the blacklist section (synced-at millis, count, entries),
+ * followed by a CRC32C of everything before it. A section that was never
+ * loaded has a negative count. Nullable fields are a presence byte plus the
+ * value; a route's predicates, filters, metadata and upstreams are stored as
+ * JSON.
+ * Expiry is stored as epoch millis of the local date-time, with
+ * Long.MAX_VALUE for permanent entries; IpBlacklistService truncates expiries
+ * to millis, so they read back equal.
+ */
+final class LocalSnapshotCodec {
+
+    private static final int MAGIC = 0x47575350; // "GWSP"
+    private static final short FORMAT_VERSION = 7;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<CustomFilterDTO>> DEFINITIONS = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {};
+    private static final TypeReference<List<UpstreamDTO>> UPSTREAMS = new TypeReference<>() {};
+
+    private LocalSnapshotCodec() {
+    }
+
+    static byte[] encode(LocalSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+
+        out.writeLong(snapshot.routesSyncedAt());
+        List<CustomRouteDefinitionDTO> routes = snapshot.routes();
+        out.writeInt(routes == null ? -1 : routes.size());
+        if (routes != null) {
+            for (CustomRouteDefinitionDTO route : routes) {
+                out.writeUTF(route.getRouteId());
+                writeString(out, route.getUri());
+                writeString(out, route.getPath());
+                writeString(out, route.getMethod());
+                writeInteger(out, route.getRateLimitRequests());
+                writeInteger(out, route.getRateLimitPeriodSeconds());
+                writeDouble(out, route.getRateLimitRate());
+                writeString(out, route.getRateLimitUnit());
+                writeInteger(out, route.getRateLimitBurst());
+                writeString(out, route.getRateLimitAlgorithm());
+                writeInteger(out, route.getCircuitFailureRate());
+                writeInteger(out, route.getCircuitSlowCallMs());
+                writeInteger(out, route.getCircuitSlowCallRate());
+                writeInteger(out, route.getCircuitHalfOpenCalls());
+                writeInteger(out, route.getCircuitOpenSeconds());
+                writeJson(out, route.getPredicates());
+                writeJson(out, route.getFilters());
+                writeJson(out, route.getMetadata());
+                writeJson(out, route.getUpstreams());
+            }
+        }
+
+        out.writeLong(snapshot.blacklistSyncedAt());
+        Map<String, LocalDateTime> blacklist = snapshot.blacklist();
+        out.writeInt(blacklist == null ? -1 : blacklist.size());
+        if (blacklist != null) {
+            for (Map.Entry<String, LocalDateTime> entry : blacklist.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(LocalDateTime.MAX.equals(entry.getValue())
+                    ? Long.MAX_VALUE
+                    : entry.getValue().toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        }
+
+        out.flush();
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.toByteArray());
+        out.writeInt((int) checksum.getValue());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the data is truncated, corrupt or of another format version
+     */
+    static LocalSnapshot decode(byte[] data) throws IOException {
+        if (data.length < 4) {
+            throw new IOException("Snapshot file is truncated");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(data, 0, data.length - 4);
+        int expected = ((data[data.length - 4] & 0xff) << 24) | ((data[data.length - 3] & 0xff) << 16)
+            | ((data[data.length - 2] & 0xff) << 8) | (data[data.length - 1] & 0xff);
+        if ((int) checksum.getValue() != expected) {
+            throw new IOException("Snapshot file checksum mismatch");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a gateway snapshot file");
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version);
+        }
+
+        long routesSyncedAt = in.readLong();
+        int routeCount = in.readInt();
+        List<CustomRouteDefinitionDTO> routes = null;
+        if (routeCount >= 0) {
+            routes = new ArrayList<>(routeCount);
+            for (int i = 0; i < routeCount; i++) {
+                CustomRouteDefinitionDTO route = new CustomRouteDefinitionDTO();
+                route.setRouteId(in.readUTF());
+                route.setUri(readString(in));
+                route.setPath(readString(in));
+                route.setMethod(readString(in));
+                route.setEnabled(true);
+                route.setRateLimitRequests(readInteger(in));
+                route.setRateLimitPeriodSeconds(readInteger(in));
+                route.setRateLimitRate(readDouble(in));
+                route.setRateLimitUnit(readString(in));
+                route.setRateLimitBurst(readInteger(in));
+                route.setRateLimitAlgorithm(readString(in));
+                route.setCircuitFailureRate(readInteger(in));
+                route.setCircuitSlowCallMs(readInteger(in));
+                route.setCircuitSlowCallRate(readInteger(in));
+                route.setCircuitHalfOpenCalls(readInteger(in));
+                route.setCircuitOpenSeconds(readInteger(in));
+                route.setPredicates(readJson(in, DEFINITIONS));
+                route.setFilters(readJson(in, DEFINITIONS));
+                route.setMetadata(readJson(in, METADATA));
+                route.setUpstreams(readJson(in, UPSTREAMS));
+                routes.add(route);
+            }
+        }
+
+        long blacklistSyncedAt = in.readLong();
+        int entryCount = in.readInt();
+        Map<String, LocalDateTime> blacklist = null;
+        if (entryCount >= 0) {
+            blacklist = new HashMap<>(entryCount * 2);
+            for (int i = 0; i < entryCount; i++) {
+                String ip = in.readUTF();
+                long expiresAt = in.readLong();
+                blacklist.put(ip, expiresAt == Long.MAX_VALUE
+                    ? LocalDateTime.MAX
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneOffset.UTC));
+            }
+        }
+        return new LocalSnapshot(routes, routesSyncedAt, blacklist, blacklistSyncedAt);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Length-prefixed UTF-8 JSON; writeUTF is limited to 64 KB.
+     */
+    private static void writeJson(DataOutputStream out, Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] json = JSON.writeValueAsBytes(value);
+            out.writeInt(json.length);
+            out.write(json);
+        }
+    }
+
+    private static <T> T readJson(DataInputStream in, TypeReference<T> type) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] json = new byte[in.readInt()];
+        in.readFully(json);
+        return JSON.readValue(json, type);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * @package com.nopaper.work.gateway.snapshot -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:40:26 am
+ * @git 
+ */
+package com.nopaper.work.gateway.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the last good routes and IP blacklist in a local binary file
+ * (gateway.snapshot.file), so a starting node can serve traffic before the
+ * database and Redis answer.
+ *
+ * The file is read synchronously while the context starts; RouteService and
+ * IpBlacklistService seed themselves from it and then reconcile against the
+ * database in the background (see SnapshotReconciler). Whenever a database
+ * load changes the data the file is rewritten, off the calling thread, via a
+ * temp file and an atomic move, so a crash never leaves a torn snapshot.
+ *
+ * gateway.snapshot.staleness{snapshot=routes|blacklist} reports the seconds
+ * since the data being served was last loaded from the database.
+ */
+@Slf4j
+@Component
+public class LocalSnapshotStore {
+
+    private final boolean enabled;
+    private final Path file;
+
+    private volatile LocalSnapshot loaded;
+
+    private volatile List<CustomRouteDefinitionDTO> routes;
+    private volatile long routesSyncedAt;
+    private volatile Map<String, LocalDateTime> blacklist;
+    private volatile long blacklistSyncedAt;
+
+    public LocalSnapshotStore(@Value("${gateway.snapshot.enabled:true}") boolean enabled,
+            @Value("${gateway.snapshot.file:snapshot/gateway.snap}") String file, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.file = Paths.get(file);
+        Gauge.builder("gateway.snapshot.staleness", this, store -> secondsSince(store.routesSyncedAt))
+            .tag("snapshot", "routes")
+            .description("Seconds since the routes being served were loaded from the database")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("gateway.snapshot.staleness", this, store -> secondsSince(store.blacklistSyncedAt))
+            .tag("snapshot", "blacklist")
+            .description("Seconds since the IP blacklist being served was loaded from the database")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalSnapshot snapshot = LocalSnapshotCodec.decode(Files.readAllBytes(file));
+            loaded = snapshot;
+            routes = snapshot.routes();
+            routesSyncedAt = snapshot.routesSyncedAt();
+            blacklist = snapshot.blacklist();
+            blacklistSyncedAt = snapshot.blacklistSyncedAt();
+            log.info("Loaded local snapshot {}: {} routes (synced {}s ago), {} blacklist entries (synced {}s ago)",
+                file, snapshot.routes() == null ? "no" : snapshot.routes().size(), secondsSince(routesSyncedAt),
+                snapshot.blacklist() == null ? "no" : snapshot.blacklist().size(), secondsSince(blacklistSyncedAt));
+        } catch (NoSuchFileException e) {
+            log.info("No local snapshot at {}, waiting for the database", file);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable local snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot read from disk at startup, empty if there was none.
+     */
+    public Optional<LocalSnapshot> getLoaded() {
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * Record a successful database load of the routes; the file is rewritten
+     * if they changed.
+     */
+    public void routesSynced(List<CustomRouteDefinitionDTO> current, boolean changed) {
+        routes = current;
+        routesSyncedAt = System.currentTimeMillis();
+        if (changed) {
+            saveAsync();
+        }
+    }
+
+    /**
+     * Record a successful database load of the blacklist; the file is
+     * rewritten if it changed.
+     */
+    public void blacklistSynced(Map<String, LocalDateTime> current, boolean changed) {
+        blacklist = current;
+        blacklistSyncedAt = System.currentTimeMillis();
+        if (changed) {
+            saveAsync();
+        }
+    }
+
+    private void saveAsync() {
+        if (!enabled) {
+            return;
+        }
+        Mono.fromRunnable(this::save)
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe();
+    }
+
+    /**
+     * Synchronized so concurrent saves do not share the temp file; each save
+     * writes the latest state, so a queued save is never older than its data.
+     */
+    private synchronized void save() {
+        try {
+            byte[] data = LocalSnapshotCodec.encode(
+                new LocalSnapshot(routes, routesSyncedAt, blacklist, blacklistSyncedAt));
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = parent.resolve(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Local snapshot written to {} ({} bytes)", file, data.length);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write local snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static double secondsSince(long epochMillis) {
+        return epochMillis <= 0 ? Double.NaN : (System.currentTimeMillis() - epochMillis) / 1000.0;
+    }
+}
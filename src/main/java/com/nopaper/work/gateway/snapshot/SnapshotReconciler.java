@@ -0,0 +1,78 @@
+/**
+ * @package com.nopaper.work.gateway.snapshot -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:58:14 am
+ * @git 
+ */
+package com.nopaper.work.gateway.snapshot;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.routing.RouteSnapshotRefresher;
+import com.nopaper.work.gateway.service.IpBlacklistService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reconciles the in-memory routes and IP blacklist against the database in
+ * the background: once right after startup, replacing whatever was seeded
+ * from the local snapshot file, and then periodically.
+ *
+ * Route changes normally arrive through NOTIFY and cluster sync; the periodic
+ * route reload is a safety net and only refreshes routes that differ. The
+ * blacklist has no change feed and relies on its own, shorter interval.
+ */
+@Slf4j
+@Component
+public class SnapshotReconciler {
+
+    private final RouteSnapshotRefresher refresher;
+    private final IpBlacklistService blacklistService;
+    private final Duration routesInterval;
+    private final Duration blacklistInterval;
+
+    private final Disposable.Composite schedules = Disposables.composite();
+
+    public SnapshotReconciler(RouteSnapshotRefresher refresher, IpBlacklistService blacklistService,
+            @Value("${gateway.snapshot.reconcile-interval:5m}") Duration routesInterval,
+            @Value("${gateway.blacklist.refresh-interval:1m}") Duration blacklistInterval) {
+        this.refresher = refresher;
+        this.blacklistService = blacklistService;
+        this.routesInterval = routesInterval;
+        this.blacklistInterval = blacklistInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedules.add(schedule(routesInterval, () -> refresher.reload().then(), "routes"));
+        schedules.add(schedule(blacklistInterval, () -> blacklistService.reloadBlacklist().then(), "IP blacklist"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        schedules.dispose();
+    }
+
+    private Disposable schedule(Duration interval, Supplier<Mono<Void>> reload, String name) {
+        return Flux.interval(Duration.ZERO, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> reload.get()
+                .onErrorResume(error -> {
+                    log.warn("Failed to reconcile {} with the database, serving the previous copy: {}",
+                        name, error.getMessage());
+                    return Mono.empty();
+                }), 1)
+            .subscribe();
+    }
+}
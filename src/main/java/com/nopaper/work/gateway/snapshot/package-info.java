@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.snapshot -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 7:24:10 am
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.snapshot;
\ No newline at end of file
@@ -0,0 +1,225 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:22:36 am
+ * @git 
+ */
+package com.nopaper.work.gateway.upstream;
+
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.nopaper.work.gateway.config.UpstreamProperties;
+
+/**
+ * Load and health state of one upstream endpoint.
+ *
+ * Load is the requests in flight and a peak-sensitive EWMA of observed
+ * latency. A slower response replaces the average right away, faster ones
+ * pull it down gradually, and the average decays while no response is
+ * observed, so an endpoint that was slow gets probed again eventually.
+ *
+ * Health is passive and active: consecutive failed requests eject the
+ * endpoint for a backoff window that doubles with every ejection in a row
+ * (plus up to 10% jitter, so endpoints ejected together do not return
+ * together), and failed health probes mark it down until enough probes
+ * succeed. The two are independent: an endpoint that answers its probe but
+ * fails real requests stays ejected.
+ *
+ * Lock-free: the counters are atomics and the average is updated with a CAS
+ * loop. The decay timestamp is written after the average, which can make the
+ * cost slightly off under contention but never blocks a request.
+ */
+public final class UpstreamEndpoint {
+
+    private final URI uri;
+    private final UpstreamProperties properties;
+    private final long decayNanos;
+    private final long penaltyNanos;
+    private volatile String healthCheckPath;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double bits of the EWMA in nanoseconds, 0 until the first response
+    private final AtomicLong ewma = new AtomicLong();
+    private volatile long lastObservedNanos = System.nanoTime();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // Ejections in a row, without a successful request in between
+    private final AtomicInteger ejections = new AtomicInteger();
+    // In the past while not ejected; nanoTime values only compare by difference
+    private final AtomicLong ejectedUntilNanos = new AtomicLong(System.nanoTime());
+
+    private volatile boolean healthy = true;
+    // Positive: successful probes in a row, negative: failed probes in a row
+    private final AtomicInteger probeStreak = new AtomicInteger();
+
+    UpstreamEndpoint(URI uri, String healthCheckPath, UpstreamProperties properties) {
+        this.uri = uri;
+        this.healthCheckPath = healthCheckPath;
+        this.properties = properties;
+        this.decayNanos = Math.max(1, properties.getEwmaDecay().toNanos());
+        this.penaltyNanos = properties.getErrorPenalty().toNanos();
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getHealthCheckPath() {
+        return healthCheckPath;
+    }
+
+    void setHealthCheckPath(String healthCheckPath) {
+        this.healthCheckPath = healthCheckPath;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Latency EWMA in nanoseconds, decayed to now.
+     */
+    public double getLatencyNanos() {
+        return decayed(Double.longBitsToDouble(ewma.get()), System.nanoTime());
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public int getEjections() {
+        return ejections.get();
+    }
+
+    /**
+     * @return nanoseconds until the ejection ends, 0 if not ejected
+     */
+    public long getEjectedForNanos() {
+        return Math.max(0, ejectedUntilNanos.get() - System.nanoTime());
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isAvailable(long nowNanos) {
+        return healthy && nowNanos - ejectedUntilNanos.get() >= 0;
+    }
+
+    /**
+     * Expected cost of sending one more request here: the latency EWMA times
+     * the requests it would queue behind. An endpoint without an observed
+     * response is free while idle and costs the penalty per request in flight,
+     * so a new endpoint does not take every request until its first response.
+     */
+    double cost(long nowNanos) {
+        double latency = decayed(Double.longBitsToDouble(ewma.get()), nowNanos);
+        int pending = inFlight.get();
+        if (latency == 0) {
+            return pending == 0 ? 0 : (double) penaltyNanos * pending;
+        }
+        return latency * (pending + 1);
+    }
+
+    /**
+     * @return the start time to pass to {@link #complete(long, boolean)}
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a finished request; a failed one (error or 5xx) counts as at
+     * least the penalty and towards ejection.
+     *
+     * @return true if this request ejected the endpoint
+     */
+    public boolean complete(long startNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        observe(failed ? Math.max(now - startNanos, penaltyNanos) : now - startNanos, now);
+        if (!failed) {
+            // Plain reads first, so the common case does not write shared cache lines
+            if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+            if (ejections.get() != 0 && isAvailable(now)) {
+                ejections.set(0);
+            }
+            return false;
+        }
+        return consecutiveFailures.incrementAndGet() >= properties.getOutlier().getConsecutiveFailures()
+            && eject(now);
+    }
+
+    /**
+     * Release a request that was cancelled before it completed, without
+     * recording its latency.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Record a health probe result.
+     *
+     * @return true if the endpoint went up or down
+     */
+    boolean probed(boolean success) {
+        UpstreamProperties.HealthCheck settings = properties.getHealthCheck();
+        int streak = probeStreak.updateAndGet(current -> success ? Math.max(current, 0) + 1 : Math.min(current, 0) - 1);
+        if (healthy && streak <= -settings.getUnhealthyThreshold()) {
+            healthy = false;
+            return true;
+        }
+        if (!healthy && streak >= settings.getHealthyThreshold()) {
+            healthy = true;
+            consecutiveFailures.set(0);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean eject(long nowNanos) {
+        long until = ejectedUntilNanos.get();
+        if (nowNanos - until < 0) {
+            // Already ejected, by this request's peers
+            return false;
+        }
+        UpstreamProperties.Outlier settings = properties.getOutlier();
+        int streak = Math.min(ejections.get(), 20);
+        long window = Math.min(settings.getBaseEjection().toNanos() << streak, settings.getMaxEjection().toNanos());
+        window += (long) (window * 0.1 * ThreadLocalRandom.current().nextDouble());
+        if (!ejectedUntilNanos.compareAndSet(until, nowNanos + window)) {
+            return false;
+        }
+        ejections.incrementAndGet();
+        consecutiveFailures.set(0);
+        return true;
+    }
+
+    private void observe(double latency, long nowNanos) {
+        long current;
+        double next;
+        do {
+            current = ewma.get();
+            double average = Double.longBitsToDouble(current);
+            next = latency > average ? latency : average + (latency - average) * weightOf(nowNanos);
+        } while (!ewma.compareAndSet(current, Double.doubleToRawLongBits(next)));
+        lastObservedNanos = nowNanos;
+    }
+
+    private double decayed(double average, long nowNanos) {
+        return average * (1 - weightOf(nowNanos));
+    }
+
+    // Weight of a new observation: 1 - e^(-elapsed / decay)
+    private double weightOf(long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - lastObservedNanos);
+        return -Math.expm1(-(double) elapsed / decayNanos);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:24:10 am
+ * @git 
+ */
+package com.nopaper.work.gateway.upstream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.nopaper.work.gateway.config.UpstreamProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Active health checks of upstream endpoints that have a health_check_path.
+ *
+ * All probes run off one shared scheduler: every interval each endpoint is
+ * probed with GET after a random delay up to the jitter, so probes of many
+ * endpoints (and of many gateway nodes) do not arrive in bursts. A 2xx answer
+ * within the timeout is a success; anything else is a failure. Endpoints go
+ * down and up after the configured number of results in a row.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.upstreams.health-check.enabled", havingValue = "true", matchIfMissing = true)
+public class UpstreamHealthChecker {
+
+    private final UpstreamLoadBalancer loadBalancer;
+    private final UpstreamProperties.HealthCheck settings;
+    private final WebClient webClient;
+    private final Counter markedDown;
+    private final Counter markedUp;
+
+    private Scheduler scheduler;
+    private Disposable probes;
+
+    public UpstreamHealthChecker(UpstreamLoadBalancer loadBalancer, UpstreamProperties properties,
+            WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        this.loadBalancer = loadBalancer;
+        this.settings = properties.getHealthCheck();
+        this.webClient = webClientBuilder.build();
+        this.markedDown = Counter.builder("gateway.upstreams.health.transitions")
+            .tag("state", "down")
+            .description("Upstream endpoints marked down or up by health probes")
+            .register(meterRegistry);
+        this.markedUp = Counter.builder("gateway.upstreams.health.transitions")
+            .tag("state", "up")
+            .description("Upstream endpoints marked down or up by health probes")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Schedulers.newSingle("upstream-health", true);
+        probes = Flux.interval(settings.getInterval(), settings.getInterval(), scheduler)
+            .onBackpressureDrop()
+            .concatMap(tick -> probeAll(), 1)
+            .subscribe();
+        log.info("Upstream health checks started (every {} with up to {} jitter)",
+            settings.getInterval(), settings.getJitter());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (probes != null) {
+            probes.dispose();
+            scheduler.dispose();
+        }
+    }
+
+    private Mono<Void> probeAll() {
+        List<Target> targets = new ArrayList<>();
+        loadBalancer.pools().forEach((routeId, pool) -> pool.getEndpoints().stream()
+            .filter(endpoint -> endpoint.getHealthCheckPath() != null)
+            .forEach(endpoint -> targets.add(new Target(routeId, endpoint))));
+        long jitterMillis = settings.getJitter().toMillis();
+        return Flux.fromIterable(targets)
+            .flatMap(target -> Mono.delay(Duration.ofMillis(
+                    jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0), scheduler)
+                .then(probe(target.endpoint()))
+                .doOnNext(success -> record(target, success)), settings.getConcurrency())
+            .then();
+    }
+
+    private Mono<Boolean> probe(UpstreamEndpoint endpoint) {
+        return webClient.get()
+            .uri(endpoint.getUri().resolve(endpoint.getHealthCheckPath()))
+            .retrieve()
+            .toBodilessEntity()
+            .timeout(settings.getTimeout())
+            .map(response -> response.getStatusCode().is2xxSuccessful())
+            .onErrorResume(error -> {
+                log.debug("Health probe of {} failed: {}", endpoint.getUri(), error.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    private void record(Target target, boolean success) {
+        if (!target.endpoint().probed(success)) {
+            return;
+        }
+        if (target.endpoint().isHealthy()) {
+            markedUp.increment();
+            log.info("Upstream {} of route {} is up again", target.endpoint().getUri(), target.routeId());
+        } else {
+            markedDown.increment();
+            log.warn("Upstream {} of route {} marked down after failed health probes",
+                target.endpoint().getUri(), target.routeId());
+        }
+    }
+
+    private record Target(String routeId, UpstreamEndpoint endpoint) {
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:40:52 am
+ * @git 
+ */
+package com.nopaper.work.gateway.upstream;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.nopaper.work.gateway.config.UpstreamProperties;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.dto.RouteChanges;
+import com.nopaper.work.gateway.dto.UpstreamDTO;
+import com.nopaper.work.gateway.service.RouteService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upstream pools of the routes that have rows in gateway_route_upstreams,
+ * keyed by route id.
+ *
+ * Pools are rebuilt from the route snapshot whenever routes are reloaded.
+ * Endpoints that are still listed keep their latency, in-flight and health
+ * state, so a reload does not reset what was learned about them.
+ */
+@Slf4j
+@Component
+public class UpstreamLoadBalancer {
+
+    private final RouteService routeService;
+    private final UpstreamProperties properties;
+    private final Counter ejections;
+
+    private volatile Map<String, UpstreamPool> pools = Map.of();
+
+    public UpstreamLoadBalancer(RouteService routeService, UpstreamProperties properties,
+            MeterRegistry meterRegistry) {
+        this.routeService = routeService;
+        this.properties = properties;
+        this.ejections = Counter.builder("gateway.upstreams.ejections")
+            .description("Upstream endpoints ejected after consecutive failures")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the route's pool, null if the route goes to its own uri
+     */
+    public UpstreamPool pool(String routeId) {
+        return pools.get(routeId);
+    }
+
+    public Map<String, UpstreamPool> pools() {
+        return pools;
+    }
+
+    /**
+     * Record the outcome of a proxied request.
+     *
+     * @param failed the request failed or the upstream answered 5xx
+     */
+    public void complete(String routeId, UpstreamEndpoint endpoint, long startNanos, boolean failed) {
+        if (endpoint.complete(startNanos, failed)) {
+            ejections.increment();
+            log.warn("Upstream {} of route {} ejected for {} ms after consecutive failures (ejection #{})",
+                endpoint.getUri(), routeId, endpoint.getEjectedForNanos() / 1_000_000, endpoint.getEjections());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onRoutesReloaded(RouteChanges changes) {
+        rebuild();
+    }
+
+    private void rebuild() {
+        routeService.getEnabledRoutes()
+            .subscribe(this::rebuild, error -> log.error("Failed to build upstream pools", error));
+    }
+
+    private synchronized void rebuild(List<CustomRouteDefinitionDTO> routes) {
+        Map<String, UpstreamPool> previous = pools;
+        Map<String, UpstreamPool> next = new HashMap<>();
+        for (CustomRouteDefinitionDTO route : routes) {
+            if (route.getUpstreams() == null || route.getUpstreams().isEmpty()) {
+                continue;
+            }
+            UpstreamPool before = previous.get(route.getRouteId());
+            List<UpstreamEndpoint> endpoints = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            for (UpstreamDTO upstream : route.getUpstreams()) {
+                UpstreamEndpoint endpoint = before == null ? null : before.find(upstream.getUri());
+                if (endpoint != null) {
+                    endpoint.setHealthCheckPath(upstream.getHealthCheckPath());
+                } else {
+                    try {
+                        endpoint = new UpstreamEndpoint(URI.create(upstream.getUri()), upstream.getHealthCheckPath(),
+                            properties);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Skipping invalid upstream '{}' of route {}", upstream.getUri(), route.getRouteId());
+                        continue;
+                    }
+                }
+                endpoints.add(endpoint);
+                weights.add(Math.max(1, upstream.getWeight()));
+            }
+            if (!endpoints.isEmpty()) {
+                next.put(route.getRouteId(), new UpstreamPool(endpoints, weights));
+            }
+        }
+        pools = Map.copyOf(next);
+        log.debug("Upstream pools rebuilt for {} routes", next.size());
+    }
+}
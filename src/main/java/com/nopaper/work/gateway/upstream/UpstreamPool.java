@@ -0,0 +1,148 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:31:18 am
+ * @git 
+ */
+package com.nopaper.work.gateway.upstream;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The upstream endpoints of one route, immutable once built.
+ *
+ * Selection is power-of-two-choices: two distinct endpoints are drawn at
+ * random in proportion to their weight, and the one with the lower
+ * {@link UpstreamEndpoint#cost(long)} gets the request. Equal endpoints share
+ * traffic by weight; a slow or backed-up one loses traffic to the other of
+ * each pair, without every request herding onto the single fastest endpoint.
+ * Ejected and unhealthy endpoints are skipped.
+ */
+public final class UpstreamPool {
+
+    private final UpstreamEndpoint[] endpoints;
+    private final int[] weights;
+    // Running sum of the weights, for weighted draws
+    private final long[] cumulative;
+
+    UpstreamPool(List<UpstreamEndpoint> endpoints, List<Integer> weights) {
+        this.endpoints = endpoints.toArray(UpstreamEndpoint[]::new);
+        this.weights = weights.stream().mapToInt(Integer::intValue).toArray();
+        this.cumulative = new long[this.weights.length];
+        long total = 0;
+        for (int i = 0; i < this.weights.length; i++) {
+            total += this.weights[i];
+            cumulative[i] = total;
+        }
+    }
+
+    public List<UpstreamEndpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+
+    public int getWeight(int index) {
+        return weights[index];
+    }
+
+    UpstreamEndpoint find(String uri) {
+        for (UpstreamEndpoint endpoint : endpoints) {
+            if (endpoint.getUri().toString().equals(uri)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Choose an endpoint among the available ones. With every endpoint
+     * ejected or down the request still goes to one of them, as failing it
+     * here would not be better.
+     */
+    public UpstreamEndpoint choose() {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.nanoTime();
+        int first = drawAvailable(random, now, -1);
+        if (first < 0) {
+            first = draw(random);
+            return pick(first, other(random, first), now);
+        }
+        int second = drawAvailable(random, now, first);
+        return second < 0 ? endpoints[first] : pick(first, second, now);
+    }
+
+    /**
+     * Choose an available endpoint other than the given one, e.g. for a
+     * hedged request.
+     *
+     * @return null if there is no other available endpoint
+     */
+    public UpstreamEndpoint chooseOther(UpstreamEndpoint exclude) {
+        int excluded = -1;
+        for (int i = 0; i < endpoints.length; i++) {
+            if (endpoints[i] == exclude) {
+                excluded = i;
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.nanoTime();
+        int first = drawAvailable(random, now, excluded);
+        if (first < 0) {
+            return null;
+        }
+        int second = drawAvailable(random, now, excluded);
+        return second < 0 || second == first ? endpoints[first] : pick(first, second, now);
+    }
+
+    private UpstreamEndpoint pick(int first, int second, long now) {
+        return endpoints[first].cost(now) <= endpoints[second].cost(now) ? endpoints[first] : endpoints[second];
+    }
+
+    private int other(ThreadLocalRandom random, int first) {
+        int second = draw(random);
+        // Redraw once, then fall back to the next endpoint, so both choices differ
+        if (second == first) {
+            second = draw(random);
+        }
+        return second == first ? (first + 1) % endpoints.length : second;
+    }
+
+    /**
+     * Weighted draw of an available endpoint other than exclude, -1 if none.
+     */
+    private int drawAvailable(ThreadLocalRandom random, long now, int exclude) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            int index = draw(random);
+            if (index != exclude && endpoints[index].isAvailable(now)) {
+                return index;
+            }
+        }
+        // Mostly ejected: scan from a random start
+        int start = random.nextInt(endpoints.length);
+        for (int i = 0; i < endpoints.length; i++) {
+            int index = (start + i) % endpoints.length;
+            if (index != exclude && endpoints[index].isAvailable(now)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int draw(ThreadLocalRandom random) {
+        long target = random.nextLong(cumulative[cumulative.length - 1]);
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
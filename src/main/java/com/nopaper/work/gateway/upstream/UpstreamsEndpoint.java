@@ -0,0 +1,55 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:31:47 am
+ * @git 
+ */
+package com.nopaper.work.gateway.upstream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint for route upstreams.
+ *
+ * - GET /actuator/upstreams : every multi-upstream route with the load, latency,
+ *   ejection and health state of each endpoint, as this node sees it
+ */
+@Component
+@Endpoint(id = "upstreams")
+@RequiredArgsConstructor
+public class UpstreamsEndpoint {
+
+    private final UpstreamLoadBalancer loadBalancer;
+
+    @ReadOperation
+    public Map<String, List<EndpointState>> upstreams() {
+        Map<String, List<EndpointState>> result = new TreeMap<>();
+        long now = System.nanoTime();
+        loadBalancer.pools().forEach((routeId, pool) -> {
+            List<EndpointState> states = new ArrayList<>();
+            List<UpstreamEndpoint> endpoints = pool.getEndpoints();
+            for (int i = 0; i < endpoints.size(); i++) {
+                UpstreamEndpoint endpoint = endpoints.get(i);
+                states.add(new EndpointState(endpoint.getUri().toString(), pool.getWeight(i),
+                    endpoint.isAvailable(now), endpoint.getInFlight(), endpoint.getLatencyNanos() / 1_000_000,
+                    endpoint.getConsecutiveFailures(), endpoint.getEjections(),
+                    endpoint.getEjectedForNanos() / 1_000_000, endpoint.isHealthy(), endpoint.getHealthCheckPath()));
+            }
+            result.put(routeId, states);
+        });
+        return result;
+    }
+
+    public record EndpointState(String uri, int weight, boolean available, int inFlight, double latencyMillis,
+            int consecutiveFailures, int ejections, long ejectedForMillis, boolean healthy, String healthCheckPath) {
+    }
+}
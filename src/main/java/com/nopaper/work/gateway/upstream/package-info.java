@@ -0,0 +1,10 @@
+/**
+ * @package com.nopaper.work.gateway.upstream -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:20:07 am
+ * @git 
+ */
+/**
+ * 
+ */
+package com.nopaper.work.gateway.upstream;
\ No newline at end of file
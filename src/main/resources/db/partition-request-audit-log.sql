@@ -0,0 +1,33 @@
+-- Migrates a request_audit_log created before partitioning was introduced.
+-- The gateway refuses to start on such a table while gateway.audit.partition.enabled=true.
+--
+-- 1. Stop all gateway nodes and run this script (psql -f) against the gateway database.
+-- 2. Start one gateway: schema.sql creates the partitioned request_audit_log and
+--    AuditPartitionManager creates its DEFAULT, current and upcoming partitions.
+-- 3. Optionally copy the rows still inside the retention period (see the end of this file).
+-- 4. Drop way.request_audit_log_legacy once its rows are past the retention period.
+
+BEGIN;
+
+SET search_path TO way;
+
+ALTER TABLE request_audit_log RENAME TO request_audit_log_legacy;
+ALTER INDEX IF EXISTS request_audit_log_pkey RENAME TO request_audit_log_legacy_pkey;
+ALTER INDEX IF EXISTS idx_audit_created RENAME TO idx_audit_legacy_created;
+ALTER INDEX IF EXISTS idx_audit_route RENAME TO idx_audit_legacy_route;
+ALTER SEQUENCE IF EXISTS request_audit_log_id_seq RENAME TO request_audit_log_legacy_id_seq;
+
+COMMIT;
+
+-- Step 3, after the gateway created the partitions. Rows older than the oldest
+-- partition land in request_audit_log_default and are deleted with the next
+-- maintenance pass once they are past the retention period. Ids are assigned anew.
+--
+-- INSERT INTO way.request_audit_log (request_id, route_id, method, path, query_params, client_ip,
+--         user_agent, request_headers, request_body, response_status, response_headers, response_body,
+--         processing_time_ms, error_message, created_at)
+-- SELECT request_id, route_id, method, path, query_params, client_ip,
+--         user_agent, request_headers, request_body, response_status, response_headers, response_body,
+--         processing_time_ms, error_message, created_at
+-- FROM way.request_audit_log_legacy
+-- WHERE created_at >= now() - interval '30 days';
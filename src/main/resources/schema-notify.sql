@@ -0,0 +1,26 @@
+-- Route change notifications (statements are separated by ';;' because the
+-- function body contains ';')
+CREATE OR REPLACE FUNCTION notify_gateway_routes_changed() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM pg_notify('gateway_routes_changed', OLD.route_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM pg_notify('gateway_routes_changed', NEW.route_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;;
+
+DROP TRIGGER IF EXISTS gateway_routes_changed ON gateway_routes;;
+
+CREATE TRIGGER gateway_routes_changed
+    AFTER INSERT OR UPDATE OR DELETE ON gateway_routes
+    FOR EACH ROW EXECUTE FUNCTION notify_gateway_routes_changed();;
+
+-- Upstream changes reload the route they belong to
+DROP TRIGGER IF EXISTS gateway_route_upstreams_changed ON gateway_route_upstreams;;
+
+CREATE TRIGGER gateway_route_upstreams_changed
+    AFTER INSERT OR UPDATE OR DELETE ON gateway_route_upstreams
+    FOR EACH ROW EXECUTE FUNCTION notify_gateway_routes_changed();;
\ No newline at end of file
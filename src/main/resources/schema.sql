@@ -3,16 +3,74 @@ CREATE TABLE IF NOT EXISTS gateway_routes (
     id SERIAL PRIMARY KEY,
     route_id VARCHAR(100) UNIQUE NOT NULL,
     uri VARCHAR(500) NOT NULL,
-    path VARCHAR(255) NOT NULL,
+    path VARCHAR(255),
     method VARCHAR(10),
     enabled BOOLEAN DEFAULT true,
     rate_limit_requests INTEGER DEFAULT 100,
     rate_limit_period_seconds INTEGER DEFAULT 60,
+    -- Takes precedence over the two above: rate_limit_rate requests (may be fractional,
+    -- 0.5 per second) per rate_limit_unit; the burst defaults to one period's requests
+    rate_limit_rate NUMERIC(14, 4),
+    rate_limit_unit VARCHAR(8) CHECK (rate_limit_unit IN ('second', 'minute', 'hour', 'day')),
+    rate_limit_burst INTEGER,
+    -- NULL or token_bucket: node-local leases of a Redis token bucket; fixed_window,
+    -- sliding_window or gcra: one Redis script call per request, see RateLimitService
+    rate_limit_algorithm VARCHAR(32)
+        CHECK (rate_limit_algorithm IN ('token_bucket', 'fixed_window', 'sliding_window', 'gcra')),
+    -- Circuit breaker, off while both rates are NULL: opens when the failure
+    -- (error or 5xx) or slow-call percentage is reached, stays open for
+    -- circuit_open_seconds, then lets circuit_half_open_calls probe calls through
+    circuit_failure_rate INTEGER,
+    circuit_slow_call_ms INTEGER,
+    circuit_slow_call_rate INTEGER,
+    circuit_half_open_calls INTEGER DEFAULT 3,
+    circuit_open_seconds INTEGER DEFAULT 30,
+    -- Extra predicates and filters, [{"name": "Header", "args": {"name": "X-Tenant", "regexp": ".+"}}]
+    predicates JSONB,
+    filters JSONB,
+    -- Route metadata, {"response-timeout": "5000"}
+    metadata JSONB,
     description VARCHAR(500),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Upgrade existing tables; a route may now match on its JSONB predicates only
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS predicates JSONB;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS filters JSONB;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS metadata JSONB;
+ALTER TABLE gateway_routes ALTER COLUMN path DROP NOT NULL;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS circuit_failure_rate INTEGER;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS circuit_slow_call_ms INTEGER;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS circuit_slow_call_rate INTEGER;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS circuit_half_open_calls INTEGER DEFAULT 3;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS circuit_open_seconds INTEGER DEFAULT 30;
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS rate_limit_algorithm VARCHAR(32)
+    CHECK (rate_limit_algorithm IN ('token_bucket', 'fixed_window', 'sliding_window', 'gcra'));
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS rate_limit_rate NUMERIC(14, 4);
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS rate_limit_unit VARCHAR(8)
+    CHECK (rate_limit_unit IN ('second', 'minute', 'hour', 'day'));
+ALTER TABLE gateway_routes ADD COLUMN IF NOT EXISTS rate_limit_burst INTEGER;
+
+-- Route Upstreams
+-- Weighted upstream endpoints of a route; requests are balanced across the
+-- enabled ones (scheme, host and port only). gateway_routes.uri is used when a
+-- route has none.
+CREATE TABLE IF NOT EXISTS gateway_route_upstreams (
+    id SERIAL PRIMARY KEY,
+    route_id VARCHAR(100) NOT NULL REFERENCES gateway_routes(route_id) ON DELETE CASCADE,
+    uri VARCHAR(500) NOT NULL,
+    weight INTEGER NOT NULL DEFAULT 1 CHECK (weight > 0),
+    -- Probed with GET by the active health check (e.g. /actuator/health), NULL for none
+    health_check_path VARCHAR(255),
+    enabled BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (route_id, uri)
+);
+
+ALTER TABLE gateway_route_upstreams ADD COLUMN IF NOT EXISTS health_check_path VARCHAR(255);
+
 -- IP Blacklist
 CREATE TABLE IF NOT EXISTS ip_blacklist (
     id SERIAL PRIMARY KEY,
@@ -23,8 +81,12 @@ CREATE TABLE IF NOT EXISTS ip_blacklist (
 );
 
 -- Request Audit Log
+-- Range partitioned on created_at; partitions are created ahead of time and
+-- detached/dropped after the retention period by AuditPartitionManager.
+-- Rows outside every partition land in request_audit_log_default. A table created
+-- before partitioning fails the startup: migrate it with db/partition-request-audit-log.sql.
 CREATE TABLE IF NOT EXISTS request_audit_log (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL,
     request_id VARCHAR(100) NOT NULL,
     route_id VARCHAR(100),
     method VARCHAR(10) NOT NULL,
@@ -39,11 +101,37 @@ CREATE TABLE IF NOT EXISTS request_audit_log (
     response_body TEXT,
     processing_time_ms BIGINT,
     error_message TEXT,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Per-route, per-minute traffic aggregates (written by TrafficRollupFlusher), one row per gateway
+-- node: sum the counts over node_id; percentiles of different nodes cannot be merged exactly
+CREATE TABLE IF NOT EXISTS request_audit_rollup (
+    bucket_start TIMESTAMP NOT NULL,
+    route_id VARCHAR(100) NOT NULL,
+    node_id VARCHAR(150) NOT NULL DEFAULT '',
+    request_count BIGINT NOT NULL,
+    status_1xx BIGINT NOT NULL DEFAULT 0,
+    status_2xx BIGINT NOT NULL DEFAULT 0,
+    status_3xx BIGINT NOT NULL DEFAULT 0,
+    status_4xx BIGINT NOT NULL DEFAULT 0,
+    status_5xx BIGINT NOT NULL DEFAULT 0,
+    latency_mean_ms DOUBLE PRECISION,
+    latency_p50_ms BIGINT,
+    latency_p90_ms BIGINT,
+    latency_p95_ms BIGINT,
+    latency_p99_ms BIGINT,
+    latency_max_ms BIGINT
 );
+-- Rollups used to be keyed per route and minute only, so other nodes' rows were dropped
+ALTER TABLE request_audit_rollup ADD COLUMN IF NOT EXISTS node_id VARCHAR(150) NOT NULL DEFAULT '';
+ALTER TABLE request_audit_rollup DROP CONSTRAINT IF EXISTS request_audit_rollup_pkey;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_audit_rollup_node ON request_audit_rollup(bucket_start, route_id, node_id);
 
 -- Create indexes for performance (Made Idempotent)
 CREATE INDEX IF NOT EXISTS idx_routes_enabled ON gateway_routes(enabled);
+CREATE INDEX IF NOT EXISTS idx_upstreams_route ON gateway_route_upstreams(route_id);
 CREATE INDEX IF NOT EXISTS idx_blacklist_ip ON ip_blacklist(ip_address);
 CREATE INDEX IF NOT EXISTS idx_audit_created ON request_audit_log(created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_audit_route ON request_audit_log(route_id);
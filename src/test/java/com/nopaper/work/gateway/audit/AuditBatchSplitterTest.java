@@ -0,0 +1,99 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:40:55 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.service.RequestAuditService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import reactor.core.publisher.Mono;
+
+class AuditBatchSplitterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestAuditService auditService = mock(RequestAuditService.class);
+    private final AuditBatchSplitter splitter = new AuditBatchSplitter(auditService, new AuditProperties(),
+        meterRegistry);
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void dataErrorsArePermanentOthersAreNot() {
+        assertThat(AuditBatchSplitter.isPermanent(tooLong())).isTrue();
+        assertThat(AuditBatchSplitter.isPermanent(new DataIntegrityViolationException("duplicate",
+            new R2dbcDataIntegrityViolationException("duplicate key", "23505")))).isTrue();
+        assertThat(AuditBatchSplitter.isPermanent(new TransientDataAccessResourceException("down",
+            new R2dbcNonTransientResourceException("connection refused", "08001")))).isFalse();
+        assertThat(AuditBatchSplitter.isPermanent(new IllegalStateException("timeout"))).isFalse();
+    }
+
+    @Test
+    void refusedRowsAreDroppedAndTheRestIsWritten() {
+        // Any statement with a "bad" row fails as a whole
+        when(auditService.writeBatch(anyList())).thenAnswer(invocation -> {
+            List<RequestAuditLog> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getRequestId().startsWith("bad"))) {
+                return Mono.error(tooLong());
+            }
+            rows.forEach(row -> written.add(row.getRequestId()));
+            return Mono.just((long) rows.size());
+        });
+        List<RequestAuditLog> batch = rows(200);
+        batch.set(17, row("bad-17"));
+        batch.set(150, row("bad-150"));
+
+        List<RequestAuditLog> failed = splitter.writeAround(batch, tooLong()).block();
+
+        assertThat(failed).isEmpty();
+        assertThat(written).hasSize(198).doesNotContain("bad-17", "bad-150");
+        assertThat(meterRegistry.counter("gateway.audit.rejected").count()).isEqualTo(2);
+    }
+
+    @Test
+    void rowsThatFailForAnotherReasonAreHandedBack() {
+        when(auditService.writeBatch(anyList())).thenAnswer(invocation -> {
+            List<RequestAuditLog> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getRequestId().equals("r-0"))) {
+                return Mono.error(tooLong());
+            }
+            return Mono.error(new IllegalStateException("connection closed"));
+        });
+
+        List<RequestAuditLog> failed = splitter.writeAround(rows(4), tooLong()).block();
+
+        // r-0 is refused, r-1 and the second half could not be written
+        assertThat(failed).extracting(RequestAuditLog::getRequestId).containsExactly("r-1", "r-2", "r-3");
+    }
+
+    private static R2dbcDataIntegrityViolationException tooLong() {
+        return new R2dbcDataIntegrityViolationException("value too long for type character varying(45)", "22001");
+    }
+
+    private static List<RequestAuditLog> rows(int count) {
+        return new ArrayList<>(IntStream.range(0, count).mapToObj(i -> row("r-" + i)).toList());
+    }
+
+    private static RequestAuditLog row(String requestId) {
+        return RequestAuditLog.builder().requestId(requestId).method("GET").path("/").build();
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:04:12 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.nopaper.work.gateway.models.RequestAuditLog;
+
+class AuditColumnsTest {
+
+    @Test
+    void clientControlledValuesAreCutToTheirColumnLength() {
+        RequestAuditLog row = RequestAuditLog.builder()
+            .requestId("r-1")
+            .method("GET")
+            .path("/" + "a".repeat(2000))
+            .clientIp("203.0.113.7, " + "9".repeat(100))
+            .userAgent("x".repeat(5000))
+            .requestBody("b".repeat(5000))
+            .build();
+
+        AuditColumns.fit(row);
+
+        assertThat(row.getRequestId()).isEqualTo("r-1");
+        assertThat(row.getMethod()).isEqualTo("GET");
+        assertThat(row.getPath()).hasSize(AuditColumns.PATH_LENGTH);
+        assertThat(row.getClientIp()).hasSize(AuditColumns.CLIENT_IP_LENGTH).startsWith("203.0.113.7");
+        assertThat(row.getUserAgent()).hasSize(AuditColumns.USER_AGENT_LENGTH);
+        assertThat(row.getRouteId()).isNull();
+        // TEXT columns are left alone
+        assertThat(row.getRequestBody()).hasSize(5000);
+    }
+
+    @Test
+    void surrogatePairsAreNotSplit() {
+        String emoji = "😀";
+
+        assertThat(AuditColumns.truncate("abc" + emoji, 4)).isEqualTo("abc");
+        assertThat(AuditColumns.truncate("ab" + emoji, 4)).isEqualTo("ab" + emoji);
+    }
+}
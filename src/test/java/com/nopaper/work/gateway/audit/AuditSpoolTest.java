@@ -0,0 +1,207 @@
+/**
+ * @package com.nopaper.work.gateway.audit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:58:03 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.nopaper.work.gateway.config.AuditProperties;
+import com.nopaper.work.gateway.models.RequestAuditLog;
+import com.nopaper.work.gateway.service.RequestAuditService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spooling, replay and crash recovery of the audit spool, on real segment
+ * files. The database is a mock that refuses writes until it is brought up,
+ * so rows stay in the spool until a test lets them replay.
+ */
+class AuditSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicBoolean databaseUp = new AtomicBoolean();
+    private final List<RequestAuditLog> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<AuditSpool> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() {
+        opened.forEach(AuditSpool::close);
+    }
+
+    @Test
+    void rowsRoundTripAcrossSegmentsAndReplayedSegmentsAreDeleted() throws IOException {
+        AuditSpool spool = open();
+        List<RequestAuditLog> rows = rows(0, 300);
+
+        assertThat(spool.append(rows)).isEqualTo(300);
+        assertThat(spool.pending()).isEqualTo(300);
+        assertThat(segments()).hasSizeGreaterThan(1);
+
+        databaseUp.set(true);
+        await().atMost(Duration.ofSeconds(10)).until(() -> spool.pending() == 0);
+
+        assertThat(written).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(rows);
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void rowsSurviveARestart() {
+        AuditSpool spool = open();
+        spool.append(rows(0, 20));
+
+        AuditSpool reopened = reopen(spool);
+
+        assertThat(reopened.pending()).isEqualTo(20);
+        databaseUp.set(true);
+        await().atMost(Duration.ofSeconds(10)).until(() -> reopened.pending() == 0);
+        assertThat(written).extracting(RequestAuditLog::getRequestId)
+            .containsExactlyElementsOf(ids(rows(0, 20)));
+    }
+
+    @Test
+    void tornTailIsCutOffAndOverwritten() throws IOException {
+        AuditSpool spool = open();
+        spool.append(rows(0, 10));
+        spool.close();
+        // A crash in the middle of the last append: its length is written, its payload only in part
+        Path segment = segments().get(segments().size() - 1);
+        int last = frameOffset(segment, 9);
+        corrupt(segment, last + 8 + 3);
+
+        AuditSpool reopened = open();
+        assertThat(reopened.pending()).isEqualTo(9);
+        reopened.append(rows(10, 15));
+
+        databaseUp.set(true);
+        await().atMost(Duration.ofSeconds(10)).until(() -> reopened.pending() == 0);
+        assertThat(written).extracting(RequestAuditLog::getRequestId)
+            .containsExactlyElementsOf(ids(Stream.concat(rows(0, 9).stream(), rows(10, 15).stream()).toList()));
+    }
+
+    @Test
+    void segmentIsCutAtTheFirstCorruptFrame() throws IOException {
+        AuditSpool spool = open();
+        spool.append(rows(0, 10));
+        spool.close();
+        Path segment = segments().get(0);
+        corrupt(segment, frameOffset(segment, 3) + 4);
+
+        AuditSpool reopened = open();
+
+        // Frames after a bad one cannot be trusted either
+        assertThat(reopened.pending()).isEqualTo(3);
+        reopened.append(rows(10, 12));
+        AuditSpool again = reopen(reopened);
+        assertThat(again.pending()).isEqualTo(5);
+
+        databaseUp.set(true);
+        await().atMost(Duration.ofSeconds(10)).until(() -> again.pending() == 0);
+        assertThat(written).extracting(RequestAuditLog::getRequestId)
+            .containsExactly("r-0", "r-1", "r-2", "r-10", "r-11");
+    }
+
+    private AuditSpool reopen(AuditSpool spool) {
+        spool.close();
+        return open();
+    }
+
+    private AuditSpool open() {
+        AuditProperties properties = new AuditProperties();
+        properties.getSpool().setDirectory(directory.toString());
+        properties.getSpool().setSegmentSize(DataSize.ofKilobytes(64));
+        properties.getSpool().setMaxSize(DataSize.ofMegabytes(4));
+        properties.getSpool().setReplayBatchSize(50);
+        properties.getSpool().setReplayRate(5000);
+        RequestAuditService auditService = mock(RequestAuditService.class);
+        when(auditService.writeBatch(anyList())).thenAnswer(invocation -> {
+            if (!databaseUp.get()) {
+                return Mono.error(new IllegalStateException("Connection refused"));
+            }
+            List<RequestAuditLog> rows = invocation.getArgument(0);
+            written.addAll(rows);
+            return Mono.just((long) rows.size());
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditSpool spool = new AuditSpool(properties, auditService,
+            new AuditBatchSplitter(auditService, properties, meterRegistry), meterRegistry);
+        spool.open();
+        assertThat(spool.isAvailable()).isTrue();
+        opened.add(spool);
+        return spool;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    /**
+     * Offset of the index-th frame ([int length][int crc32c][payload]) in a segment.
+     */
+    private static int frameOffset(Path segment, int index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int offset = 0;
+        for (int i = 0; i < index; i++) {
+            offset += 8 + buffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    private static void corrupt(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer current = ByteBuffer.allocate(1);
+            channel.read(current, offset);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~current.get(0)}), offset);
+        }
+    }
+
+    private static List<RequestAuditLog> rows(int from, int to) {
+        return IntStream.range(from, to)
+            .mapToObj(i -> RequestAuditLog.builder()
+                .requestId("r-" + i)
+                .routeId("orders")
+                .method("GET")
+                .path("/orders/" + i)
+                .responseStatus(200)
+                .processingTimeMs((long) i)
+                .requestHeaders("x".repeat(1000))
+                .createdAt(LocalDateTime.of(2026, 10, 17, 12, 0).plusNanos(i * 1_000L))
+                .build())
+            .toList();
+    }
+
+    private static List<String> ids(List<RequestAuditLog> rows) {
+        return rows.stream().map(RequestAuditLog::getRequestId).toList();
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * @package com.nopaper.work.gateway.benchmark -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 6:31:08 am
+ * @git 
+ */
+package com.nopaper.work.gateway.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.nopaper.work.gateway.routing.RouteMatchIndex;
+
+/**
+ * Route lookup: a linear scan over Path and Method predicates, as the gateway
+ * does by default, against {@link RouteMatchIndex} plus a PathPattern check of
+ * the candidates, on tenant-style routes.
+ *
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.nopaper.work.gateway.benchmark.RouteMatchBenchmark
+ *
+ * Requests are drawn uniformly from the routes, plus 10% that match no route.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteMatchBenchmark {
+
+    private static final String[] METHODS = {null, "GET", "POST", "GET,POST"};
+
+    @Param({"100", "10000", "100000"})
+    public int routes;
+
+    private PathPattern[] patterns;
+    private HttpMethod[][] methods;
+    private RouteMatchIndex index;
+
+    private PathContainer[] requestPaths;
+    private HttpMethod[] requestMethods;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        PathPatternParser parser = new PathPatternParser();
+        RouteMatchIndex.Builder builder = RouteMatchIndex.builder();
+        patterns = new PathPattern[routes];
+        methods = new HttpMethod[routes][];
+        List<String> samplePaths = new ArrayList<>();
+        for (int i = 0; i < routes; i++) {
+            String tenant = "tenant-" + i / 4;
+            String pattern;
+            String sample;
+            switch (i % 4) {
+                case 0 -> { pattern = "/" + tenant + "/orders/**"; sample = "/" + tenant + "/orders/42/lines"; }
+                case 1 -> { pattern = "/" + tenant + "/users/{id}"; sample = "/" + tenant + "/users/7"; }
+                case 2 -> { pattern = "/api/v1/" + tenant + "/items"; sample = "/api/v1/" + tenant + "/items"; }
+                default -> { pattern = "/" + tenant + "/files/*.json"; sample = "/" + tenant + "/files/report.json"; }
+            }
+            String method = METHODS[i % METHODS.length];
+            patterns[i] = parser.parse(pattern);
+            methods[i] = method == null ? null : parseMethods(method);
+            builder.add(i, pattern, method);
+            samplePaths.add(sample);
+        }
+        index = builder.build();
+
+        Random random = new Random(42);
+        requestPaths = new PathContainer[1024];
+        requestMethods = new HttpMethod[requestPaths.length];
+        for (int i = 0; i < requestPaths.length; i++) {
+            String path = random.nextInt(10) == 0
+                ? "/unknown-" + random.nextInt(1000) + "/resource"
+                : samplePaths.get(random.nextInt(samplePaths.size()));
+            requestPaths[i] = PathContainer.parsePath(path);
+            requestMethods[i] = random.nextBoolean() ? HttpMethod.GET : HttpMethod.POST;
+        }
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int request = nextRequest();
+        PathContainer path = requestPaths[request];
+        HttpMethod method = requestMethods[request];
+        for (int i = 0; i < patterns.length; i++) {
+            if (methodMatches(methods[i], method) && patterns[i].matches(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int index() {
+        int request = nextRequest();
+        PathContainer path = requestPaths[request];
+        HttpMethod method = requestMethods[request];
+        for (int candidate : index.candidates(path, method)) {
+            if (methodMatches(methods[candidate], method) && patterns[candidate].matches(path)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private int nextRequest() {
+        return next++ & (requestPaths.length - 1);
+    }
+
+    private static boolean methodMatches(HttpMethod[] allowed, HttpMethod method) {
+        if (allowed == null) {
+            return true;
+        }
+        for (HttpMethod candidate : allowed) {
+            if (candidate.equals(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpMethod[] parseMethods(String methods) {
+        String[] names = methods.split(",");
+        HttpMethod[] parsed = new HttpMethod[names.length];
+        for (int i = 0; i < names.length; i++) {
+            parsed[i] = HttpMethod.valueOf(names[i]);
+        }
+        return parsed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Command line options (e.g. -p routes=1000) apply on top of these
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(RouteMatchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * @package com.nopaper.work.gateway.circuitbreaker -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:48:31 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.circuitbreaker;
+
+import static com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker.CLOSED;
+import static com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker.HALF_OPEN;
+import static com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker.OPEN;
+import static com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker.REJECTED;
+import static com.nopaper.work.gateway.circuitbreaker.RouteCircuitBreaker.UNCHANGED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RouteCircuitBreakerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long OPEN_NANOS = 10 * SECOND;
+
+    // The breaker takes the time from its caller; System.nanoTime() may be negative
+    private long now;
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, -7_000_000_000_123L})
+    void opensOnFailureRateOnlyAfterTheMinimumCalls(long start) {
+        now = start;
+        RouteCircuitBreaker breaker = breaker(new CircuitBreakerConfig(50, 0, 0, 3, OPEN_NANOS));
+
+        for (int i = 0; i < 9; i++) {
+            assertThat(call(breaker, true, MILLI)).isEqualTo(UNCHANGED);
+        }
+        assertThat(breaker.getState()).isEqualTo(CLOSED);
+
+        assertThat(call(breaker, true, MILLI)).isEqualTo(OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+        assertThat(breaker.getRemainingOpenNanos(now)).isEqualTo(OPEN_NANOS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, -7_000_000_000_123L})
+    void opensOnSlowCallRateOnlyAfterTheMinimumCalls(long start) {
+        now = start;
+        RouteCircuitBreaker breaker = breaker(new CircuitBreakerConfig(0, 100 * MILLI, 50, 3, OPEN_NANOS));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(call(breaker, false, MILLI)).isEqualTo(UNCHANGED);
+        }
+        for (int i = 0; i < 4; i++) {
+            // Slow, but successful
+            assertThat(call(breaker, false, 100 * MILLI)).isEqualTo(UNCHANGED);
+        }
+        assertThat(breaker.getState()).isEqualTo(CLOSED);
+
+        assertThat(call(breaker, false, 150 * MILLI)).isEqualTo(OPEN);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, -7_000_000_000_123L})
+    void callsOutsideTheWindowAreNotCounted(long start) {
+        now = start;
+        RouteCircuitBreaker breaker = breaker(new CircuitBreakerConfig(50, 0, 0, 3, OPEN_NANOS));
+        for (int i = 0; i < 9; i++) {
+            call(breaker, true, MILLI);
+        }
+
+        now += 11 * SECOND;
+        assertThat(call(breaker, true, MILLI)).isEqualTo(UNCHANGED);
+        assertThat(breaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, -7_000_000_000_123L})
+    void probesCloseTheCircuitOnlyWhenAllSucceed(long start) {
+        now = start;
+        RouteCircuitBreaker breaker = opened(new CircuitBreakerConfig(50, 0, 0, 2, OPEN_NANOS));
+
+        now += OPEN_NANOS - 1;
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+        now += 1;
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+
+        assertThat(breaker.onComplete(HALF_OPEN, MILLI, false, now)).isEqualTo(UNCHANGED);
+        assertThat(breaker.onComplete(HALF_OPEN, MILLI, true, now)).isEqualTo(OPEN);
+        assertThat(breaker.getRemainingOpenNanos(now)).isEqualTo(OPEN_NANOS);
+
+        now += OPEN_NANOS;
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.onComplete(HALF_OPEN, MILLI, false, now)).isEqualTo(UNCHANGED);
+        assertThat(breaker.onComplete(HALF_OPEN, MILLI, false, now)).isEqualTo(CLOSED);
+        // The window was cleared, so the calls that opened the circuit no longer count
+        assertThat(call(breaker, true, MILLI)).isEqualTo(UNCHANGED);
+        assertThat(breaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void concurrentCallersGetExactlyTheHalfOpenPermits() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 200; round++) {
+                now = 0;
+                RouteCircuitBreaker breaker = opened(new CircuitBreakerConfig(50, 0, 0, 3, OPEN_NANOS));
+                long probeTime = now + OPEN_NANOS;
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<Integer>> admitted = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    admitted.add(executor.submit(() -> {
+                        barrier.await();
+                        return breaker.tryAcquire(probeTime);
+                    }));
+                }
+                int probes = 0;
+                for (Future<Integer> result : admitted) {
+                    probes += result.get(10, TimeUnit.SECONDS) == HALF_OPEN ? 1 : 0;
+                }
+                assertThat(probes).as("round %d", round).isEqualTo(3);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancelledProbeGivesItsPermitBack() {
+        now = 0;
+        RouteCircuitBreaker breaker = opened(new CircuitBreakerConfig(50, 0, 0, 1, OPEN_NANOS));
+        now += OPEN_NANOS;
+
+        int admittedIn = breaker.tryAcquire(now);
+        assertThat(admittedIn).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+
+        breaker.release(admittedIn);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.onComplete(HALF_OPEN, MILLI, false, now)).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void permitReleasedAfterTheCircuitReopenedIsDropped() {
+        now = 0;
+        RouteCircuitBreaker breaker = opened(new CircuitBreakerConfig(50, 0, 0, 2, OPEN_NANOS));
+        now += OPEN_NANOS;
+        int cancelled = breaker.tryAcquire(now);
+        int failing = breaker.tryAcquire(now);
+
+        assertThat(breaker.onComplete(failing, MILLI, true, now)).isEqualTo(OPEN);
+        breaker.release(cancelled);
+
+        assertThat(breaker.getState()).isEqualTo(OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+        // Reopening hands out the configured permits again, not one more
+        now += OPEN_NANOS;
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(HALF_OPEN);
+        assertThat(breaker.tryAcquire(now)).isEqualTo(REJECTED);
+    }
+
+    @Test
+    void releaseOfAClosedCallIsIgnored() {
+        now = 0;
+        RouteCircuitBreaker breaker = breaker(new CircuitBreakerConfig(50, 0, 0, 1, OPEN_NANOS));
+
+        breaker.release(breaker.tryAcquire(now));
+
+        assertThat(breaker.getState()).isEqualTo(CLOSED);
+    }
+
+    private static RouteCircuitBreaker breaker(CircuitBreakerConfig config) {
+        return new RouteCircuitBreaker(config, 10, 10);
+    }
+
+    private RouteCircuitBreaker opened(CircuitBreakerConfig config) {
+        RouteCircuitBreaker breaker = breaker(config);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, true, MILLI);
+        }
+        assertThat(breaker.getState()).isEqualTo(OPEN);
+        return breaker;
+    }
+
+    private int call(RouteCircuitBreaker breaker, boolean failed, long durationNanos) {
+        int admittedIn = breaker.tryAcquire(now);
+        assertThat(admittedIn).isEqualTo(CLOSED);
+        return breaker.onComplete(admittedIn, durationNanos, failed, now);
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:37:52 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Enforced rates of route limits, on a fake clock. The lease script runs in
+ * LuaRedis, which reads the same clock.
+ */
+class HybridRateLimiterTest {
+
+    private static final String ROUTE = "orders";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LuaRedis redis = new LuaRedis(clock::get);
+    private final AtomicInteger redisCalls = new AtomicInteger();
+    // Answer lease requests on another thread, like Lettuce does
+    private boolean async;
+
+    @Test
+    void hundredPerHourAdmitsAHundredPerHour() {
+        // One request per second, 36x the limit, for three hours
+        long admitted = admitted(nodes(spec(100, "hour"), 1), 1_000, TimeUnit.HOURS.toMillis(3));
+
+        // The burst, then the rate
+        assertThat(admitted).isCloseTo(100 + 3 * 100, withinPercentage(2));
+    }
+
+    @Test
+    void subOneRequestPerSecond() {
+        long admitted = admitted(nodes(spec(0.5, "second"), 1), 100, TimeUnit.MINUTES.toMillis(10));
+
+        assertThat(admitted).isCloseTo(1 + 300, withinPercentage(2));
+    }
+
+    @Test
+    void fractionalPerMinute() {
+        long admitted = admitted(nodes(spec(2.5, "minute"), 1), 250, TimeUnit.HOURS.toMillis(2));
+
+        assertThat(admitted).isCloseTo(3 + 2 * 150, withinPercentage(2));
+    }
+
+    @Test
+    void perDay() {
+        long admitted = admitted(nodes(spec(1000, "day"), 1), 10_000, TimeUnit.DAYS.toMillis(2));
+
+        assertThat(admitted).isCloseTo(1000 + 2 * 1000, withinPercentage(2));
+    }
+
+    @Test
+    void clusterStaysWithinTheLimitAndTheLeaseErrorBound() {
+        RateLimitSpec spec = spec(50, "second");
+        List<HybridRateLimiter> nodes = nodes(spec, 4);
+
+        // 400 requests per second across four nodes, for a minute
+        long admitted = admitted(nodes, 10, TimeUnit.MINUTES.toMillis(1));
+
+        long limit = 50 + 60 * 50;
+        // Each node can hold one lease the others cannot use
+        long leaseSize = nodes.get(0).leaseSize(nodes.get(0).getConfig().get(ROUTE));
+        assertThat(admitted).isLessThanOrEqualTo(limit).isGreaterThanOrEqualTo(limit - nodes.size() * leaseSize);
+    }
+
+    @Test
+    void bucketKeyExpiresOnceIdleForTwoRefills() {
+        admitted(nodes(spec(10, "second"), 1), 100, 1_000);
+
+        // Burst 10 at 10 per second: two seconds to refill twice
+        assertThat(redis.pttl("gateway:ratelimit:" + ROUTE + ":client")).isBetween(1_000L, 2_000L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertThat(redis.hash("gateway:ratelimit:" + ROUTE + ":client")).isEmpty();
+    }
+
+    @Test
+    void concurrentRequestsOnAFreshKeyAreAdmittedWhileRedisHasTokens() {
+        async = true;
+        HybridRateLimiter limiter = nodes(spec(20, "second"), 1).get(0);
+
+        List<Boolean> allowed = Flux.range(0, 10)
+            .flatMap(i -> limiter.isAllowed(ROUTE, "client"))
+            .map(RateLimiter.Response::isAllowed)
+            .collectList()
+            .block();
+
+        assertThat(allowed).hasSize(10).containsOnly(true);
+        assertThat(redisCalls.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void requestsAfterALeaseWasAnsweredStartANewOne() {
+        async = true;
+        HybridRateLimiter limiter = nodes(spec(20, "second"), 1).get(0);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.isAllowed(ROUTE, "client").block().isAllowed()).isTrue();
+        }
+    }
+
+    @Test
+    void smallBurstsLeaseMoreThanOneRequestAndTopUpInTheBackground() {
+        // The RedisRateLimiter default: 10 per second, burst 20
+        HybridRateLimiter limiter = nodes(spec(10, "second"), 1).get(0);
+        limiter.getConfig().get(ROUTE).setBurstCapacity(20);
+
+        assertThat(limiter.leaseSize(limiter.getConfig().get(ROUTE))).isEqualTo(5);
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.isAllowed(ROUTE, "client").block().isAllowed()).isTrue();
+        }
+        // Leases of five, each asked for before the previous one ran out, and one that found the burst spent
+        assertThat(redisCalls).hasValue(5);
+    }
+
+    /**
+     * Send a request every interval, round robin over the nodes, and count the admitted ones.
+     */
+    private long admitted(List<HybridRateLimiter> nodes, long intervalMillis, long durationMillis) {
+        long admitted = 0;
+        int request = 0;
+        for (long millis = 0; millis < durationMillis; millis += intervalMillis) {
+            clock.set(TimeUnit.MILLISECONDS.toNanos(millis));
+            HybridRateLimiter node = nodes.get(request++ % nodes.size());
+            if (node.isAllowed(ROUTE, "client").block().isAllowed()) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+
+    private List<HybridRateLimiter> nodes(RateLimitSpec spec, int count) {
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, String> template = mock(ReactiveRedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenAnswer(invocation -> {
+                redisCalls.incrementAndGet();
+                Flux<List<Long>> answer = Flux.defer(() -> Flux.just(redis.eval(invocation.getArgument(0),
+                    invocation.getArgument(1), invocation.getArgument(2))));
+                return async ? answer.subscribeOn(Schedulers.parallel()) : answer;
+            });
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedisRateLimiter> noFallback = mock(ObjectProvider.class);
+        // Redis stays healthy: calls pass through, never degraded
+        RateLimitFallback healthy = mock(RateLimitFallback.class);
+        when(healthy.guard(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        HybridRateLimiter.Config config = new HybridRateLimiter.Config();
+        config.setReplenishRate(spec.permitsPerSecond());
+        config.setBurstCapacity(spec.burst());
+        config.setRequestedTokens(1);
+
+        List<HybridRateLimiter> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            HybridRateLimiter limiter = new HybridRateLimiter(template, null, noFallback, healthy,
+                new SimpleMeterRegistry(), 0.05, Duration.ofSeconds(1), Duration.ofMinutes(5), clock::get);
+            limiter.getConfig().put(ROUTE, config);
+            nodes.add(limiter);
+        }
+        return nodes;
+    }
+
+    private static RateLimitSpec spec(double rate, String unit) {
+        CustomRouteDefinitionDTO route = new CustomRouteDefinitionDTO();
+        route.setRateLimitRate(rate);
+        route.setRateLimitUnit(unit);
+        return RateLimitSpec.of(route, RateLimitAlgorithm.TOKEN_BUCKET);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:21:47 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+class LeasedTokenBucketTest {
+
+    private static final long TTL = 1_000;
+
+    @Test
+    void spendsALeaseUntilItIsEmpty() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(0);
+        assertThat(bucket.tryAcquire(1, 0)).isEqualTo(-1);
+
+        bucket.leased(3, 40, 0, TTL, 0);
+
+        assertThat(bucket.tryAcquire(2, 10)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(2, 10)).isEqualTo(-1);
+        assertThat(bucket.tryAcquire(1, 10)).isZero();
+        assertThat(bucket.remaining()).isEqualTo(40);
+    }
+
+    @Test
+    void expiredLeaseIsNotSpentAndItsTokensAreHandedBack() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(0);
+        bucket.leased(5, 0, 0, TTL, 0);
+        bucket.tryAcquire(1, 10);
+
+        assertThat(bucket.drainExpired(TTL - 1)).isZero();
+        assertThat(bucket.tryAcquire(1, TTL)).isEqualTo(-1);
+        assertThat(bucket.drainExpired(TTL)).isEqualTo(4);
+        assertThat(bucket.drainExpired(TTL)).isZero();
+    }
+
+    @Test
+    void deniedUntilTheNextTokenIsDue() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(0);
+
+        bucket.leased(0, 0, 500, TTL, 100);
+
+        assertThat(bucket.isDenied(599)).isTrue();
+        assertThat(bucket.isDenied(600)).isFalse();
+    }
+
+    @Test
+    void answeredLeaseRequestIsNotJoinedAgain() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(0);
+        AtomicInteger requests = new AtomicInteger();
+
+        // Answered on another thread, after the first caller subscribed
+        for (int i = 0; i < 3; i++) {
+            Boolean answered = bucket.lease(() -> {
+                requests.incrementAndGet();
+                return Mono.just(true).publishOn(Schedulers.parallel());
+            }).block();
+            assertThat(answered).isTrue();
+        }
+
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void concurrentRequestsShareOneLeaseRequest() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(0);
+        AtomicInteger requests = new AtomicInteger();
+        Sinks.One<Boolean> answer = Sinks.one();
+
+        Mono<Boolean> first = bucket.lease(() -> {
+            requests.incrementAndGet();
+            return answer.asMono();
+        });
+        Mono<Boolean> second = bucket.lease(() -> {
+            requests.incrementAndGet();
+            return Mono.just(true);
+        });
+        first.subscribe();
+        second.subscribe();
+        // Not idle while a lease request is in flight
+        assertThat(bucket.isIdle(TTL, 0)).isFalse();
+        answer.tryEmitValue(true);
+
+        assertThat(requests).hasValue(1);
+        assertThat(second.block()).isTrue();
+        assertThat(bucket.isIdle(TTL, 0)).isTrue();
+    }
+}
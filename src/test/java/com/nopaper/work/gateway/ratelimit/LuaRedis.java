@@ -0,0 +1,174 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:05:18 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Runs the production Redis scripts in an embedded Lua interpreter against
+ * in-memory hashes, on a fake clock, so tests exercise the real script text.
+ *
+ * Only the commands the rate limit scripts use are implemented (TIME, HGET,
+ * HMGET, HSET, PEXPIRE), with Redis' conversions: a missing field is false,
+ * numbers passed to redis.call become strings, and returned numbers are
+ * truncated to integers. Lua is 5.2 here and 5.1 in Redis, which makes no
+ * difference to these scripts.
+ */
+public final class LuaRedis {
+
+    private final LongSupplier nanoClock;
+    private final Globals globals = JsePlatform.standardGlobals();
+    private final Map<String, LuaValue> scripts = new HashMap<>();
+    private final Map<String, Map<String, String>> hashes = new HashMap<>();
+    private final Map<String, Long> expiresAtMillis = new HashMap<>();
+
+    public LuaRedis(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return command(args);
+            }
+        });
+        globals.set("redis", redis);
+    }
+
+    /**
+     * Evaluate a script like EVAL does.
+     *
+     * @return the script's array reply
+     */
+    public synchronized List<Long> eval(RedisScript<?> script, List<String> keys, List<String> args) {
+        LuaValue chunk = scripts.computeIfAbsent(script.getScriptAsString(), text -> globals.load(text, "script"));
+        globals.set("KEYS", table(keys));
+        globals.set("ARGV", table(args));
+        LuaValue reply = chunk.call();
+        List<Long> results = new ArrayList<>();
+        for (int i = 1; !reply.get(i).isnil(); i++) {
+            // The rate limit scripts only return numbers
+            results.add((long) reply.get(i).checkdouble());
+        }
+        return results;
+    }
+
+    /**
+     * The fields of a key, empty if it does not exist or has expired.
+     */
+    public synchronized Map<String, String> hash(String key) {
+        expire(key);
+        return Map.copyOf(hashes.getOrDefault(key, Map.of()));
+    }
+
+    /**
+     * @return milliseconds until the key expires, -1 without a TTL, -2 if it does not exist
+     */
+    public synchronized long pttl(String key) {
+        expire(key);
+        if (!hashes.containsKey(key)) {
+            return -2;
+        }
+        Long expiresAt = expiresAtMillis.get(key);
+        return expiresAt == null ? -1 : expiresAt - nowMillis();
+    }
+
+    private Varargs command(Varargs args) {
+        String command = args.checkjstring(1).toUpperCase();
+        if (command.equals("TIME")) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanoClock.getAsLong());
+            return LuaValue.listOf(new LuaValue[] {
+                LuaValue.valueOf(String.valueOf(micros / 1_000_000)),
+                LuaValue.valueOf(String.valueOf(micros % 1_000_000))});
+        }
+        String key = argument(args, 2);
+        expire(key);
+        Map<String, String> hash = hashes.get(key);
+        switch (command) {
+            case "HGET":
+                return field(hash, argument(args, 3));
+            case "HMGET": {
+                LuaTable values = new LuaTable();
+                for (int i = 3; i <= args.narg(); i++) {
+                    values.set(i - 2, field(hash, argument(args, i)));
+                }
+                return values;
+            }
+            case "HSET": {
+                Map<String, String> fields = hashes.computeIfAbsent(key, k -> new HashMap<>());
+                int added = 0;
+                for (int i = 3; i < args.narg(); i += 2) {
+                    if (fields.put(argument(args, i), argument(args, i + 1)) == null) {
+                        added++;
+                    }
+                }
+                return LuaValue.valueOf(added);
+            }
+            case "PEXPIRE": {
+                if (hash == null) {
+                    return LuaValue.valueOf(0);
+                }
+                expiresAtMillis.put(key, nowMillis() + Long.parseLong(argument(args, 3)));
+                expire(key);
+                return LuaValue.valueOf(1);
+            }
+            default:
+                throw new UnsupportedOperationException("Unsupported command " + command);
+        }
+    }
+
+    private void expire(String key) {
+        Long expiresAt = expiresAtMillis.get(key);
+        if (expiresAt != null && expiresAt <= nowMillis()) {
+            hashes.remove(key);
+            expiresAtMillis.remove(key);
+        }
+    }
+
+    private long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong());
+    }
+
+    private static LuaValue field(Map<String, String> hash, String field) {
+        String value = hash == null ? null : hash.get(field);
+        return value == null ? LuaValue.FALSE : LuaValue.valueOf(value);
+    }
+
+    /**
+     * A redis.call argument as Redis sees it: numbers are formatted, integers without a fraction.
+     */
+    private static String argument(Varargs args, int index) {
+        LuaValue value = args.arg(index);
+        if (value.type() == LuaValue.TNUMBER) {
+            double number = value.todouble();
+            return number == Math.rint(number) && Math.abs(number) < 1e15
+                ? String.valueOf((long) number)
+                : String.valueOf(number);
+        }
+        return value.checkjstring();
+    }
+
+    private static LuaTable table(List<String> values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.size(); i++) {
+            table.set(i + 1, LuaValue.valueOf(values.get(i)));
+        }
+        return table;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:52:31 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class RateLimitBatcherTest {
+
+    private static final RedisScript<List<Long>> SCRIPT = RedisScript.of("return {}");
+
+    // Keys of every script call
+    private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+    private RateLimitBatcher batcher;
+
+    @AfterEach
+    void stop() {
+        batcher.dispose();
+    }
+
+    @Test
+    void eachCheckGetsTheResultsOfItsOwnKey() {
+        // Two results per key: the key's number and ten times its argument
+        batcher = batcher(8, (keys, args) -> {
+            List<Long> results = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                results.add(Long.parseLong(keys.get(i).substring(1)));
+                results.add(Long.parseLong(args.get(i)) * 10);
+            }
+            return Flux.just(results);
+        });
+
+        List<List<Long>> results = Flux.range(0, 20)
+            .flatMapSequential(i -> batcher.submit("k" + i, List.of(String.valueOf(i))))
+            .collectList()
+            .block();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(results.get(i)).containsExactly((long) i, i * 10L);
+        }
+        assertThat(calls).allSatisfy(keys -> assertThat(keys).hasSizeBetween(1, 8));
+        assertThat(calls.stream().mapToInt(List::size).sum()).isEqualTo(20);
+        assertThat(calls.size()).isLessThan(20);
+    }
+
+    @Test
+    void everyCheckFailsWhenTheScriptReturnsTheWrongNumberOfValues() {
+        batcher = batcher(8, (keys, args) -> Flux.just(List.of(1L)));
+
+        Mono<List<List<Long>>> results = Flux.merge(
+                batcher.submit("a", List.of("1")), batcher.submit("b", List.of("2")))
+            .collectList();
+
+        assertThatThrownBy(results::block).hasMessageContaining("returned 1 values");
+    }
+
+    @Test
+    void everyCheckFailsWhenRedisFails() {
+        batcher = batcher(8, (keys, args) -> Flux.error(new IllegalStateException("Connection refused")));
+
+        assertThatThrownBy(() -> batcher.submit("a", List.of("1")).block()).hasMessage("Connection refused");
+    }
+
+    private RateLimitBatcher batcher(int maxSize, Script script) {
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, String> template = mock(ReactiveRedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            calls.add(List.copyOf(keys));
+            return script.apply(keys, invocation.getArgument(2));
+        });
+        return new RateLimitBatcher(template, SCRIPT, 2, Duration.ofMillis(5), maxSize, new SimpleMeterRegistry());
+    }
+
+    private interface Script {
+        Flux<List<Long>> apply(List<String> keys, List<String> args);
+    }
+}
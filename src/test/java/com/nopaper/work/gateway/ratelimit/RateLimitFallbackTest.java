@@ -0,0 +1,194 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 10:21:37 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+
+import com.nopaper.work.gateway.dto.RateLimitModeChange;
+import com.nopaper.work.gateway.routing.RouteClusterSync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class RateLimitFallbackTest {
+
+    private static final Duration REDIS_TIMEOUT = Duration.ofMillis(250);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RateLimitModeChange> events = new ArrayList<>();
+    // Virtual time of every node count sent to Redis, probes included
+    private final List<Long> nodeCounts = new ArrayList<>();
+    private volatile boolean redisUp = true;
+    private volatile long liveNodes = 1;
+
+    private VirtualTimeScheduler scheduler;
+    private RateLimitFallback fallback;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        scheduler = VirtualTimeScheduler.getOrSet();
+        ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveZSetOperations<String, String> zSet = mock(ReactiveZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(zSet.count(eq(RouteClusterSync.NODES_KEY), any(Range.class))).thenAnswer(invocation -> Mono.defer(() -> {
+            nodeCounts.add(scheduler.now(TimeUnit.MILLISECONDS));
+            return redisUp ? Mono.just(liveNodes) : Mono.error(new RedisConnectionFailureException("down"));
+        }));
+        fallback = new RateLimitFallback(redisTemplate, event -> events.add((RateLimitModeChange) event),
+            meterRegistry, true, 3, REDIS_TIMEOUT, Duration.ofSeconds(1), Duration.ofSeconds(30), 3, 16,
+            Duration.ofSeconds(30), Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fallback.stop();
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void switchesToLocalAfterTheFailureThresholdInARow() {
+        fail(2);
+        // A success resets the count
+        StepVerifier.create(fallback.guard(Mono.just(1L))).expectNext(1L).verifyComplete();
+        fail(2);
+        assertThat(fallback.isDegraded()).isFalse();
+        assertThat(events).isEmpty();
+
+        fail(1);
+
+        assertThat(fallback.isDegraded()).isTrue();
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.degraded()).isTrue();
+            assertThat(event.reason()).startsWith("Redis failed");
+        });
+        assertThat(transitions("local")).isEqualTo(1);
+        assertThat(transitions("redis")).isZero();
+        // Further failures do not switch again
+        fail(3);
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void guardTimesOutSlowCallsAndCountsThemAsFailures() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.withVirtualTime(() -> fallback.guard(Mono.never()))
+                .expectSubscription()
+                .expectNoEvent(REDIS_TIMEOUT.minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        }
+
+        assertThat(fallback.isDegraded()).isTrue();
+        assertThat(events).singleElement()
+            .satisfies(event -> assertThat(event.reason()).isEqualTo("Redis did not answer within " + REDIS_TIMEOUT));
+    }
+
+    @Test
+    void probesBackOffWithJitterUpToTheMaximum() {
+        redisUp = false;
+        long degradedAt = scheduler.now(TimeUnit.MILLISECONDS);
+        fail(3);
+
+        scheduler.advanceTimeBy(Duration.ofMinutes(5));
+
+        List<Long> gaps = new ArrayList<>();
+        long previous = degradedAt;
+        for (long probeAt : nodeCounts) {
+            gaps.add(probeAt - previous);
+            previous = probeAt;
+        }
+        assertThat(gaps).hasSizeGreaterThan(8);
+        assertThat(gaps.get(0)).isEqualTo(1000);
+        assertThat(gaps.get(1)).isBetween(2000L, 2200L);
+        assertThat(gaps.get(2)).isBetween(4000L, 4400L);
+        assertThat(gaps.get(3)).isBetween(8000L, 8800L);
+        assertThat(gaps.get(4)).isBetween(16000L, 17600L);
+        List<Long> capped = gaps.subList(5, gaps.size());
+        assertThat(capped).allSatisfy(gap -> assertThat(gap).isBetween(30000L, 33000L));
+        assertThat(capped).anySatisfy(gap -> assertThat(gap).isGreaterThan(30000L));
+        assertThat(fallback.isDegraded()).isTrue();
+    }
+
+    @Test
+    void switchesBackAfterTheRecoveryProbesInARow() {
+        fail(3);
+        liveNodes = 4;
+
+        // Two successes, then a failure starts the count over
+        scheduler.advanceTimeBy(Duration.ofSeconds(2));
+        redisUp = false;
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(nodeCounts).hasSize(3);
+        redisUp = true;
+        // The next probe comes 2 - 2.2s after the failed one, then one every second
+        scheduler.advanceTimeBy(Duration.ofMillis(2200 + 1000));
+        assertThat(fallback.isDegraded()).isTrue();
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertThat(fallback.isDegraded()).isFalse();
+        assertThat(fallback.getNodes()).isEqualTo(4);
+        assertThat(events).extracting(RateLimitModeChange::degraded).containsExactly(true, false);
+        assertThat(events.get(1).nodes()).isEqualTo(4);
+        assertThat(events.get(1).reason()).isEqualTo("Redis answered 3 probes");
+        assertThat(transitions("local")).isEqualTo(1);
+        assertThat(transitions("redis")).isEqualTo(1);
+        // No probes once recovered
+        int probes = nodeCounts.size();
+        scheduler.advanceTimeBy(Duration.ofSeconds(10));
+        assertThat(nodeCounts).hasSize(probes);
+    }
+
+    @Test
+    void localLimitIsThisNodesShareOfTheGlobalLimit() {
+        liveNodes = 4;
+        fallback.start();
+        scheduler.advanceTime();
+        assertThat(fallback.getNodes()).isEqualTo(4);
+
+        // 1/4 of a 40 burst at 0.01/s
+        for (int i = 0; i < 10; i++) {
+            assertThat(fallback.tryAcquire("route:client", 0.01, 40, 1)).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(fallback.tryAcquire("route:client", 0.01, 40, 1)).isEqualTo(-1);
+        // Other keys have their own buckets
+        assertThat(fallback.tryAcquire("route:other", 0.01, 40, 1)).isEqualTo(9);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            StepVerifier.create(fallback.guard(Mono.error(new RedisConnectionFailureException("down"))))
+                .verifyError(RedisConnectionFailureException.class);
+        }
+    }
+
+    private double transitions(String mode) {
+        return meterRegistry.get("gateway.ratelimit.mode.transitions").tag("mode", mode).counter().count();
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * @package com.nopaper.work.gateway.ratelimit -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 1:24:16 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+
+class RateLimitSpecTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "100, hour, 100, 3600000",
+        "0.5, second, 1, 2000",
+        "2.5, minute, 3, 72000",
+        "1, day, 1, 86400000",
+        "0.1, minute, 1, 600000",
+        "250, second, 250, 1000",
+    })
+    void keepsTheConfiguredRateOverItsOwnPeriod(double rate, String unit, long permits, long periodMillis) {
+        RateLimitSpec spec = RateLimitSpec.of(route(rate, unit, null), RateLimitAlgorithm.TOKEN_BUCKET);
+
+        assertThat(spec.permits()).isEqualTo(permits);
+        assertThat(spec.periodMillis()).isEqualTo(periodMillis);
+        assertThat(spec.permitsPerSecond()).isCloseTo(rate * 1000 / RateLimitSpec.unitMillis(unit), within(1e-9));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.3, second", "7.25, minute", "33.3333, hour", "0.0001, day", "12345.6789, day"})
+    void fractionalRatesAreExactToTheMillisecond(double rate, String unit) {
+        RateLimitSpec spec = RateLimitSpec.of(route(rate, unit, null), RateLimitAlgorithm.GCRA);
+
+        double configured = rate * 1000 / RateLimitSpec.unitMillis(unit);
+        assertThat(spec.permitsPerSecond()).isCloseTo(configured, within(configured * 1e-3));
+    }
+
+    @Test
+    void legacyColumnsNoLongerRoundUpToOneRequestPerSecond() {
+        CustomRouteDefinitionDTO route = new CustomRouteDefinitionDTO();
+        route.setRateLimitRequests(100);
+        route.setRateLimitPeriodSeconds(3600);
+
+        RateLimitSpec spec = RateLimitSpec.of(route, RateLimitAlgorithm.TOKEN_BUCKET);
+
+        assertThat(spec.permitsPerSecond()).isCloseTo(100.0 / 3600, within(1e-9));
+        assertThat(spec.burst()).isEqualTo(100);
+    }
+
+    @Test
+    void rateColumnsTakePrecedenceAndBurstIsConfigurable() {
+        CustomRouteDefinitionDTO route = route(30, "minute", 5);
+        route.setRateLimitRequests(100);
+        route.setRateLimitPeriodSeconds(60);
+
+        RateLimitSpec spec = RateLimitSpec.of(route, RateLimitAlgorithm.SLIDING_WINDOW);
+
+        assertThat(spec.permits()).isEqualTo(30);
+        assertThat(spec.periodMillis()).isEqualTo(60_000);
+        assertThat(spec.burst()).isEqualTo(5);
+    }
+
+    @Test
+    void routeWithoutLimitHasNoSpec() {
+        assertThat(RateLimitSpec.of(new CustomRouteDefinitionDTO(), RateLimitAlgorithm.TOKEN_BUCKET)).isNull();
+    }
+
+    @Test
+    void rejectsUnknownUnit() {
+        assertThatThrownBy(() -> RateLimitSpec.of(route(1, "fortnight", null), RateLimitAlgorithm.TOKEN_BUCKET))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CustomRouteDefinitionDTO route(double rate, String unit, Integer burst) {
+        CustomRouteDefinitionDTO route = new CustomRouteDefinitionDTO();
+        route.setRouteId("orders");
+        route.setRateLimitRate(rate);
+        route.setRateLimitUnit(unit);
+        route.setRateLimitBurst(burst);
+        return route;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * @package com.nopaper.work.gateway.rollup -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 9:26:05 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.rollup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void uncontendedRecordsStayInTheSharedArray() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(i % 500);
+        }
+
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.addTo(counts);
+
+        assertThat(histogram.stripesAllocated()).isZero();
+        assertThat(Arrays.stream(counts).sum()).isEqualTo(10_000);
+        assertThat(LatencyHistogram.valueAtQuantile(counts, 10_000, 0.5)).isBetween(240L, 255L);
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    // Same bucket on every thread, the most contended case
+                    histogram.record(20);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.addTo(counts);
+
+        assertThat(counts[LatencyHistogram.bucketOf(20)]).isEqualTo((long) threads * perThread);
+        assertThat(Arrays.stream(counts).sum()).isEqualTo((long) threads * perThread);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:12:40 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.StripPrefixGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import com.nopaper.work.gateway.dto.CustomFilterDTO;
+import com.nopaper.work.gateway.dto.CustomRouteDefinitionDTO;
+import com.nopaper.work.gateway.service.RouteService;
+
+import reactor.core.publisher.Mono;
+
+class DatabaseRouteDefinitionLocatorTest {
+
+    private final RouteService routeService = mock(RouteService.class);
+
+    private final DatabaseRouteDefinitionLocator locator = new DatabaseRouteDefinitionLocator(routeService,
+        List.of(new PathRoutePredicateFactory(), new MethodRoutePredicateFactory(), new HostRoutePredicateFactory()),
+        List.of(new AddRequestHeaderGatewayFilterFactory(), new StripPrefixGatewayFilterFactory()));
+
+    @Test
+    void routesNamingUnknownFactoriesAreLeftOut() {
+        when(routeService.getEnabledRoutes()).thenReturn(Mono.just(List.of(
+            route("known", List.of(definition("Host")), List.of(definition("StripPrefix"), definition("AddRequestHeader"))),
+            route("typo-predicate", List.of(definition("Hots")), null),
+            route("typo-filter", null, List.of(definition("StripPrefx"))),
+            route("unnamed-filter", null, List.of(definition(null))))));
+
+        List<RouteDefinition> routes = locator.getRouteDefinitions().collectList().block();
+
+        assertThat(routes).extracting(RouteDefinition::getId).containsExactly("known");
+        assertThat(routes.get(0).getPredicates()).extracting("name").containsExactly("Path", "Host");
+        assertThat(routes.get(0).getFilters()).extracting("name").containsExactly("StripPrefix", "AddRequestHeader");
+    }
+
+    private static CustomRouteDefinitionDTO route(String id, List<CustomFilterDTO> predicates,
+            List<CustomFilterDTO> filters) {
+        CustomRouteDefinitionDTO dto = new CustomRouteDefinitionDTO();
+        dto.setRouteId(id);
+        dto.setUri("http://localhost:8081");
+        dto.setPath("/" + id + "/**");
+        dto.setEnabled(true);
+        dto.setPredicates(predicates);
+        dto.setFilters(filters);
+        return dto;
+    }
+
+    private static CustomFilterDTO definition(String name) {
+        CustomFilterDTO definition = new CustomFilterDTO();
+        definition.setName(name);
+        definition.setArgs(Map.of());
+        return definition;
+    }
+}
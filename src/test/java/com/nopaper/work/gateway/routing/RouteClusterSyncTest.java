@@ -0,0 +1,135 @@
+/**
+ * @package com.nopaper.work.gateway.routing -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 8:47:19 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.nopaper.work.gateway.dto.RouteChanges;
+import com.nopaper.work.gateway.service.RouteService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class RouteClusterSyncTest {
+
+    // The latest announcement and the announcements made, as kept in Redis
+    private String latest;
+    private final List<String> announcements = new ArrayList<>();
+    private String database = "bbb";
+
+    @Test
+    void reloadOnNotifyAfterAnAnnouncementDoesNotReloadOrAnnounceAgain() {
+        latest = "1:aaa";
+        Node node = new Node("aaa", 1);
+
+        node.sync.heartbeat().block();
+        // A NOTIFY reload picks up a change nobody announced
+        node.reloadFromDatabase();
+        node.sync.heartbeat().block();
+        node.sync.heartbeat().block();
+
+        assertThat(node.refreshes).isZero();
+        assertThat(announcements).isEmpty();
+        assertThat(node.version).isEqualTo("bbb");
+    }
+
+    @Test
+    void nodeLoadedBeforeTheAnnouncementReloads() {
+        latest = "2:bbb";
+        Node node = new Node("aaa", 1);
+
+        node.sync.heartbeat().block();
+        node.sync.heartbeat().block();
+
+        assertThat(node.refreshes).isEqualTo(1);
+        assertThat(node.version).isEqualTo("bbb");
+        assertThat(announcements).isEmpty();
+    }
+
+    @Test
+    void staleAnnouncementIsCorrectedByOneNode() {
+        // Announced, then rolled back through NOTIFY while these nodes were down
+        latest = "1:zzz";
+        Node first = new Node("aaa", 0);
+        Node second = new Node("aaa", 0);
+        // Both read the stale announcement; the first corrects it while the second reloads
+        second.beforeReload = () -> first.sync.heartbeat().block();
+
+        second.sync.heartbeat().block();
+
+        assertThat(first.refreshes).isEqualTo(1);
+        assertThat(second.refreshes).isEqualTo(1);
+        assertThat(announcements).containsExactly("2:bbb");
+        assertThat(latest).isEqualTo("2:bbb");
+        assertThat(second.version).isEqualTo("bbb");
+    }
+
+    private class Node {
+
+        String version;
+        long reloadsStarted;
+        long snapshotSequence;
+        int refreshes;
+        Runnable beforeReload = () -> {};
+        final RouteClusterSync sync;
+
+        @SuppressWarnings("unchecked")
+        Node(String version, long loaded) {
+            this.version = version;
+            this.reloadsStarted = loaded;
+            this.snapshotSequence = loaded;
+            RouteService routeService = mock(RouteService.class);
+            when(routeService.getSnapshotVersion()).thenAnswer(invocation -> this.version);
+            when(routeService.getReloadsStarted()).thenAnswer(invocation -> reloadsStarted);
+            when(routeService.getSnapshotSequence()).thenAnswer(invocation -> snapshotSequence);
+            RouteSnapshotRefresher refresher = mock(RouteSnapshotRefresher.class);
+            when(refresher.reload()).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+                refreshes++;
+                beforeReload.run();
+                reloadFromDatabase();
+                return new RouteChanges(false, Set.of(), Set.of(), Set.of());
+            }));
+            ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+            when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenAnswer(invocation -> redis(invocation.getArgument(0), invocation.getArgument(2)));
+            this.sync = new RouteClusterSync(redisTemplate, routeService, refresher, new SimpleMeterRegistry(),
+                Duration.ofSeconds(10));
+        }
+
+        void reloadFromDatabase() {
+            snapshotSequence = ++reloadsStarted;
+            version = database;
+        }
+    }
+
+    private Flux<String> redis(RedisScript<String> script, List<String> args) {
+        String source = script.getScriptAsString();
+        if (source.contains("ZADD")) {
+            return Flux.just(latest);
+        }
+        if (source.contains("ARGV[3]") && !args.get(2).equals(latest)) {
+            return Flux.empty();
+        }
+        latest = (Long.parseLong(latest.substring(0, latest.indexOf(':'))) + 1) + ":" + args.get(0);
+        announcements.add(latest);
+        return Flux.just(latest);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * @package com.nopaper.work.gateway.service -> gateway
+ * @author saikatbarman
+ * @date 2026 17-Oct-2026 4:38:09 pm
+ * @git 
+ */
+package com.nopaper.work.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.nopaper.work.gateway.dto.RateLimitDecision;
+import com.nopaper.work.gateway.ratelimit.LuaRedis;
+import com.nopaper.work.gateway.ratelimit.RateLimitAlgorithm;
+import com.nopaper.work.gateway.ratelimit.RateLimitFallback;
+import com.nopaper.work.gateway.ratelimit.RateLimitSpec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Decisions of the check script, run by LuaRedis on a fake clock that starts
+ * on a window boundary.
+ */
+class RateLimitServiceTest {
+
+    private static final String KEY = "client";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000_000));
+    private final LuaRedis redis = new LuaRedis(clock::get);
+    private final RateLimitService service = service(false);
+
+    @Test
+    void fixedWindowAllowsTheLimitThenWaitsForTheNextWindow() {
+        RateLimitSpec spec = new RateLimitSpec(3, 1_000, 3, RateLimitAlgorithm.FIXED_WINDOW);
+
+        assertThat(check(spec, 1).remaining()).isEqualTo(2);
+        assertThat(check(spec, 2).remaining()).isZero();
+        advance(250);
+        RateLimitDecision denied = check(spec, 1);
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterMillis()).isEqualTo(750);
+        assertThat(denied.resetAfterMillis()).isEqualTo(750);
+        assertThat(redis.pttl("ratelimit:" + KEY)).isEqualTo(750);
+        advance(750);
+        assertThat(check(spec, 1).allowed()).isTrue();
+    }
+
+    @Test
+    void slidingWindowCountsTheOverlapOfThePreviousWindow() {
+        RateLimitSpec spec = new RateLimitSpec(10, 1_000, 10, RateLimitAlgorithm.SLIDING_WINDOW);
+        for (int i = 0; i < 10; i++) {
+            assertThat(check(spec, 1).allowed()).isTrue();
+        }
+
+        // Half way into the next window half of the previous one still counts
+        advance(1_500);
+        for (int i = 0; i < 5; i++) {
+            assertThat(check(spec, 1).allowed()).isTrue();
+        }
+        RateLimitDecision denied = check(spec, 1);
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.remaining()).isZero();
+        // Until 10% of the window slid out: one previous request
+        assertThat(denied.retryAfterMillis()).isEqualTo(100);
+        advance(100);
+        assertThat(check(spec, 1).allowed()).isTrue();
+    }
+
+    @Test
+    void gcraAllowsTheBurstThenOneRequestPerInterval() {
+        RateLimitSpec spec = new RateLimitSpec(10, 1_000, 3, RateLimitAlgorithm.GCRA);
+
+        assertThat(check(spec, 1).remaining()).isEqualTo(2);
+        assertThat(check(spec, 1).remaining()).isEqualTo(1);
+        assertThat(check(spec, 1).remaining()).isZero();
+        RateLimitDecision denied = check(spec, 1);
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterMillis()).isEqualTo(100);
+        assertThat(denied.resetAfterMillis()).isEqualTo(300);
+        advance(100);
+        assertThat(check(spec, 1).allowed()).isTrue();
+        assertThat(check(spec, 1).allowed()).isFalse();
+        // The key is gone once the burst is back
+        advance(300);
+        assertThat(redis.hash("ratelimit:" + KEY)).isEmpty();
+    }
+
+    @Test
+    void batchedChecksAreDecidedOnTheirOwnKeys() {
+        RateLimitService batching = service(true);
+        RateLimitSpec fixed = new RateLimitSpec(2, 1_000, 2, RateLimitAlgorithm.FIXED_WINDOW);
+        RateLimitSpec gcra = new RateLimitSpec(10, 1_000, 5, RateLimitAlgorithm.GCRA);
+
+        try {
+            List<RateLimitDecision> decisions = Flux.range(0, 6)
+                .flatMapSequential(i -> i % 2 == 0
+                    ? batching.check("fixed", fixed, 1)
+                    : batching.check("gcra", gcra, 1))
+                .collectList()
+                .block();
+
+            assertThat(decisions).extracting(RateLimitDecision::allowed)
+                .containsExactly(true, true, true, true, false, true);
+            assertThat(decisions).extracting(RateLimitDecision::remaining)
+                .containsExactly(1L, 4L, 0L, 3L, 0L, 2L);
+        } finally {
+            batching.stop();
+        }
+    }
+
+    private RateLimitDecision check(RateLimitSpec spec, int cost) {
+        return service.check(KEY, spec, cost).block();
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private RateLimitService service(boolean batched) {
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, String> template = mock(ReactiveRedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenAnswer(invocation -> Flux.just(redis.eval(invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2))));
+        // Redis stays healthy: calls pass through, never degraded
+        RateLimitFallback healthy = mock(RateLimitFallback.class);
+        when(healthy.guard(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new RateLimitService(template, healthy, new SimpleMeterRegistry(), batched, Duration.ofMillis(5), 16);
+    }
+}